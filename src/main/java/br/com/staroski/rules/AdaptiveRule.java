@@ -0,0 +1,218 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Regra interna obtida atrav&eacute;s do m&eacute;todo {@link Rule#optimize()}, que no modo {@link EvaluationMode#FAST} reordena os operandos das
+ * opera&ccedil;&otilde;es <B>E</B> e <B>OU</B> conforme o custo e o resultado de cada um observados durante as avalia&ccedil;&otilde;es.<BR>
+ * <BR>
+ * Cada n&oacute; conta quantas vezes foi avaliado e quantas vezes n&atilde;o foi atendido, e mede o tempo de uma a cada {@link #SAMPLE_MASK} + 1
+ * avalia&ccedil;&otilde;es. A cada {@link #REORDER_INTERVAL} avalia&ccedil;&otilde;es os operandos s&atilde;o ordenados pelo custo esperado para
+ * decidir a opera&ccedil;&atilde;o: numa opera&ccedil;&atilde;o <B>E</B> os operandos baratos que costumam n&atilde;o ser atendidos vem primeiro, numa
+ * opera&ccedil;&atilde;o <B>OU</B> os baratos que costumam ser atendidos. As estat&iacute;sticas s&atilde;o ent&atilde;o reduzidas pela metade, assim a
+ * ordem acompanha mudan&ccedil;as nos objetos avaliados.<BR>
+ * <BR>
+ * No modo {@link EvaluationMode#DIAGNOSTIC} a regra original &eacute; avaliada, de modo que os detalhes mant&ecirc;m sempre a mesma ordem.
+ *
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class AdaptiveRule<T> extends Rule<T> {
+
+	/**
+	 * M&aacute;scara aplicada &agrave; quantidade de avalia&ccedil;&otilde;es de um n&oacute; para decidir se o tempo da avalia&ccedil;&atilde;o
+	 * ser&aacute; medido.
+	 */
+	static final int SAMPLE_MASK = 31;
+
+	/**
+	 * Quantidade de avalia&ccedil;&otilde;es entre duas reordena&ccedil;&otilde;es dos operandos.
+	 */
+	static final int REORDER_INTERVAL = 4096;
+
+	/**
+	 * N&oacute; da express&atilde;o avaliada no modo {@link EvaluationMode#FAST}, com as estat&iacute;sticas de suas avalia&ccedil;&otilde;es.<BR>
+	 * As estat&iacute;sticas s&atilde;o atualizadas sem sincroniza&ccedil;&atilde;o, as atualiza&ccedil;&otilde;es perdidas quando v&aacute;rias
+	 * threads avaliam a regra apenas tornam as estimativas menos precisas.
+	 */
+	private static final class Node<T> {
+
+		final int kind;
+
+		/**
+		 * A especifica&ccedil;&atilde;o verificada, somente para {@link Expression#LEAF}.
+		 */
+		final SilentSpecification<T> spec;
+
+		/**
+		 * Os operandos na ordem de avalia&ccedil;&atilde;o, substitu&iacute;dos por um novo vetor a cada reordena&ccedil;&atilde;o.
+		 */
+		volatile Node<T>[] operands;
+
+		int calls;
+		int failures;
+		int samples;
+		long nanos;
+
+		Node(final int kind, final SilentSpecification<T> spec, final Node<T>[] operands) {
+			this.kind = kind;
+			this.spec = spec;
+			this.operands = operands;
+		}
+
+		/**
+		 * Obt&eacute;m o custo esperado de avaliar este n&oacute; at&eacute; obter o resultado que decide a opera&ccedil;&atilde;o que o comp&otilde;e.
+		 */
+		double rank(final boolean and) {
+			final double cost = (double) nanos / samples;
+			// suavizado para que um operando nunca observado decidindo a operação não tenha custo infinito
+			final double decisive = ((and ? failures : calls - failures) + 1.0) / (calls + 2.0);
+			return cost / decisive;
+		}
+
+		boolean test(final T object) {
+			final boolean satisfied;
+			if ((++calls & SAMPLE_MASK) == 0) {
+				final long start = System.nanoTime();
+				satisfied = evaluate(object);
+				nanos += System.nanoTime() - start;
+				samples++;
+			} else {
+				satisfied = evaluate(object);
+			}
+			if (!satisfied) {
+				failures++;
+			}
+			return satisfied;
+		}
+
+		private boolean evaluate(final T object) {
+			switch (kind) {
+				case Expression.LEAF:
+					return spec.verify(object, Details.IGNORED);
+				case Expression.AND:
+					for (final Node<T> operand : operands) {
+						if (!operand.test(object)) {
+							return false;
+						}
+					}
+					return true;
+				case Expression.OR:
+					for (final Node<T> operand : operands) {
+						if (operand.test(object)) {
+							return true;
+						}
+					}
+					return false;
+				default:
+					return !operands[0].test(object);
+			}
+		}
+	}
+
+	/**
+	 * Cria os n&oacute;s de uma express&atilde;o.
+	 */
+	private static <T> Node<T> node(final Expression<T> expression) {
+		if (expression.kind == Expression.LEAF) {
+			return new Node<T>(Expression.LEAF, CompiledRule.specification(expression.rule), null);
+		}
+		final Node<T>[] operands = newArray(expression.operands.size());
+		for (int i = 0; i < operands.length; i++) {
+			operands[i] = node(expression.operands.get(i));
+		}
+		return new Node<T>(expression.kind, null, operands);
+	}
+
+	/**
+	 * Cria um vetor de n&oacute;s, os vetores de tipos gen&eacute;ricos s&oacute; podem ser criados sem o tipo.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Node<T>[] newArray(final int length) {
+		return (Node<T>[]) new Node<?>[length];
+	}
+
+	/**
+	 * Reordena os operandos do n&oacute; informado e de seus descendentes, reduzindo suas estat&iacute;sticas pela metade.
+	 */
+	private static <T> void reorder(final Node<T> node) {
+		if (node.kind != Expression.LEAF) {
+			final Node<T>[] operands = node.operands;
+			boolean measured = true;
+			for (final Node<T> operand : operands) {
+				reorder(operand);
+				measured &= operand.samples > 0;
+			}
+			// só reordena quando todos os operandos já foram medidos
+			if (measured && operands.length > 1) {
+				final boolean and = node.kind == Expression.AND;
+				// as estatísticas mudam durante a ordenação, então ela usa uma cópia dos custos
+				final double[] ranks = new double[operands.length];
+				final Integer[] order = new Integer[operands.length];
+				for (int i = 0; i < operands.length; i++) {
+					ranks[i] = operands[i].rank(and);
+					order[i] = i;
+				}
+				Arrays.sort(order, new Comparator<Integer>() {
+
+					@Override
+					public int compare(final Integer a, final Integer b) {
+						return Double.compare(ranks[a], ranks[b]);
+					}
+				});
+				final Node<T>[] sorted = newArray(operands.length);
+				for (int i = 0; i < sorted.length; i++) {
+					sorted[i] = operands[order[i]];
+				}
+				if (!Arrays.equals(sorted, operands)) {
+					node.operands = sorted;
+				}
+			}
+		}
+		node.calls >>= 1;
+		node.failures >>= 1;
+		node.samples >>= 1;
+		node.nanos >>= 1;
+	}
+
+	private final Rule<T> source;
+
+	private final Node<T> root;
+
+	/**
+	 * Quantidade de avalia&ccedil;&otilde;es no modo {@link EvaluationMode#FAST} desde a &uacute;ltima reordena&ccedil;&atilde;o.
+	 */
+	private int evaluations;
+
+	AdaptiveRule(final Rule<T> source) {
+		this.source = source;
+		this.root = node(Expression.of(source));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		if (details != null) {
+			return source.test(object, details);
+		}
+		if (++evaluations >= REORDER_INTERVAL) {
+			evaluations = 0;
+			synchronized (root) {
+				reorder(root);
+			}
+		}
+		return root.test(object);
+	}
+}
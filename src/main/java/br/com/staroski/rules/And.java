@@ -34,4 +34,18 @@ final class And<T> extends BinaryRule<T> {
 		}
 		return satisfied1 && satisfied2;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		if (details == null) {
+			// sem detalhes a segunda regra só é verificada se puder mudar o resultado
+			return getFirstRule().test(object, null) && getSecondRule().test(object, null);
+		}
+		boolean satisfied1 = testOperand(getFirstRule(), object, details);
+		boolean satisfied2 = testOperand(getSecondRule(), object, details);
+		return satisfied1 && satisfied2;
+	}
 }
\ No newline at end of file
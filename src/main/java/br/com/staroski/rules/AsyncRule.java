@@ -0,0 +1,372 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Regra composta por {@link AsyncSpecification especifica&ccedil;&otilde;es ass&iacute;ncronas}, cuja avalia&ccedil;&atilde;o retorna um futuro em vez
+ * de bloquear a thread que a iniciou.<BR>
+ * <BR>
+ * Os dois operandos de uma opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> s&atilde;o iniciados juntos e verificados ao mesmo tempo. No modo
+ * {@link EvaluationMode#FAST} o futuro da opera&ccedil;&atilde;o &eacute; conclu&iacute;do assim que um dos operandos decide o resultado, sem esperar
+ * pelo outro, e o segundo operando nem &eacute; iniciado se o primeiro j&aacute; foi conclu&iacute;do decidindo o resultado. No modo
+ * {@link EvaluationMode#DIAGNOSTIC} os dois operandos s&atilde;o sempre aguardados e os detalhes s&atilde;o os mesmos que o m&eacute;todo
+ * {@link Rule#evaluate(Object)} obteria com especifica&ccedil;&otilde;es s&iacute;ncronas.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * AsyncSpecification&lt;Pessoa&gt; cadastrada = (pessoa, violacoes) -&gt; cadastro.buscar(pessoa.nome).thenApply(encontrada -&gt; {
+ * 	if (encontrada == null) {
+ * 		violacoes.report(&quot;Pessoa n&amp;atildeo cadastrada&quot;);
+ * 		return false;
+ * 	}
+ * 	return true;
+ * });
+ * AsyncRule&lt;Pessoa&gt; regra = AsyncRule.create(cadastrada).and(Rule.create(new Idade()));
+ * regra.evaluate(pessoa).thenAccept(avaliacao -&gt; System.out.println(avaliacao.getDetails()));
+ * </PRE>
+ *
+ * Um futuro conclu&iacute;do com uma {@link UnattendedException} equivale a um objeto que n&atilde;o atende &agrave; especifica&ccedil;&atilde;o, as
+ * demais exce&ccedil;&otilde;es concluem o futuro da avalia&ccedil;&atilde;o com a mesma exce&ccedil;&atilde;o, a n&atilde;o ser que, no modo
+ * {@link EvaluationMode#FAST}, o outro operando decida o resultado. Uma especifica&ccedil;&atilde;o que retorna <code>null</code> em vez de um futuro
+ * conclui o futuro da avalia&ccedil;&atilde;o com uma {@link NullPointerException}.<BR>
+ * Os futuros dos operandos que n&atilde;o decidem o resultado n&atilde;o s&atilde;o cancelados, pois podem ser compartilhados pelas
+ * especifica&ccedil;&otilde;es, apenas deixam de ser aguardados.<BR>
+ * As regras s&atilde;o imut&aacute;veis e podem ser utilizadas por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public abstract class AsyncRule<T> {
+
+	/**
+	 * Resultado de uma regra que comp&otilde;e a avalia&ccedil;&atilde;o.
+	 */
+	static final class Result {
+
+		static final Result SATISFIED = new Result(true, null);
+		static final Result UNSATISFIED = new Result(false, null);
+
+		final boolean satisfied;
+
+		/**
+		 * Os detalhes ou <code>null</code> no modo {@link EvaluationMode#FAST}.
+		 */
+		final Details details;
+
+		Result(final boolean satisfied, final Details details) {
+			this.satisfied = satisfied;
+			this.details = details;
+		}
+
+		static Result of(final boolean satisfied, final Details details) {
+			if (details == null) {
+				return satisfied ? SATISFIED : UNSATISFIED;
+			}
+			return new Result(satisfied, details);
+		}
+	}
+
+	/**
+	 * Regra que verifica uma {@link AsyncSpecification especifica&ccedil;&atilde;o ass&iacute;ncrona}.
+	 */
+	private static final class Leaf<T> extends AsyncRule<T> {
+
+		private final AsyncSpecification<T> spec;
+
+		Leaf(final AsyncSpecification<T> spec) {
+			this.spec = Objects.requireNonNull(spec, "spec");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		CompletableFuture<Result> test(final T object, final boolean diagnostic) {
+			final Details details = diagnostic ? new Details() : null;
+			CompletableFuture<Boolean> future;
+			try {
+				future = Objects.requireNonNull(spec.verify(object, details == null ? Details.IGNORED : details),
+						"AsyncSpecification.verify returned a null future");
+			} catch (RuntimeException e) {
+				future = new CompletableFuture<Boolean>();
+				future.completeExceptionally(e);
+			}
+			return future.handle((satisfied, error) -> {
+				if (error == null) {
+					return Result.of(satisfied, details);
+				}
+				final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				if (cause instanceof UnattendedException) {
+					if (details != null) {
+						((UnattendedException) cause).report(details);
+					}
+					return Result.of(false, details);
+				}
+				throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+			});
+		}
+	}
+
+	/**
+	 * Regra que verifica uma {@link Rule regra} s&iacute;ncrona na thread que iniciou a avalia&ccedil;&atilde;o.
+	 */
+	private static final class Synchronous<T> extends AsyncRule<T> {
+
+		private final Rule<T> rule;
+
+		Synchronous(final Rule<T> rule) {
+			this.rule = Objects.requireNonNull(rule, "rule");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		CompletableFuture<Result> test(final T object, final boolean diagnostic) {
+			final CompletableFuture<Result> future = new CompletableFuture<Result>();
+			try {
+				final Details details = diagnostic ? new Details() : null;
+				future.complete(Result.of(rule.test(object, details), details));
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+			return future;
+		}
+	}
+
+	/**
+	 * Regra que realiza a opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> entre duas regras.
+	 */
+	private static final class Binary<T> extends AsyncRule<T> {
+
+		private final boolean and;
+		private final AsyncRule<T> rule1;
+		private final AsyncRule<T> rule2;
+
+		Binary(final boolean and, final AsyncRule<T> rule1, final AsyncRule<T> rule2) {
+			this.and = and;
+			this.rule1 = rule1;
+			this.rule2 = Objects.requireNonNull(rule2, "rule");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		CompletableFuture<Result> test(final T object, final boolean diagnostic) {
+			final CompletableFuture<Result> first = rule1.test(object, diagnostic);
+			if (diagnostic) {
+				// os dois operandos repassam seus detalhes, como na regra síncrona
+				return first.thenCombine(rule2.test(object, true), (result1, result2) -> {
+					final Details merged = new Details();
+					if (!result1.satisfied) {
+						merged.addAll(result1.details);
+					}
+					if (!result2.satisfied) {
+						merged.addAll(result2.details);
+					}
+					return Result.of(and ? result1.satisfied && result2.satisfied : result1.satisfied || result2.satisfied, merged);
+				});
+			}
+			if (first.isDone() && !first.isCompletedExceptionally() && first.join().satisfied != and) {
+				return first;
+			}
+			final CompletableFuture<Result> second = rule2.test(object, false);
+			final CompletableFuture<Result> decided = new CompletableFuture<Result>();
+			final AtomicInteger pending = new AtomicInteger(2);
+			final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+			final BiConsumer<Result, Throwable> action = (result, error) -> {
+				if (error == null && result.satisfied != and) {
+					// o primeiro operando que decide o resultado conclui a operação
+					decided.complete(result);
+					return;
+				}
+				if (error != null) {
+					failure.compareAndSet(null, error);
+				}
+				if (pending.decrementAndGet() == 0) {
+					final Throwable cause = failure.get();
+					if (cause == null) {
+						decided.complete(Result.of(and, null));
+					} else {
+						decided.completeExceptionally(cause);
+					}
+				}
+			};
+			first.whenComplete(action);
+			second.whenComplete(action);
+			return decided;
+		}
+	}
+
+	/**
+	 * Regra que realiza a opera&ccedil;&atilde;o <B>N&Atilde;O</B> de uma regra.
+	 */
+	private static final class Negation<T> extends AsyncRule<T> {
+
+		private final AsyncRule<T> rule;
+
+		Negation(final AsyncRule<T> rule) {
+			this.rule = rule;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		CompletableFuture<Result> test(final T object, final boolean diagnostic) {
+			return rule.test(object, diagnostic).thenApply(result -> {
+				if (result.satisfied) {
+					// os detalhes de quem foi atendido não sobem para a regra composta
+					return Result.of(false, diagnostic ? new Details() : null);
+				}
+				return Result.of(true, result.details);
+			});
+		}
+	}
+
+	/**
+	 * Obt&eacute;m uma regra a partir de uma {@link AsyncSpecification especifica&ccedil;&atilde;o ass&iacute;ncrona}.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param spec A {@link AsyncSpecification} da qual ser&aacute; criada uma {@link AsyncRule}.
+	 * @return A {@link AsyncRule} que encapsula a {@link AsyncSpecification} informada.
+	 */
+	public static <T> AsyncRule<T> create(final AsyncSpecification<T> spec) {
+		return new Leaf<T>(spec);
+	}
+
+	/**
+	 * Obt&eacute;m uma regra ass&iacute;ncrona a partir de uma {@link Rule regra} s&iacute;ncrona, que &eacute; avaliada na thread que inicia a
+	 * avalia&ccedil;&atilde;o.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param rule A {@link Rule} da qual ser&aacute; criada uma {@link AsyncRule}.
+	 * @return A {@link AsyncRule} que encapsula a {@link Rule} informada.
+	 */
+	public static <T> AsyncRule<T> create(final Rule<T> rule) {
+		return new Synchronous<T>(rule);
+	}
+
+	/**
+	 * Construtor interno, as regras s&atilde;o obtidas atrav&eacute;s dos m&eacute;todos <code>create</code>.
+	 */
+	AsyncRule() {
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>E</B> a regra informada atenderem ao mesmo objeto.
+	 *
+	 * @param rule A {@link AsyncRule} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} que atende a um objeto se esta regra e a regra informada atenderem a este objeto.
+	 */
+	public final AsyncRule<T> and(final AsyncRule<T> rule) {
+		return new Binary<T>(true, this, rule);
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>E</B> a {@link AsyncSpecification especifica&ccedil;&atilde;o
+	 * ass&iacute;ncrona} informada atenderem ao mesmo objeto.
+	 *
+	 * @param spec A {@link AsyncSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} equivalente a <code>and(create(spec))</code>.
+	 */
+	public final AsyncRule<T> and(final AsyncSpecification<T> spec) {
+		return and(create(spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>E</B> a {@link Rule regra} s&iacute;ncrona informada
+	 * atenderem ao mesmo objeto.
+	 *
+	 * @param rule A {@link Rule} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} equivalente a <code>and(create(rule))</code>.
+	 */
+	public final AsyncRule<T> and(final Rule<T> rule) {
+		return and(create(rule));
+	}
+
+	/**
+	 * Avalia o objeto informado no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @return Um futuro conclu&iacute;do com a {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+	 */
+	public final CompletableFuture<Evaluation> evaluate(final T object) {
+		return evaluate(object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado no {@link EvaluationMode modo} desejado.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return Um futuro conclu&iacute;do com a {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+	 */
+	public final CompletableFuture<Evaluation> evaluate(final T object, final EvaluationMode mode) {
+		return test(object, mode == EvaluationMode.DIAGNOSTIC).thenApply(result -> {
+			if (result.details == null) {
+				return result.satisfied ? Evaluation.SATISFIED : Evaluation.UNSATISFIED;
+			}
+			return Evaluation.of(result.satisfied, result.details);
+		});
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra n&atilde;o atender a este objeto.
+	 *
+	 * @return Uma {@link AsyncRule} que atende a um objeto se esta regra n&atilde;o atender a este objeto.
+	 */
+	public final AsyncRule<T> not() {
+		// assim como em Rule, negar uma negação devolve a regra original
+		if (this instanceof Negation) {
+			return ((Negation<T>) this).rule;
+		}
+		return new Negation<T>(this);
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>OU</B> a regra informada atenderem ao mesmo objeto.
+	 *
+	 * @param rule A {@link AsyncRule} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} que atende a um objeto se esta regra ou a regra informada atenderem a este objeto.
+	 */
+	public final AsyncRule<T> or(final AsyncRule<T> rule) {
+		return new Binary<T>(false, this, rule);
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>OU</B> a {@link AsyncSpecification especifica&ccedil;&atilde;o
+	 * ass&iacute;ncrona} informada atenderem ao mesmo objeto.
+	 *
+	 * @param spec A {@link AsyncSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} equivalente a <code>or(create(spec))</code>.
+	 */
+	public final AsyncRule<T> or(final AsyncSpecification<T> spec) {
+		return or(create(spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se esta regra <B>OU</B> a {@link Rule regra} s&iacute;ncrona informada
+	 * atenderem ao mesmo objeto.
+	 *
+	 * @param rule A {@link Rule} a ser adicionada a esta regra.
+	 * @return Uma {@link AsyncRule} equivalente a <code>or(create(rule))</code>.
+	 */
+	public final AsyncRule<T> or(final Rule<T> rule) {
+		return or(create(rule));
+	}
+
+	/**
+	 * Inicia a verifica&ccedil;&atilde;o do objeto informado.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @param diagnostic Se os detalhes devem ser coletados.
+	 * @return Um futuro conclu&iacute;do com o resultado, nunca lan&ccedil;a exce&ccedil;&otilde;es diretamente.
+	 */
+	abstract CompletableFuture<Result> test(T object, boolean diagnostic);
+}
@@ -0,0 +1,31 @@
+package br.com.staroski.rules;
+
+import java.util.concurrent.*;
+
+/**
+ * Variante da {@link SilentSpecification especifica&ccedil;&atilde;o silenciosa} cuja verifica&ccedil;&atilde;o &eacute; conclu&iacute;da de forma
+ * ass&iacute;ncrona, por exemplo ap&oacute;s uma consulta a um banco de dados ou a um cache remoto, sem bloquear a thread que a iniciou.<BR>
+ * Se o objeto atende &agrave; {@link AsyncSpecification especifica&ccedil;&atilde;o}, o futuro retornado deve ser conclu&iacute;do com
+ * <code>true</code>.<BR>
+ * Se o objeto n&atilde;o atende &agrave; {@link AsyncSpecification especifica&ccedil;&atilde;o}, o motivo deve ser informado em {@link Violations} antes
+ * de o futuro ser conclu&iacute;do com <code>false</code>, ou o futuro pode ser conclu&iacute;do com uma {@link UnattendedException}.<BR>
+ * <BR>
+ * <I><B>Dica: </B> Consulte a documenta&ccedil;&atilde;o da classe {@link AsyncRule} para mais detalhes.</I>
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o desta interface.
+ */
+public interface AsyncSpecification<T> {
+
+	/**
+	 * Inicia a verifica&ccedil;&atilde;o do objeto informado.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @param violations Onde devem ser informados os motivos de o objeto n&atilde;o atender a especifica&ccedil;&atilde;o, de qualquer thread, desde que
+	 *            antes da conclus&atilde;o do futuro.
+	 *
+	 * @return Um futuro conclu&iacute;do com <code>true</code> se o objeto atender a especifica&ccedil;&atilde;o e <code>false</code> caso
+	 *         contr&aacute;rio, nunca <code>null</code>.
+	 */
+	public CompletableFuture<Boolean> verify(T object, Violations violations);
+}
@@ -0,0 +1,196 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Resultado imut&aacute;vel da avalia&ccedil;&atilde;o de v&aacute;rios objetos por uma {@link Rule regra}, obtido atrav&eacute;s do m&eacute;todo
+ * {@link Rule#evaluateAll(Iterable)}.<BR>
+ * <BR>
+ * Os resultados s&atilde;o armazenados num mapa de bits, na ordem em que os objetos foram avaliados, e os detalhes s&atilde;o mantidos somente para os
+ * objetos que n&atilde;o atenderam &agrave; regra, assim os objetos que atendem n&atilde;o ocupam mais do que um bit. As mensagens dos detalhes s&oacute;
+ * s&atilde;o constru&iacute;das quando os detalhes de cada objeto forem lidos.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public final class BatchEvaluation {
+
+	/**
+	 * Acumula os resultados de uma avalia&ccedil;&atilde;o em lote.
+	 */
+	static final class Builder {
+
+		private long[] words = new long[1];
+		private int size;
+		private int[] failures = new int[0];
+		private Evaluation[] evaluations = new Evaluation[0];
+		private int failed;
+
+		/**
+		 * Adiciona o resultado do pr&oacute;ximo objeto.
+		 * 
+		 * @param satisfied Se o objeto atendeu &agrave; regra.
+		 * @param collected Os detalhes coletados, utilizados somente se o objeto n&atilde;o atendeu &agrave; regra.
+		 */
+		void add(final boolean satisfied, final List<String> collected) {
+			if (size == words.length << 6) {
+				words = Arrays.copyOf(words, words.length << 1);
+			}
+			if (satisfied) {
+				words[size >> 6] |= 1L << size;
+			} else {
+				// copia os detalhes sem construir as mensagens pendentes
+				addFailure(size, Evaluation.of(false, collected));
+			}
+			size++;
+		}
+
+		/**
+		 * Adiciona os resultados acumulados por outro {@link Builder}, mantendo a ordem.
+		 * 
+		 * @param other Os resultados a serem adicionados.
+		 */
+		void addAll(final Builder other) {
+			final int offset = size;
+			final int total = size + other.size;
+			if (total > words.length << 6) {
+				words = Arrays.copyOf(words, Math.max(words.length << 1, (total + 63) >> 6));
+			}
+			if ((offset & 63) == 0) {
+				System.arraycopy(other.words, 0, words, offset >> 6, (other.size + 63) >> 6);
+			} else {
+				for (int i = 0; i < other.size; i++) {
+					if ((other.words[i >> 6] & (1L << i)) != 0) {
+						words[(offset + i) >> 6] |= 1L << (offset + i);
+					}
+				}
+			}
+			for (int i = 0; i < other.failed; i++) {
+				addFailure(offset + other.failures[i], other.evaluations[i]);
+			}
+			size = total;
+		}
+
+		BatchEvaluation build() {
+			return new BatchEvaluation(Arrays.copyOf(words, (size + 63) >> 6), size, Arrays.copyOf(failures, failed),
+					Arrays.copyOf(evaluations, failed));
+		}
+
+		private void addFailure(final int index, final Evaluation evaluation) {
+			if (failed == failures.length) {
+				final int capacity = Math.max(8, failed << 1);
+				failures = Arrays.copyOf(failures, capacity);
+				evaluations = Arrays.copyOf(evaluations, capacity);
+			}
+			failures[failed] = index;
+			evaluations[failed] = evaluation;
+			failed++;
+		}
+	}
+
+	/**
+	 * Mapa de bits onde cada bit ligado corresponde a um objeto que atendeu &agrave; regra.
+	 */
+	private final long[] words;
+
+	private final int size;
+
+	/**
+	 * As posi&ccedil;&otilde;es, em ordem crescente, dos objetos que n&atilde;o atenderam &agrave; regra.
+	 */
+	private final int[] failures;
+
+	/**
+	 * A avalia&ccedil;&atilde;o de cada objeto que n&atilde;o atendeu &agrave; regra, com os seus detalhes.
+	 */
+	private final Evaluation[] evaluations;
+
+	private BatchEvaluation(final long[] words, final int size, final int[] failures, final Evaluation[] evaluations) {
+		this.words = words;
+		this.size = size;
+		this.failures = failures;
+		this.evaluations = evaluations;
+	}
+
+	/**
+	 * Obt&eacute;m os detalhes do motivo de o objeto da posi&ccedil;&atilde;o informada n&atilde;o atender &agrave; regra.
+	 * 
+	 * @param index A posi&ccedil;&atilde;o do objeto, na ordem em que foi avaliado.
+	 * @return Uma lista imut&aacute;vel, vazia caso o objeto tenha atendido &agrave; regra ou caso nenhum detalhe tenha sido gerado.
+	 */
+	public List<String> getDetails(final int index) {
+		return getEvaluation(index).getDetails();
+	}
+
+	/**
+	 * Obt&eacute;m a {@link Evaluation avalia&ccedil;&atilde;o} do objeto da posi&ccedil;&atilde;o informada.
+	 * 
+	 * @param index A posi&ccedil;&atilde;o do objeto, na ordem em que foi avaliado.
+	 * @return A avalia&ccedil;&atilde;o do objeto.
+	 */
+	public Evaluation getEvaluation(final int index) {
+		checkIndex(index);
+		final int failure = Arrays.binarySearch(failures, index);
+		return failure < 0 ? Evaluation.SATISFIED : evaluations[failure];
+	}
+
+	/**
+	 * Obt&eacute;m as posi&ccedil;&otilde;es dos objetos que atenderam &agrave; regra.
+	 * 
+	 * @return Uma c&oacute;pia do mapa de bits dos objetos que atenderam &agrave; regra.
+	 */
+	public BitSet getSatisfied() {
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de objetos que atenderam &agrave; regra.
+	 * 
+	 * @return A quantidade de objetos que atenderam &agrave; regra.
+	 */
+	public int getSatisfiedCount() {
+		return size - failures.length;
+	}
+
+	/**
+	 * Obt&eacute;m as posi&ccedil;&otilde;es dos objetos que n&atilde;o atenderam &agrave; regra.
+	 * 
+	 * @return As posi&ccedil;&otilde;es em ordem crescente.
+	 */
+	public int[] getUnsatisfied() {
+		return failures.clone();
+	}
+
+	/**
+	 * Verifica se o objeto da posi&ccedil;&atilde;o informada atendeu &agrave; regra.
+	 * 
+	 * @param index A posi&ccedil;&atilde;o do objeto, na ordem em que foi avaliado.
+	 * @return <code>true</code> se o objeto atendeu &agrave; regra e <code>false</code> caso contr&aacute;rio.
+	 */
+	public boolean isSatisfied(final int index) {
+		checkIndex(index);
+		return (words[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de objetos avaliados.
+	 * 
+	 * @return A quantidade de objetos avaliados.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "BatchEvaluation[size=" + size + ", unsatisfied=" + failures.length + "]";
+	}
+
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
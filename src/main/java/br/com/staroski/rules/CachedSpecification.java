@@ -0,0 +1,304 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * {@link SilentSpecification Especifica&ccedil;&atilde;o} que memoriza os resultados de outra especifica&ccedil;&atilde;o, ou {@link Rule regra}, cujo
+ * resultado depende somente de uma chave extra&iacute;da do objeto verificado.<BR>
+ * <BR>
+ * Quando um objeto com uma chave j&aacute; verificada &eacute; informado, o resultado e as viola&ccedil;&otilde;es memorizadas s&atilde;o reaproveitados
+ * sem executar a especifica&ccedil;&atilde;o original, nem lan&ccedil;ar sua {@link UnattendedException}.<BR>
+ * Os resultados s&atilde;o mantidos em um cache limitado, dividido em segmentos pela chave, cada um com uma parte da capacidade e seu pr&oacute;prio
+ * bloqueio, assim threads que verificam chaves de segmentos diferentes n&atilde;o aguardam umas pelas outras. Quando um segmento est&aacute; cheio, a
+ * chave utilizada h&aacute; mais tempo nele &eacute; descartada.<BR>
+ * As viola&ccedil;&otilde;es memorizadas mant&ecirc;m as mensagens ainda n&atilde;o constru&iacute;das, que s&oacute; s&atilde;o constru&iacute;das quando
+ * os detalhes forem lidos.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * CachedSpecification&lt;Pessoa, String&gt; nome = CachedSpecification.of(new Nome(), pessoa -&gt; pessoa.nome, 1000);
+ * Rule&lt;Pessoa&gt; regra = Rule.create(nome).and(new Idade());
+ * </PRE>
+ *
+ * As especifica&ccedil;&otilde;es e regras memorizadas devem ser fun&ccedil;&otilde;es puras da chave, caso contr&aacute;rio os resultados
+ * reaproveitados podem n&atilde;o corresponder ao objeto verificado.<BR>
+ * Esta classe pode ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+ * @param <K> Tipo de dado da chave que determina o resultado da especifica&ccedil;&atilde;o.
+ */
+public final class CachedSpecification<T, K> implements SilentSpecification<T> {
+
+	/**
+	 * Resultado memorizado de uma chave.
+	 */
+	private static final class Result {
+
+		final boolean satisfied;
+
+		/**
+		 * As viola&ccedil;&otilde;es, que nunca s&atilde;o alteradas, ou <code>null</code> se o resultado foi obtido no modo
+		 * {@link EvaluationMode#FAST}, sem viola&ccedil;&otilde;es.
+		 */
+		final Details violations;
+
+		Result(final boolean satisfied, final Details violations) {
+			this.satisfied = satisfied;
+			this.violations = violations;
+		}
+	}
+
+	/**
+	 * Segmento do cache, com os resultados na ordem de acesso, protegido pelo seu pr&oacute;prio monitor.
+	 */
+	private static final class Segment<K> extends LinkedHashMap<K, Result> {
+
+		private static final long serialVersionUID = 1;
+
+		private final int capacity;
+		private final LongAdder evictions;
+
+		Segment(final int capacity, final LongAdder evictions) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<K, Result> eldest) {
+			if (size() > capacity) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private static final Details NONE = new Details();
+
+	/**
+	 * Cria uma {@link CachedSpecification especifica&ccedil;&atilde;o} que memoriza os resultados da {@link Rule regra} informada.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param <K> Tipo de dado da chave que determina o resultado da regra.
+	 * @param rule A regra.
+	 * @param key A fun&ccedil;&atilde;o que extrai a chave do objeto verificado.
+	 * @param maximumSize A quantidade m&aacute;xima de resultados memorizados.
+	 * @return A {@link CachedSpecification especifica&ccedil;&atilde;o} criada.
+	 */
+	public static <T, K> CachedSpecification<T, K> of(final Rule<T> rule, final Function<? super T, ? extends K> key, final int maximumSize) {
+		return new CachedSpecification<T, K>(new SilentSpecification<T>() {
+
+			@Override
+			public boolean verify(final T object, final Violations violations) {
+				if (violations == Details.IGNORED) {
+					return rule.test(object, null);
+				}
+				final Details details = new Details();
+				final boolean satisfied = rule.test(object, details);
+				// as mensagens pendentes são repassadas sem serem construídas
+				details.replay(violations);
+				return satisfied;
+			}
+
+			@Override
+			public String toString() {
+				return rule.toString();
+			}
+		}, key, maximumSize);
+	}
+
+	/**
+	 * Cria uma {@link CachedSpecification especifica&ccedil;&atilde;o} que memoriza os resultados da {@link SilentSpecification especifica&ccedil;&atilde;o}
+	 * informada.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+	 * @param <K> Tipo de dado da chave que determina o resultado da especifica&ccedil;&atilde;o.
+	 * @param spec A especifica&ccedil;&atilde;o.
+	 * @param key A fun&ccedil;&atilde;o que extrai a chave do objeto verificado.
+	 * @param maximumSize A quantidade m&aacute;xima de resultados memorizados.
+	 * @return A {@link CachedSpecification especifica&ccedil;&atilde;o} criada.
+	 */
+	public static <T, K> CachedSpecification<T, K> of(final SilentSpecification<T> spec, final Function<? super T, ? extends K> key, final int maximumSize) {
+		return new CachedSpecification<T, K>(spec, key, maximumSize);
+	}
+
+	/**
+	 * Cria uma {@link CachedSpecification especifica&ccedil;&atilde;o} que memoriza os resultados da {@link Specification especifica&ccedil;&atilde;o}
+	 * informada.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+	 * @param <K> Tipo de dado da chave que determina o resultado da especifica&ccedil;&atilde;o.
+	 * @param spec A especifica&ccedil;&atilde;o.
+	 * @param key A fun&ccedil;&atilde;o que extrai a chave do objeto verificado.
+	 * @param maximumSize A quantidade m&aacute;xima de resultados memorizados.
+	 * @return A {@link CachedSpecification especifica&ccedil;&atilde;o} criada.
+	 */
+	public static <T, K> CachedSpecification<T, K> of(final Specification<T> spec, final Function<? super T, ? extends K> key, final int maximumSize) {
+		return new CachedSpecification<T, K>(new SpecificationAdapter<T>(spec), key, maximumSize);
+	}
+
+	private final SilentSpecification<T> spec;
+	private final Function<? super T, ? extends K> key;
+	private final int maximumSize;
+
+	/**
+	 * Os segmentos do cache, em quantidade pot&ecirc;ncia de dois.
+	 */
+	private final Segment<K>[] segments;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private CachedSpecification(final SilentSpecification<T> spec, final Function<? super T, ? extends K> key, final int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("maximumSize: " + maximumSize);
+		}
+		this.spec = Objects.requireNonNull(spec, "spec");
+		this.key = Objects.requireNonNull(key, "key");
+		this.maximumSize = maximumSize;
+		// alguns segmentos por processador, mas nunca um segmento sem capacidade
+		final int limit = Math.min(maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+		int count = 1;
+		while (count * 2 <= limit) {
+			count *= 2;
+		}
+		@SuppressWarnings("unchecked")
+		final Segment<K>[] segments = (Segment<K>[]) new Segment<?>[count];
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment<K>(maximumSize / count + (i < maximumSize % count ? 1 : 0), evictions);
+		}
+		this.segments = segments;
+	}
+
+	/**
+	 * Descarta todos os resultados memorizados, as estat&iacute;sticas s&atilde;o mantidas.
+	 */
+	public void clear() {
+		for (final Segment<K> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de resultados descartados por falta de espa&ccedil;o no cache.
+	 *
+	 * @return A quantidade de resultados descartados.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de verifica&ccedil;&otilde;es que reaproveitaram um resultado memorizado.
+	 *
+	 * @return A quantidade de acertos.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Obt&eacute;m a propor&ccedil;&atilde;o de verifica&ccedil;&otilde;es que reaproveitaram um resultado memorizado.
+	 *
+	 * @return Um valor entre <code>0</code> e <code>1</code>, ou <code>0</code> se nenhum objeto foi verificado.
+	 */
+	public double getHitRate() {
+		final long hit = hits.sum();
+		final long total = hit + misses.sum();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade m&aacute;xima de resultados memorizados.
+	 *
+	 * @return A quantidade m&aacute;xima de resultados memorizados.
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de verifica&ccedil;&otilde;es que precisaram executar a especifica&ccedil;&atilde;o original.
+	 *
+	 * @return A quantidade de falhas.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de resultados memorizados atualmente.
+	 *
+	 * @return A quantidade de resultados memorizados.
+	 */
+	public int size() {
+		int size = 0;
+		for (final Segment<K> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return spec + " [size=" + size() + ", hits=" + hits.sum() + ", misses=" + misses.sum() + ", evictions=" + evictions.sum() + "]";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean verify(final T object, final Violations violations) {
+		final K k = key.apply(object);
+		// no modo FAST as violações são descartadas, então basta o resultado
+		final boolean fast = violations == Details.IGNORED;
+		final Segment<K> segment = segment(k);
+		Result result;
+		synchronized (segment) {
+			result = segment.get(k);
+		}
+		if (result != null && (fast || result.violations != null)) {
+			hits.increment();
+		} else {
+			misses.increment();
+			// a especificação é executada fora do monitor, duas threads podem calcular a mesma chave e a última prevalece
+			if (fast) {
+				result = new Result(spec.verify(object, violations), null);
+			} else {
+				final Details messages = new Details();
+				final boolean satisfied = spec.verify(object, messages);
+				result = new Result(satisfied, messages.mark() == 0 ? NONE : messages);
+			}
+			synchronized (segment) {
+				segment.put(k, result);
+			}
+		}
+		if (!fast) {
+			// as mensagens pendentes são repassadas sem serem construídas
+			result.violations.replay(violations);
+		}
+		return result.satisfied;
+	}
+
+	/**
+	 * Obt&eacute;m o segmento de uma chave.
+	 */
+	private Segment<K> segment(final K k) {
+		int hash = k == null ? 0 : k.hashCode();
+		hash ^= hash >>> 16;
+		return segments[hash & (segments.length - 1)];
+	}
+}
@@ -0,0 +1,241 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Regra avaliada sobre dados organizados em colunas, onde cada coluna &eacute; um vetor de valores primitivos e cada posi&ccedil;&atilde;o dos vetores
+ * corresponde a uma linha.<BR>
+ * <BR>
+ * Em vez de percorrer a express&atilde;o uma vez para cada linha, cada compara&ccedil;&atilde;o percorre a sua coluna inteira e produz um mapa de bits
+ * com as linhas que a atendem, e as opera&ccedil;&otilde;es <B>E</B>, <B>OU</B> e <B>N&Atilde;O</B> combinam esses mapas com opera&ccedil;&otilde;es
+ * bit a bit. As linhas s&atilde;o processadas em blocos de {@link #BLOCK_SIZE} linhas, assim os mapas intermedi&aacute;rios permanecem no cache do
+ * processador, e o segundo operando de uma opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> n&atilde;o &eacute; verificado nos blocos em que o primeiro
+ * j&aacute; decide o resultado.<BR>
+ * <BR>
+ * As compara&ccedil;&otilde;es s&atilde;o criadas atrav&eacute;s das colunas {@link IntColumn}, {@link LongColumn} e {@link DoubleColumn}, por exemplo:
+ *
+ * <PRE>
+ * class Pessoas {
+ *
+ * 	int[] idades;
+ * 	double[] salarios;
+ * }
+ *
+ * IntColumn&lt;Pessoas&gt; idade = IntColumn.of(pessoas -&gt; pessoas.idades);
+ * DoubleColumn&lt;Pessoas&gt; salario = DoubleColumn.of(pessoas -&gt; pessoas.salarios);
+ * ColumnRule&lt;Pessoas&gt; regra = idade.between(18, 65).and(salario.atLeast(1000).not());
+ * long[] atendem = regra.evaluate(pessoas, pessoas.idades.length);
+ * </PRE>
+ *
+ * As regras s&atilde;o imut&aacute;veis e podem ser utilizadas por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado que cont&eacute;m as colunas verificadas.
+ */
+public abstract class ColumnRule<T> {
+
+	/**
+	 * Quantidade de linhas de cada bloco, m&uacute;ltipla de 64.
+	 */
+	static final int BLOCK_SIZE = 1024;
+
+	/**
+	 * Quantidade de palavras do mapa de bits de cada bloco.
+	 */
+	static final int BLOCK_WORDS = BLOCK_SIZE >> 6;
+
+	/**
+	 * Regra que realiza a opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> entre duas regras.
+	 */
+	private static final class Binary<T> extends ColumnRule<T> {
+
+		private final boolean and;
+		private final ColumnRule<T> rule1;
+		private final ColumnRule<T> rule2;
+
+		Binary(final boolean and, final ColumnRule<T> rule1, final ColumnRule<T> rule2) {
+			super(1 + Math.max(rule1.depth, rule2.depth));
+			this.and = and;
+			this.rule1 = rule1;
+			this.rule2 = rule2;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+			rule1.evaluate(columns, size, from, to, mask, scratch);
+			final int words = words(from, to);
+			// o segundo operando só é verificado se puder mudar o resultado de alguma linha do bloco
+			if (and ? isEmpty(mask, words) : isFull(mask, words, to - from)) {
+				return;
+			}
+			final long[] other = scratch[depth - 1];
+			rule2.evaluate(columns, size, from, to, other, scratch);
+			if (and) {
+				for (int i = 0; i < words; i++) {
+					mask[i] &= other[i];
+				}
+			} else {
+				for (int i = 0; i < words; i++) {
+					mask[i] |= other[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Regra que realiza a opera&ccedil;&atilde;o <B>N&Atilde;O</B> de uma regra.
+	 */
+	private static final class Negation<T> extends ColumnRule<T> {
+
+		private final ColumnRule<T> rule;
+
+		Negation(final ColumnRule<T> rule) {
+			super(rule.depth);
+			this.rule = rule;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+			rule.evaluate(columns, size, from, to, mask, scratch);
+			final int words = words(from, to);
+			for (int i = 0; i < words; i++) {
+				mask[i] = ~mask[i];
+			}
+			// as linhas além do final não podem ser ligadas
+			final int tail = (to - from) & 63;
+			if (tail != 0) {
+				mask[words - 1] &= (1L << tail) - 1;
+			}
+		}
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de palavras do mapa de bits das linhas informadas.
+	 */
+	static int words(final int from, final int to) {
+		return (to - from + 63) >> 6;
+	}
+
+	/**
+	 * Verifica se a coluna de uma compara&ccedil;&atilde;o possui todas as linhas.
+	 */
+	static void check(final int length, final int size) {
+		if (length < size) {
+			throw new IllegalArgumentException("column length " + length + " is less than size " + size);
+		}
+	}
+
+	private static boolean isEmpty(final long[] mask, final int words) {
+		for (int i = 0; i < words; i++) {
+			if (mask[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isFull(final long[] mask, final int words, final int rows) {
+		final int tail = rows & 63;
+		final int full = tail == 0 ? words : words - 1;
+		for (int i = 0; i < full; i++) {
+			if (mask[i] != -1L) {
+				return false;
+			}
+		}
+		return tail == 0 || mask[full] == (1L << tail) - 1;
+	}
+
+	/**
+	 * Profundidade da express&atilde;o, ou seja, a quantidade de mapas intermedi&aacute;rios necess&aacute;rios para avali&aacute;-la.
+	 */
+	final int depth;
+
+	ColumnRule(final int depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a uma linha se esta regra <B>E</B> a regra informada atenderem &agrave; mesma linha.
+	 *
+	 * @param rule A regra a ser adicionada a esta regra.
+	 * @return Uma {@link ColumnRule regra} que atende &agrave;s linhas que atendem a esta regra e &agrave; regra informada.
+	 */
+	public final ColumnRule<T> and(final ColumnRule<T> rule) {
+		return new Binary<T>(true, this, Objects.requireNonNull(rule, "rule"));
+	}
+
+	/**
+	 * Conta as linhas que atendem a esta regra.
+	 *
+	 * @param columns O objeto que cont&eacute;m as colunas.
+	 * @param size A quantidade de linhas a serem verificadas, a partir da primeira posi&ccedil;&atilde;o de cada coluna.
+	 * @return A quantidade de linhas que atendem a esta regra.
+	 */
+	public final int count(final T columns, final int size) {
+		int count = 0;
+		for (final long word : evaluate(columns, size)) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Verifica quais linhas atendem a esta regra.
+	 *
+	 * @param columns O objeto que cont&eacute;m as colunas.
+	 * @param size A quantidade de linhas a serem verificadas, a partir da primeira posi&ccedil;&atilde;o de cada coluna.
+	 * @return O mapa de bits das linhas, com <code>(size + 63) / 64</code> palavras, onde o bit <code>i % 64</code> da palavra <code>i / 64</code>
+	 *         est&aacute; ligado se a linha <code>i</code> atende a esta regra, no mesmo formato do m&eacute;todo {@link BitSet#valueOf(long[])}.
+	 */
+	public final long[] evaluate(final T columns, final int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("size: " + size);
+		}
+		final long[] result = new long[(size + 63) >> 6];
+		final long[] block = new long[BLOCK_WORDS];
+		final long[][] scratch = new long[depth][BLOCK_WORDS];
+		for (int from = 0; from < size; from += BLOCK_SIZE) {
+			final int to = Math.min(size, from + BLOCK_SIZE);
+			evaluate(columns, size, from, to, block, scratch);
+			System.arraycopy(block, 0, result, from >> 6, words(from, to));
+		}
+		return result;
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a uma linha se esta regra n&atilde;o atender a essa linha.
+	 *
+	 * @return Uma {@link ColumnRule regra} que atende &agrave;s linhas que n&atilde;o atendem a esta regra.
+	 */
+	public final ColumnRule<T> not() {
+		return new Negation<T>(this);
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a uma linha se esta regra <B>OU</B> a regra informada atenderem &agrave; mesma linha.
+	 *
+	 * @param rule A regra a ser adicionada a esta regra.
+	 * @return Uma {@link ColumnRule regra} que atende &agrave;s linhas que atendem a esta regra ou &agrave; regra informada.
+	 */
+	public final ColumnRule<T> or(final ColumnRule<T> rule) {
+		return new Binary<T>(false, this, Objects.requireNonNull(rule, "rule"));
+	}
+
+	/**
+	 * Verifica as linhas de um bloco, sobrescrevendo as primeiras palavras do mapa de bits informado.
+	 *
+	 * @param columns O objeto que cont&eacute;m as colunas.
+	 * @param size A quantidade total de linhas.
+	 * @param from A primeira linha do bloco, m&uacute;ltipla de 64.
+	 * @param to A linha seguinte &agrave; &uacute;ltima do bloco.
+	 * @param mask Onde as linhas atendidas devem ser ligadas, a partir da primeira palavra.
+	 * @param scratch Os mapas intermedi&aacute;rios, um para cada n&iacute;vel da express&atilde;o.
+	 */
+	abstract void evaluate(T columns, int size, int from, int to, long[] mask, long[][] scratch);
+}
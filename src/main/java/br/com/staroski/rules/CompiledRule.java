@@ -0,0 +1,359 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Regra interna que avalia uma &aacute;rvore de regras compilada em vetores, obtida atrav&eacute;s do m&eacute;todo {@link Rule#compile()}.<BR>
+ * <BR>
+ * No modo {@link EvaluationMode#FAST} a express&atilde;o &eacute; convertida num programa de desvios, onde cada instru&ccedil;&atilde;o verifica uma
+ * regra e indica a pr&oacute;xima instru&ccedil;&atilde;o para o caso de ela ser atendida ou n&atilde;o. As nega&ccedil;&otilde;es s&atilde;o
+ * empurradas at&eacute; as folhas apenas trocando esses desvios.<BR>
+ * No modo {@link EvaluationMode#DIAGNOSTIC} a express&atilde;o &eacute; armazenada em pr&eacute;-ordem e as opera&ccedil;&otilde;es <B>N&Atilde;O</B>,
+ * que nunca repassam detalhes &agrave; regra que as comp&otilde;e, s&atilde;o avaliadas pelo programa de desvios.
+ * 
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class CompiledRule<T> extends Rule<T> {
+
+	/**
+	 * Desvio que indica que a express&atilde;o foi atendida.
+	 */
+	static final int TRUE = -1;
+
+	/**
+	 * Desvio que indica que a express&atilde;o n&atilde;o foi atendida.
+	 */
+	static final int FALSE = -2;
+
+	/**
+	 * Compila a regra informada.
+	 * 
+	 * @param rule A regra a ser compilada.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o da regra compilada.
+	 * @param generate Se deve ser gerada uma classe para avaliar o modo {@link EvaluationMode#FAST}.
+	 * @return A regra compilada.
+	 */
+	static <T> CompiledRule<T> compile(final Rule<T> rule, final EvaluationMode mode, final boolean generate) {
+		if (rule instanceof CompiledRule) {
+			final CompiledRule<T> compiled = (CompiledRule<T>) rule;
+			if (compiled.mode == mode && compiled.generate == generate) {
+				return compiled;
+			}
+			return compile(compiled.source, mode, generate);
+		}
+		return new CompiledRule<T>(rule, mode, generate);
+	}
+
+	/**
+	 * Obt&eacute;m a especifica&ccedil;&atilde;o que avalia uma folha no modo {@link EvaluationMode#FAST}, assim as {@link ConcreteRule regras concretas}
+	 * s&atilde;o avaliadas sem passar pela regra.
+	 */
+	static <T> SilentSpecification<T> specification(final Rule<T> rule) {
+		if (rule instanceof ConcreteRule) {
+			return ((ConcreteRule<T>) rule).getSpecification();
+		}
+		return new SilentSpecification<T>() {
+
+			@Override
+			public boolean verify(final T object, final Violations violations) {
+				return rule.test(object, null);
+			}
+		};
+	}
+
+	private final Rule<T> source;
+
+	private final EvaluationMode mode;
+
+	private final boolean generate;
+
+	/**
+	 * A classe gerada que avalia o programa de desvios da regra inteira ou <code>null</code> caso ela n&atilde;o tenha sido gerada.
+	 */
+	private final SilentSpecification<T> generated;
+
+	/**
+	 * As especifica&ccedil;&otilde;es verificadas por cada instru&ccedil;&atilde;o do programa de desvios.
+	 */
+	private final SilentSpecification<T>[] specs;
+
+	/**
+	 * A pr&oacute;xima instru&ccedil;&atilde;o caso a regra da instru&ccedil;&atilde;o seja atendida.
+	 */
+	private final int[] onTrue;
+
+	/**
+	 * A pr&oacute;xima instru&ccedil;&atilde;o caso a regra da instru&ccedil;&atilde;o n&atilde;o seja atendida.
+	 */
+	private final int[] onFalse;
+
+	/**
+	 * A instru&ccedil;&atilde;o inicial do programa de desvios da regra inteira.
+	 */
+	private final int entry;
+
+	/**
+	 * Indica se a raiz da express&atilde;o &eacute; uma opera&ccedil;&atilde;o <B>N&Atilde;O</B>.
+	 */
+	private final boolean negated;
+
+	/**
+	 * O tipo de cada n&oacute; da express&atilde;o em pr&eacute;-ordem.
+	 */
+	private final int[] kinds;
+
+	/**
+	 * A posi&ccedil;&atilde;o seguinte ao &uacute;ltimo n&oacute; de cada sub-express&atilde;o.
+	 */
+	private final int[] ends;
+
+	/**
+	 * A regra de cada folha ou <code>null</code>.
+	 */
+	private final Rule<T>[] leaves;
+
+	/**
+	 * A instru&ccedil;&atilde;o inicial de cada opera&ccedil;&atilde;o <B>N&Atilde;O</B> no programa de desvios.
+	 */
+	private final int[] entries;
+
+	private CompiledRule(final Rule<T> source, final EvaluationMode mode, final boolean generate) {
+		this.source = source;
+		this.mode = mode;
+		this.generate = generate;
+		final Expression<T> root = Expression.root(source);
+		final Program<T> program = new Program<T>();
+		if (mode == EvaluationMode.DIAGNOSTIC) {
+			negated = root.kind == Expression.NOT;
+			final Expression<T> tree = negated ? root.operands.get(0) : root;
+			final int size = tree.size();
+			kinds = new int[size];
+			ends = new int[size];
+			@SuppressWarnings("unchecked")
+			final Rule<T>[] leaves = (Rule<T>[]) new Rule<?>[size];
+			this.leaves = leaves;
+			entries = new int[size];
+			layout(tree, 0, program);
+		} else {
+			negated = false;
+			kinds = null;
+			ends = null;
+			leaves = null;
+			entries = null;
+		}
+		final int start = program.emit(root, false, TRUE, FALSE);
+		specs = program.specifications();
+		onTrue = program.targets(program.onTrue);
+		onFalse = program.targets(program.onFalse);
+		entry = program.target(start);
+		generated = generate ? Generator.generate(specs, onTrue, onFalse, entry) : null;
+		if (entries != null) {
+			for (int i = 0; i < entries.length; i++) {
+				if (kinds[i] == Expression.NOT) {
+					entries[i] = program.target(entries[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Obt&eacute;m o {@link EvaluationMode modo} de avalia&ccedil;&atilde;o desta regra.
+	 * 
+	 * @return O modo de avalia&ccedil;&atilde;o.
+	 */
+	EvaluationMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Obt&eacute;m a regra que foi compilada.
+	 * 
+	 * @return A regra original.
+	 */
+	Rule<T> getSource() {
+		return source;
+	}
+
+	/**
+	 * Verifica se foi gerada uma classe para o modo {@link EvaluationMode#FAST}.
+	 * 
+	 * @return <code>true</code> se a classe foi gerada.
+	 */
+	boolean isGenerated() {
+		return generated != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		if (details == null || kinds == null) {
+			if (generated != null) {
+				return generated.verify(object, Details.IGNORED);
+			}
+			return run(entry, object);
+		}
+		if (negated) {
+			return !collect(0, object, details);
+		}
+		switch (kinds[0]) {
+			case Expression.LEAF:
+				return leaves[0].test(object, details);
+			case Expression.OR:
+				// na raiz todos os operandos do OU repassam seus detalhes
+				boolean satisfied = false;
+				for (int node = 1; node < ends[0]; node = ends[node]) {
+					satisfied |= collect(node, object, details);
+				}
+				return satisfied;
+			default:
+				return collect(0, object, details);
+		}
+	}
+
+	/**
+	 * Avalia um n&oacute; que comp&otilde;e a express&atilde;o, mantendo nos detalhes somente o que ele repassaria &agrave; regra que o comp&otilde;e.
+	 */
+	private boolean collect(final int node, final T object, final Details details) {
+		switch (kinds[node]) {
+			case Expression.LEAF:
+				return testOperand(leaves[node], object, details);
+			case Expression.AND:
+				boolean satisfied = true;
+				for (int child = node + 1; child < ends[node]; child = ends[child]) {
+					satisfied &= collect(child, object, details);
+				}
+				return satisfied;
+			case Expression.OR:
+				// um OU atendido descarta os detalhes, então os demais operandos são dispensáveis
+				final int size = details.mark();
+				for (int child = node + 1; child < ends[node]; child = ends[child]) {
+					if (collect(child, object, details)) {
+						details.truncate(size);
+						return true;
+					}
+				}
+				return false;
+			default:
+				return !run(entries[node], object);
+		}
+	}
+
+	/**
+	 * Armazena a express&atilde;o em pr&eacute;-ordem a partir da posi&ccedil;&atilde;o informada.
+	 * 
+	 * @return A posi&ccedil;&atilde;o seguinte ao &uacute;ltimo n&oacute; armazenado.
+	 */
+	private int layout(final Expression<T> expression, final int node, final Program<T> program) {
+		kinds[node] = expression.kind;
+		int next = node + 1;
+		switch (expression.kind) {
+			case Expression.LEAF:
+				leaves[node] = expression.rule;
+				break;
+			case Expression.NOT:
+				entries[node] = program.emit(expression.operands.get(0), false, TRUE, FALSE);
+				break;
+			default:
+				for (final Expression<T> operand : expression.operands) {
+					next = layout(operand, next, program);
+				}
+				break;
+		}
+		ends[node] = next;
+		return next;
+	}
+
+	/**
+	 * Executa o programa de desvios a partir da instru&ccedil;&atilde;o informada.
+	 */
+	private boolean run(final int start, final T object) {
+		final SilentSpecification<T>[] specs = this.specs;
+		final int[] onTrue = this.onTrue;
+		final int[] onFalse = this.onFalse;
+		int pc = start;
+		while (pc >= 0) {
+			pc = specs[pc].verify(object, Details.IGNORED) ? onTrue[pc] : onFalse[pc];
+		}
+		return pc == TRUE;
+	}
+
+	/**
+	 * Montador do programa de desvios.<BR>
+	 * As instru&ccedil;&otilde;es s&atilde;o emitidas da &uacute;ltima para a primeira e invertidas no final, de modo que o programa seja percorrido
+	 * sempre para frente.
+	 */
+	private static final class Program<T> {
+
+		private final List<Rule<T>> rules = new ArrayList<Rule<T>>();
+		private final List<Integer> onTrue = new ArrayList<Integer>();
+		private final List<Integer> onFalse = new ArrayList<Integer>();
+
+		/**
+		 * Emite as instru&ccedil;&otilde;es da express&atilde;o.
+		 * 
+		 * @param expression A express&atilde;o.
+		 * @param negate Se a express&atilde;o est&aacute; negada.
+		 * @param whenTrue O desvio caso a express&atilde;o seja atendida.
+		 * @param whenFalse O desvio caso a express&atilde;o n&atilde;o seja atendida.
+		 * @return A instru&ccedil;&atilde;o inicial da express&atilde;o.
+		 */
+		int emit(final Expression<T> expression, final boolean negate, final int whenTrue, final int whenFalse) {
+			switch (expression.kind) {
+				case Expression.LEAF:
+					rules.add(expression.rule);
+					onTrue.add(negate ? whenFalse : whenTrue);
+					onFalse.add(negate ? whenTrue : whenFalse);
+					return rules.size() - 1;
+				case Expression.NOT:
+					return emit(expression.operands.get(0), !negate, whenTrue, whenFalse);
+				default:
+					// De Morgan: um E negado é um OU dos operandos negados e vice-versa
+					final boolean and = (expression.kind == Expression.AND) != negate;
+					final List<Expression<T>> operands = expression.operands;
+					int next = emit(operands.get(operands.size() - 1), negate, whenTrue, whenFalse);
+					for (int i = operands.size() - 2; i >= 0; i--) {
+						next = and ? emit(operands.get(i), negate, next, whenFalse) //
+								: emit(operands.get(i), negate, whenTrue, next);
+					}
+					return next;
+			}
+		}
+
+		SilentSpecification<T>[] specifications() {
+			@SuppressWarnings("unchecked")
+			final SilentSpecification<T>[] array = (SilentSpecification<T>[]) new SilentSpecification<?>[rules.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[target(i)] = specification(rules.get(i));
+			}
+			return array;
+		}
+
+		/**
+		 * Converte uma instru&ccedil;&atilde;o emitida para sua posi&ccedil;&atilde;o no programa invertido.
+		 */
+		int target(final int pc) {
+			return pc < 0 ? pc : rules.size() - 1 - pc;
+		}
+
+		int[] targets(final List<Integer> jumps) {
+			final int[] array = new int[jumps.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[target(i)] = target(jumps.get(i));
+			}
+			return array;
+		}
+	}
+}
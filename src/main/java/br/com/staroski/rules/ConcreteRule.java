@@ -2,18 +2,23 @@ package br.com.staroski.rules;
 
 final class ConcreteRule<T> extends Rule<T> {
 
-	private Specification<T> spec;
+	private final SilentSpecification<T> spec;
 
 	protected ConcreteRule(Specification<T> spec) {
+		this(new SpecificationAdapter<T>(spec));
+	}
+
+	protected ConcreteRule(SilentSpecification<T> spec) {
 		this.spec = spec;
 	}
 
 	/**
-	 * Obt&eacute;m a {@link Specification especifica&ccedil;&atilde;o} que foi utilizada para criar esta {@link Rule regra}.
+	 * Obt&eacute;m a {@link SilentSpecification especifica&ccedil;&atilde;o} que foi utilizada para criar esta {@link Rule regra}.<BR>
+	 * As {@link Specification especifica&ccedil;&otilde;es} convencionais s&atilde;o obtidas atrav&eacute;s de um {@link SpecificationAdapter adaptador}.
 	 * 
-	 * @return a {@link Specification especifica&ccedil;&atilde;o} desta {@link Rule regra}.
+	 * @return a {@link SilentSpecification especifica&ccedil;&atilde;o} desta {@link Rule regra}.
 	 */
-	protected final Specification<T> getSpecification() {
+	protected final SilentSpecification<T> getSpecification() {
 		return spec;
 	}
 
@@ -22,13 +27,17 @@ final class ConcreteRule<T> extends Rule<T> {
 	 */
 	@Override
 	public boolean isSatisfiedBy(final T object) {
-		boolean satisfied = false;
-		try {
-			getSpecification().verify(object);
-			satisfied = true;
-		} catch (UnattendedException e) {
-			getModifiableDetails().add(e.getMessage());
-		}
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
 		return satisfied;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		return spec.verify(object, details == null ? Details.IGNORED : details);
+	}
+}
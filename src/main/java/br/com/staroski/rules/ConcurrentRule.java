@@ -0,0 +1,280 @@
+package br.com.staroski.rules;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Regra interna obtida atrav&eacute;s do m&eacute;todo {@link Rule#concurrent()}, que verifica os dois operandos das opera&ccedil;&otilde;es <B>E</B> e
+ * <B>OU</B> ao mesmo tempo quando ambos s&atilde;o caros.<BR>
+ * <BR>
+ * O tempo de uma a cada {@link AdaptiveRule#SAMPLE_MASK} + 1 avalia&ccedil;&otilde;es de cada folha &eacute; medido, e o custo de uma opera&ccedil;&atilde;o
+ * &eacute; a soma dos custos das suas folhas. Quando o custo dos dois operandos atinge o limite informado, o primeiro &eacute; enviado ao
+ * {@link Executor} e o segundo &eacute; verificado na thread da avalia&ccedil;&atilde;o, as demais opera&ccedil;&otilde;es s&atilde;o verificadas
+ * sequencialmente como na regra original. As folhas ainda n&atilde;o medidas n&atilde;o t&ecirc;m custo, assim as primeiras avalia&ccedil;&otilde;es s&atilde;o
+ * sequenciais.<BR>
+ * <BR>
+ * No modo {@link EvaluationMode#DIAGNOSTIC} cada operando coleta seus detalhes separadamente e eles s&atilde;o reunidos na ordem original, com o mesmo
+ * resultado da avalia&ccedil;&atilde;o sequencial. No modo {@link EvaluationMode#FAST}, se o operando verificado na thread da avalia&ccedil;&atilde;o
+ * decidir o resultado, o outro deixa de ser aguardado e suas exce&ccedil;&otilde;es s&atilde;o descartadas.<BR>
+ * Uma tarefa que ainda n&atilde;o come&ccedil;ou quando seu resultado &eacute; aguardado &eacute; executada pela pr&oacute;pria thread que aguarda, assim
+ * um {@link Executor} com poucas threads nunca fica bloqueado esperando por tarefas da sua pr&oacute;pria fila.
+ *
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class ConcurrentRule<T> extends Rule<T> {
+
+	/**
+	 * Limite padr&atilde;o, em nanossegundos, do custo dos operandos verificados ao mesmo tempo.
+	 */
+	static final long DEFAULT_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+
+	/**
+	 * Quantidade m&aacute;xima de tarefas aguardando uma thread do {@link Executor} padr&atilde;o quando n&atilde;o h&aacute; threads virtuais, as demais
+	 * s&atilde;o executadas pelas threads que aguardam seus resultados.
+	 */
+	private static final int QUEUE_CAPACITY = 1024;
+
+	/**
+	 * Cria o {@link Executor} padr&atilde;o somente quando ele for utilizado.
+	 */
+	private static final class DefaultExecutor {
+
+		static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			try {
+				// threads virtuais só existem a partir do Java 21
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (Exception e) {
+				final int threads = Runtime.getRuntime().availableProcessors();
+				final AtomicInteger counter = new AtomicInteger();
+				final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+						new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY), runnable -> {
+							final Thread thread = new Thread(runnable, "rules-concurrent-" + counter.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						});
+				pool.allowCoreThreadTimeOut(true);
+				return pool;
+			}
+		}
+	}
+
+	/**
+	 * N&oacute; da express&atilde;o, com o custo medido das folhas.<BR>
+	 * As estat&iacute;sticas s&atilde;o atualizadas sem sincroniza&ccedil;&atilde;o, as atualiza&ccedil;&otilde;es perdidas quando v&aacute;rias threads
+	 * avaliam a regra apenas tornam as estimativas menos precisas.
+	 */
+	private static final class Node<T> {
+
+		final int kind;
+
+		/**
+		 * A regra verificada, somente para {@link Expression#LEAF}.
+		 */
+		final Rule<T> leaf;
+
+		final Node<T> operand1;
+		final Node<T> operand2;
+
+		int calls;
+		int samples;
+		long nanos;
+
+		Node(final int kind, final Rule<T> leaf, final Node<T> operand1, final Node<T> operand2) {
+			this.kind = kind;
+			this.leaf = leaf;
+			this.operand1 = operand1;
+			this.operand2 = operand2;
+		}
+
+		/**
+		 * Obt&eacute;m o custo m&eacute;dio, em nanossegundos, de verificar este n&oacute;.
+		 */
+		long cost() {
+			switch (kind) {
+				case Expression.LEAF:
+					final int count = samples;
+					return count == 0 ? 0 : nanos / count;
+				case Expression.NOT:
+					return operand1.cost();
+				default:
+					return operand1.cost() + operand2.cost();
+			}
+		}
+	}
+
+	/**
+	 * Cria os n&oacute;s da express&atilde;o de uma regra.
+	 */
+	private static <T> Node<T> node(final Rule<T> rule) {
+		if (rule instanceof And || rule instanceof Or) {
+			final BinaryRule<T> binary = (BinaryRule<T>) rule;
+			return new Node<T>(rule instanceof And ? Expression.AND : Expression.OR, null, node(binary.getFirstRule()), node(binary.getSecondRule()));
+		}
+		if (rule instanceof Not) {
+			return new Node<T>(Expression.NOT, null, node(((Not<T>) rule).getRule()), null);
+		}
+		return new Node<T>(Expression.LEAF, rule, null, null);
+	}
+
+	/**
+	 * Aguarda o resultado de uma tarefa, executando-a na thread atual se ela ainda n&atilde;o come&ccedil;ou.
+	 */
+	private static boolean join(final FutureTask<Boolean> task) {
+		task.run();
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private final Rule<T> source;
+	private final Node<T> root;
+	private final Executor executor;
+	private final long threshold;
+
+	ConcurrentRule(final Rule<T> source, final Executor executor, final long threshold) {
+		this.source = source;
+		this.root = node(source);
+		this.executor = executor == null ? DefaultExecutor.INSTANCE : executor;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Obt&eacute;m a regra original.
+	 */
+	Rule<T> getSource() {
+		return source;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		return test(root, object, details);
+	}
+
+	private boolean test(final Node<T> node, final T object, final Details details) {
+		switch (node.kind) {
+			case Expression.LEAF:
+				if ((node.calls++ & AdaptiveRule.SAMPLE_MASK) == 0) {
+					final long start = System.nanoTime();
+					final boolean satisfied = node.leaf.test(object, details);
+					node.nanos += System.nanoTime() - start;
+					node.samples++;
+					return satisfied;
+				}
+				return node.leaf.test(object, details);
+			case Expression.NOT:
+				return !testOperand(node.operand1, object, details);
+			default:
+				final boolean and = node.kind == Expression.AND;
+				if (Math.min(node.operand1.cost(), node.operand2.cost()) >= threshold) {
+					return fork(and, node, object, details);
+				}
+				if (details == null) {
+					// sem detalhes o segundo operando só é verificado se puder mudar o resultado
+					return and ? test(node.operand1, object, null) && test(node.operand2, object, null)
+							: test(node.operand1, object, null) || test(node.operand2, object, null);
+				}
+				final boolean satisfied1 = testOperand(node.operand1, object, details);
+				final boolean satisfied2 = testOperand(node.operand2, object, details);
+				return and ? satisfied1 && satisfied2 : satisfied1 || satisfied2;
+		}
+	}
+
+	/**
+	 * Verifica um operando como o m&eacute;todo {@link Rule#testOperand(Rule, Object, Details)}.
+	 */
+	private boolean testOperand(final Node<T> node, final T object, final Details details) {
+		if (details == null) {
+			return test(node, object, null);
+		}
+		final int size = details.mark();
+		final boolean satisfied = test(node, object, details);
+		if (satisfied) {
+			details.truncate(size);
+		}
+		return satisfied;
+	}
+
+	/**
+	 * Verifica o primeiro operando no {@link Executor} e o segundo na thread atual.
+	 */
+	private boolean fork(final boolean and, final Node<T> node, final T object, final Details details) {
+		final Details details1 = details == null ? null : new Details();
+		final FutureTask<Boolean> task = new FutureTask<Boolean>(() -> test(node.operand1, object, details1));
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// a tarefa será executada ao aguardar o resultado
+		}
+		if (details == null) {
+			final boolean satisfied2;
+			try {
+				satisfied2 = test(node.operand2, object, null);
+			} catch (RuntimeException | Error e) {
+				// o primeiro operando ainda pode decidir o resultado, como na avaliação sequencial
+				if (join(task) != and) {
+					return !and;
+				}
+				throw e;
+			}
+			if (satisfied2 != and) {
+				task.cancel(false);
+				return satisfied2;
+			}
+			return join(task);
+		}
+		final Details details2 = new Details();
+		final boolean satisfied2;
+		try {
+			satisfied2 = test(node.operand2, object, details2);
+		} catch (RuntimeException | Error e) {
+			// as exceções do primeiro operando prevalecem, como na avaliação sequencial
+			join(task);
+			throw e;
+		}
+		final boolean satisfied1 = join(task);
+		// os detalhes são reunidos na ordem dos operandos, como se tivessem sido verificados em sequência
+		if (!satisfied1) {
+			details.addAll(details1);
+		}
+		if (!satisfied2) {
+			details.addAll(details2);
+		}
+		return and ? satisfied1 && satisfied2 : satisfied1 || satisfied2;
+	}
+}
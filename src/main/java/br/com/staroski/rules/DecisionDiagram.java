@@ -0,0 +1,300 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Regra interna obtida atrav&eacute;s do m&eacute;todo {@link Rule#decisionDiagram()}, que no modo {@link EvaluationMode#FAST} avalia a regra
+ * atrav&eacute;s de um diagrama de decis&atilde;o bin&aacute;ria ordenado e reduzido.<BR>
+ * <BR>
+ * Cada folha distinta da express&atilde;o &eacute; uma vari&aacute;vel do diagrama, na ordem da sua primeira ocorr&ecirc;ncia, e duas folhas s&atilde;o
+ * iguais quando suas {@link Specification especifica&ccedil;&otilde;es} s&atilde;o iguais, como no {@link RuleGroup}. Cada n&oacute; do diagrama
+ * verifica uma vari&aacute;vel e desvia para o n&oacute; seguinte conforme o resultado, sem n&oacute;s redundantes, assim cada
+ * especifica&ccedil;&atilde;o &eacute; verificada no m&aacute;ximo uma vez por objeto e somente quando ainda pode mudar o resultado.<BR>
+ * Os n&oacute;s s&atilde;o armazenados num programa de desvios como o das {@link CompiledRule regras compiladas}, ordenados pela vari&aacute;vel,
+ * assim o programa &eacute; percorrido sempre para frente.<BR>
+ * <BR>
+ * Quando o diagrama passa de {@link #MAX_NODES} n&oacute;s, a regra &eacute; avaliada pela express&atilde;o {@link SimplifiedRule simplificada}.<BR>
+ * No modo {@link EvaluationMode#DIAGNOSTIC} a regra original &eacute; avaliada, de modo que os detalhes s&atilde;o os mesmos.
+ *
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class DecisionDiagram<T> extends Rule<T> {
+
+	/**
+	 * Quantidade m&aacute;xima de n&oacute;s criados durante a constru&ccedil;&atilde;o do diagrama.
+	 */
+	static final int MAX_NODES = 1 << 16;
+
+	/**
+	 * Os n&oacute;s terminais do diagrama.
+	 */
+	private static final int ZERO = 0;
+	private static final int ONE = 1;
+
+	/**
+	 * Construtor do diagrama, com os n&oacute;s armazenados em vetores e as tabelas que garantem que ele seja reduzido.
+	 */
+	private static final class Builder<T> {
+
+		final List<Rule<T>> leaves = new ArrayList<Rule<T>>();
+		final Map<Object, Integer> indexes = new HashMap<Object, Integer>();
+
+		int[] variables = new int[64];
+		int[] lows = new int[64];
+		int[] highs = new int[64];
+		int size = 2;
+
+		/**
+		 * Os n&oacute;s existentes, para que dois n&oacute;s iguais nunca sejam criados.
+		 */
+		final Map<List<Integer>, Integer> unique = new HashMap<List<Integer>, Integer>();
+
+		/**
+		 * Os resultados j&aacute; calculados das opera&ccedil;&otilde;es.
+		 */
+		final Map<List<Integer>, Integer> computed = new HashMap<List<Integer>, Integer>();
+
+		Builder() {
+			// os terminais ficam depois de todas as variáveis
+			variables[ZERO] = Integer.MAX_VALUE;
+			variables[ONE] = Integer.MAX_VALUE;
+		}
+
+		/**
+		 * Obt&eacute;m o n&oacute; de uma express&atilde;o.
+		 */
+		int build(final Expression<T> expression) {
+			switch (expression.kind) {
+				case Expression.LEAF:
+					final Object key = Expression.key(expression.rule);
+					Integer index = indexes.get(key);
+					if (index == null) {
+						index = leaves.size();
+						indexes.put(key, index);
+						leaves.add(expression.rule);
+					}
+					return node(index, ZERO, ONE);
+				case Expression.NOT:
+					return not(build(expression.operands.get(0)));
+				default:
+					final boolean and = expression.kind == Expression.AND;
+					int node = and ? ONE : ZERO;
+					for (final Expression<T> operand : expression.operands) {
+						node = apply(and, node, build(operand));
+					}
+					return node;
+			}
+		}
+
+		/**
+		 * Obt&eacute;m o n&oacute; que verifica a vari&aacute;vel informada, sem criar n&oacute;s redundantes ou repetidos.
+		 */
+		int node(final int variable, final int low, final int high) {
+			if (low == high) {
+				return low;
+			}
+			final List<Integer> id = Arrays.asList(variable, low, high);
+			final Integer existing = unique.get(id);
+			if (existing != null) {
+				return existing;
+			}
+			if (size == MAX_NODES) {
+				throw new IllegalStateException("decision diagram too large");
+			}
+			if (size == variables.length) {
+				variables = Arrays.copyOf(variables, size * 2);
+				lows = Arrays.copyOf(lows, size * 2);
+				highs = Arrays.copyOf(highs, size * 2);
+			}
+			variables[size] = variable;
+			lows[size] = low;
+			highs[size] = high;
+			unique.put(id, size);
+			return size++;
+		}
+
+		/**
+		 * Aplica uma opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> a dois n&oacute;s.
+		 */
+		int apply(final boolean and, final int node1, final int node2) {
+			if (node1 == node2) {
+				return node1;
+			}
+			if (node1 == ZERO || node2 == ZERO) {
+				return and ? ZERO : node1 == ZERO ? node2 : node1;
+			}
+			if (node1 == ONE || node2 == ONE) {
+				return and ? node1 == ONE ? node2 : node1 : ONE;
+			}
+			// operações comutativas, então os operandos são ordenados para reaproveitar os resultados
+			final List<Integer> id = Arrays.asList(and ? Expression.AND : Expression.OR, Math.min(node1, node2), Math.max(node1, node2));
+			final Integer existing = computed.get(id);
+			if (existing != null) {
+				return existing;
+			}
+			final int variable = Math.min(variables[node1], variables[node2]);
+			final int low = apply(and, variables[node1] == variable ? lows[node1] : node1, variables[node2] == variable ? lows[node2] : node2);
+			final int high = apply(and, variables[node1] == variable ? highs[node1] : node1, variables[node2] == variable ? highs[node2] : node2);
+			final int node = node(variable, low, high);
+			computed.put(id, node);
+			return node;
+		}
+
+		/**
+		 * Aplica uma opera&ccedil;&atilde;o <B>N&Atilde;O</B> a um n&oacute;.
+		 */
+		int not(final int node) {
+			if (node == ZERO || node == ONE) {
+				return ONE - node;
+			}
+			final List<Integer> id = Arrays.asList(Expression.NOT, node, -1);
+			final Integer existing = computed.get(id);
+			if (existing != null) {
+				return existing;
+			}
+			final int result = node(variables[node], not(lows[node]), not(highs[node]));
+			computed.put(id, result);
+			return result;
+		}
+	}
+
+	private final Rule<T> source;
+
+	/**
+	 * A regra avaliada quando o diagrama &eacute; grande demais ou <code>null</code>.
+	 */
+	private final Rule<T> fallback;
+
+	/**
+	 * As especifica&ccedil;&otilde;es verificadas por cada n&oacute; do diagrama.
+	 */
+	private final SilentSpecification<T>[] specs;
+
+	/**
+	 * O pr&oacute;ximo n&oacute; caso a especifica&ccedil;&atilde;o seja atendida.
+	 */
+	private final int[] onTrue;
+
+	/**
+	 * O pr&oacute;ximo n&oacute; caso a especifica&ccedil;&atilde;o n&atilde;o seja atendida.
+	 */
+	private final int[] onFalse;
+
+	/**
+	 * O n&oacute; inicial, ou {@link CompiledRule#TRUE} ou {@link CompiledRule#FALSE} se a regra for constante.
+	 */
+	private final int entry;
+
+	DecisionDiagram(final Rule<T> source) {
+		this.source = source;
+		final Builder<T> builder = new Builder<T>();
+		int root;
+		try {
+			root = builder.build(Expression.of(source));
+		} catch (IllegalStateException e) {
+			root = -1;
+		}
+		if (root < 0) {
+			fallback = new SimplifiedRule<T>(source);
+			specs = null;
+			onTrue = null;
+			onFalse = null;
+			entry = CompiledRule.FALSE;
+			return;
+		}
+		fallback = null;
+		// somente os nós alcançáveis, ordenados pela variável para que os desvios sempre avancem
+		final List<Integer> nodes = new ArrayList<Integer>();
+		final Set<Integer> visited = new HashSet<Integer>();
+		final Deque<Integer> pending = new ArrayDeque<Integer>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			final int node = pending.pop();
+			if (node > ONE && visited.add(node)) {
+				nodes.add(node);
+				pending.push(builder.lows[node]);
+				pending.push(builder.highs[node]);
+			}
+		}
+		final int[] variables = builder.variables;
+		Collections.sort(nodes, new Comparator<Integer>() {
+
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				final int order = Integer.compare(variables[a], variables[b]);
+				return order != 0 ? order : Integer.compare(a, b);
+			}
+		});
+		final Map<Integer, Integer> pcs = new HashMap<Integer, Integer>();
+		pcs.put(ZERO, CompiledRule.FALSE);
+		pcs.put(ONE, CompiledRule.TRUE);
+		for (int pc = 0; pc < nodes.size(); pc++) {
+			pcs.put(nodes.get(pc), pc);
+		}
+		final SilentSpecification<T>[] leaves = newArray(builder.leaves.size());
+		for (int i = 0; i < leaves.length; i++) {
+			leaves[i] = CompiledRule.specification(builder.leaves.get(i));
+		}
+		specs = newArray(nodes.size());
+		onTrue = new int[nodes.size()];
+		onFalse = new int[nodes.size()];
+		for (int pc = 0; pc < specs.length; pc++) {
+			final int node = nodes.get(pc);
+			specs[pc] = leaves[variables[node]];
+			onTrue[pc] = pcs.get(builder.highs[node]);
+			onFalse[pc] = pcs.get(builder.lows[node]);
+		}
+		entry = pcs.get(root);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> SilentSpecification<T>[] newArray(final int length) {
+		return (SilentSpecification<T>[]) new SilentSpecification<?>[length];
+	}
+
+	/**
+	 * Obt&eacute;m a regra original.
+	 */
+	Rule<T> getSource() {
+		return source;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de n&oacute;s do diagrama, sem contar os terminais.
+	 */
+	int size() {
+		return specs == null ? -1 : specs.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		if (details != null) {
+			return source.test(object, details);
+		}
+		if (fallback != null) {
+			return fallback.test(object, null);
+		}
+		final SilentSpecification<T>[] specs = this.specs;
+		final int[] onTrue = this.onTrue;
+		final int[] onFalse = this.onFalse;
+		int pc = entry;
+		while (pc >= 0) {
+			pc = specs[pc].verify(object, Details.IGNORED) ? onTrue[pc] : onFalse[pc];
+		}
+		return pc == CompiledRule.TRUE;
+	}
+}
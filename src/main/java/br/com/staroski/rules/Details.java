@@ -1,23 +1,123 @@
 package br.com.staroski.rules;
 
 import java.util.*;
+import java.util.function.*;
 
 /**
- * Especializa&ccedil;&atilde;o de {@link ArrayList} que n&atilde;o aceita duplicatas.
- * 
- * @param <T> Tipo de dado da lista.
+ * Lista que n&atilde;o aceita duplicatas e mant&eacute;m a ordem de inser&ccedil;&atilde;o, utilizada para coletar os detalhes das {@link Rule regras}.<BR>
+ * <BR>
+ * Enquanto a lista &eacute; pequena as duplicatas s&atilde;o procuradas percorrendo os elementos, a partir de {@link #INDEX_THRESHOLD} elementos
+ * &eacute; criado um &iacute;ndice de hash, assim cada inclus&atilde;o tem custo constante independente da quantidade de detalhes.<BR>
+ * <BR>
+ * As mensagens informadas atrav&eacute;s de {@link #report(Supplier)} e {@link #report(String, Object...)} s&atilde;o armazenadas sem serem
+ * constru&iacute;das e s&oacute; s&atilde;o formatadas, e suas duplicatas removidas, quando a lista &eacute; lida. As opera&ccedil;&otilde;es
+ * internas de avalia&ccedil;&atilde;o, {@link #mark()} e {@link #truncate(int)}, n&atilde;o leem a lista.
  */
-final class Details<T> extends ArrayList<T> {
+final class Details extends AbstractList<String> implements RandomAccess, Violations {
 
-	private static final long serialVersionUID = 1;
+	/**
+	 * Quantidade de elementos a partir da qual as duplicatas s&atilde;o procuradas no &iacute;ndice de hash.
+	 */
+	static final int INDEX_THRESHOLD = 8;
+
+	/**
+	 * Detalhes reaproveitados pelas avalia&ccedil;&otilde;es realizadas em cada thread.
+	 */
+	private static final ThreadLocal<Details> SCRATCH = new ThreadLocal<Details>() {
+
+		@Override
+		protected Details initialValue() {
+			return new Details();
+		}
+	};
+
+	/**
+	 * Obt&eacute;m os detalhes reaproveit&aacute;veis da thread atual, ou novos detalhes caso eles j&aacute; estejam em uso por uma avalia&ccedil;&atilde;o
+	 * em andamento, por exemplo quando uma especifica&ccedil;&atilde;o avalia outra regra.<BR>
+	 * Os detalhes obtidos devem ser devolvidos atrav&eacute;s do m&eacute;todo {@link #release()}.
+	 * 
+	 * @return Detalhes vazios.
+	 */
+	static Details acquire() {
+		final Details details = SCRATCH.get();
+		if (details.busy) {
+			return new Details();
+		}
+		details.busy = true;
+		return details;
+	}
+
+	/**
+	 * Destino das viola&ccedil;&otilde;es quando a avalia&ccedil;&atilde;o &eacute; feita no modo {@link EvaluationMode#FAST}, onde os detalhes s&atilde;o
+	 * descartados sem que as mensagens sejam constru&iacute;das.
+	 */
+	static final Violations IGNORED = new Violations() {
+
+		@Override
+		public void report(final String message) {}
+
+		@Override
+		public void report(final String format, final Object... args) {}
+
+		@Override
+		public void report(final Supplier<String> message) {}
+	};
+
+	/**
+	 * Mensagem ainda n&atilde;o constru&iacute;da.
+	 */
+	private static final class Message {
+
+		private final Supplier<String> supplier;
+		private final String format;
+		private final Object[] args;
+
+		Message(final Supplier<String> supplier, final String format, final Object[] args) {
+			this.supplier = supplier;
+			this.format = format;
+			this.args = args;
+		}
+
+		String build() {
+			return supplier != null ? supplier.get() : String.format(format, args);
+		}
+	}
+
+	private static final Object[] EMPTY = {};
+
+	/**
+	 * Os elementos na ordem de inser&ccedil;&atilde;o: textos ou {@link Message mensagens} ainda n&atilde;o constru&iacute;das.
+	 */
+	private Object[] elements = EMPTY;
+
+	private int size;
+
+	/**
+	 * Quantidade de {@link Message mensagens} ainda n&atilde;o constru&iacute;das.
+	 */
+	private int pending;
+
+	/**
+	 * &Iacute;ndice dos textos, criado somente quando a lista atinge {@link #INDEX_THRESHOLD} elementos.
+	 */
+	private Set<String> index;
+
+	/**
+	 * Indica se estes detalhes est&atilde;o em uso por uma avalia&ccedil;&atilde;o.
+	 */
+	private boolean busy;
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void add(final int index, final T element) {
+	public void add(final int index, final String element) {
+		resolve();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
 		if (!contains(element)) {
-			super.add(index, element);
+			insert(index, element);
 		}
 	}
 
@@ -25,9 +125,11 @@ final class Details<T> extends ArrayList<T> {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean add(final T e) {
-		if (!contains(e)) {
-			return super.add(e);
+	public boolean add(final String e) {
+		// as mensagens pendentes iguais a este texto são descartadas quando forem construídas
+		if (!containsText(e)) {
+			insert(size, e);
+			return true;
 		}
 		return false;
 	}
@@ -36,32 +138,386 @@ final class Details<T> extends ArrayList<T> {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean addAll(final Collection<? extends T> c) {
-		return super.addAll(getNotContained(c));
+	public boolean addAll(final Collection<? extends String> c) {
+		if (c instanceof Details) {
+			// mantém as mensagens pendentes sem construí-las
+			final Details other = (Details) c;
+			final int count = other.size;
+			boolean modified = false;
+			for (int i = 0; i < count; i++) {
+				final Object element = other.elements[i];
+				if (element instanceof Message) {
+					append((Message) element);
+					modified = true;
+				} else {
+					modified |= add((String) element);
+				}
+			}
+			return modified;
+		}
+		boolean modified = false;
+		for (final String e : c) {
+			modified |= add(e);
+		}
+		return modified;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final int index, final Collection<? extends String> c) {
+		resolve();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int position = index;
+		for (final String e : c) {
+			if (!contains(e)) {
+				insert(position++, e);
+			}
+		}
+		return position != index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		truncate(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Object o) {
+		resolve();
+		return (o == null || o instanceof String) && containsText((String) o);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String get(final int index) {
+		resolve();
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return (String) elements[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String remove(final int index) {
+		final String element = get(index);
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+		if (this.index != null) {
+			this.index.remove(element);
+		}
+		modCount++;
+		return element;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void report(final String message) {
+		add(message);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void report(final String format, final Object... args) {
+		append(new Message(null, format, args));
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean addAll(final int index, final Collection<? extends T> c) {
-		return super.addAll(index, getNotContained(c));
+	public void report(final Supplier<String> message) {
+		append(new Message(message, null, null));
 	}
 
 	/**
-	 * Dado uma cole&ccedil;&atilde;o, obt&eacute;m os elementos desta cole&ccedil;&atilde;o que n&atilde;o inclusos na lista atual.
+	 * Substitui um elemento, desde que o novo elemento ainda n&atilde;o esteja na lista.
 	 * 
-	 * @param c Um cole&ccedil;&atilde;o qualquer
-	 * @return Os elementos da cole&ccedil;&atilde;o que n&atilde;o est&atilde;o inclusos na lista atual.
+	 * @throws IllegalArgumentException Se o elemento j&aacute; estiver em outra posi&ccedil;&atilde;o da lista.
 	 */
-	private Collection<T> getNotContained(final Collection<? extends T> c) {
-		final List<T> elements = new LinkedList<T>();
-		for (final T e : c) {
-			if (!contains(e)) {
-				elements.add(e);
+	@Override
+	public String set(final int index, final String element) {
+		final String previous = get(index);
+		if (previous == null ? element == null : previous.equals(element)) {
+			return previous;
+		}
+		if (contains(element)) {
+			throw new IllegalArgumentException("Duplicated element: " + element);
+		}
+		elements[index] = element;
+		if (this.index != null) {
+			this.index.remove(previous);
+			this.index.add(element);
+		}
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		resolve();
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void removeRange(final int fromIndex, final int toIndex) {
+		resolve();
+		if (toIndex == size) {
+			truncate(fromIndex);
+			return;
+		}
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (index != null) {
+				index.remove(elements[i]);
+			}
+		}
+		System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+		final int newSize = size - (toIndex - fromIndex);
+		Arrays.fill(elements, newSize, size, null);
+		size = newSize;
+		modCount++;
+	}
+
+	/**
+	 * Cria uma c&oacute;pia destes detalhes que mant&eacute;m as mensagens pendentes sem constru&iacute;-las.
+	 * 
+	 * @return A c&oacute;pia.
+	 */
+	Details copy() {
+		final Details copy = new Details();
+		copy.addAll(this);
+		return copy;
+	}
+
+	/**
+	 * Verifica se os detalhes informados s&atilde;o iguais sem construir as mensagens pendentes.<BR>
+	 * Duas mensagens pendentes s&atilde;o iguais somente se forem a mesma mensagem, se vierem do mesmo {@link Supplier} ou se tiverem o mesmo formato e
+	 * os mesmos argumentos, assim mensagens diferentes que produziriam o mesmo texto s&atilde;o consideradas diferentes.
+	 * 
+	 * @param details1 Os primeiros detalhes ou <code>null</code>.
+	 * @param details2 Os segundos detalhes ou <code>null</code>.
+	 * @return <code>true</code> se os detalhes forem iguais.
+	 */
+	static boolean same(final List<String> details1, final List<String> details2) {
+		if (details1 == details2) {
+			return true;
+		}
+		if (details1 == null || details2 == null) {
+			return false;
+		}
+		final boolean pending1 = details1 instanceof Details && ((Details) details1).isPending();
+		final boolean pending2 = details2 instanceof Details && ((Details) details2).isPending();
+		if (!pending1 && !pending2) {
+			return details1.equals(details2);
+		}
+		final Object[] elements1 = pending1 ? ((Details) details1).elements : details1.toArray();
+		final Object[] elements2 = pending2 ? ((Details) details2).elements : details2.toArray();
+		final int size1 = pending1 ? ((Details) details1).size : elements1.length;
+		final int size2 = pending2 ? ((Details) details2).size : elements2.length;
+		if (size1 != size2) {
+			return false;
+		}
+		for (int i = 0; i < size1; i++) {
+			if (!same(elements1[i], elements2[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean same(final Object element1, final Object element2) {
+		if (element1 == element2) {
+			return true;
+		}
+		if (element1 instanceof Message && element2 instanceof Message) {
+			final Message message1 = (Message) element1;
+			final Message message2 = (Message) element2;
+			if (message1.supplier != null || message2.supplier != null) {
+				return message1.supplier == message2.supplier;
 			}
+			return message1.format.equals(message2.format) && Arrays.equals(message1.args, message2.args);
 		}
-		return elements;
+		return element1 instanceof String && element1.equals(element2);
+	}
+
+	/**
+	 * Indica se h&aacute; mensagens que ainda n&atilde;o foram constru&iacute;das.
+	 * 
+	 * @return <code>true</code> se houver mensagens pendentes.
+	 */
+	boolean isPending() {
+		return pending > 0;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Obt&eacute;m a posi&ccedil;&atilde;o atual do fim da lista, sem construir as mensagens pendentes, para que o que for inclu&iacute;do depois dela
+	 * possa ser desfeito atrav&eacute;s do m&eacute;todo {@link #truncate(int)}.
+	 * 
+	 * @return A posi&ccedil;&atilde;o atual do fim da lista.
+	 */
+	int mark() {
+		return size;
+	}
+
+	/**
+	 * Devolve os detalhes obtidos atrav&eacute;s do m&eacute;todo {@link #acquire()}.
+	 */
+	void release() {
+		clear();
+		busy = false;
+	}
+
+	/**
+	 * Repassa estes detalhes a outras viola&ccedil;&otilde;es, sem construir as mensagens pendentes.<BR>
+	 * Os elementos s&atilde;o somente lidos, assim detalhes que n&atilde;o s&atilde;o mais alterados podem ser repassados por v&aacute;rias threads ao mesmo
+	 * tempo.
+	 * 
+	 * @param violations Onde os detalhes devem ser informados.
+	 */
+	void replay(final Violations violations) {
+		if (violations instanceof Details) {
+			((Details) violations).addAll(this);
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			final Object element = elements[i];
+			if (element instanceof Message) {
+				final Message message = (Message) element;
+				if (message.supplier != null) {
+					violations.report(message.supplier);
+				} else {
+					violations.report(message.format, message.args);
+				}
+			} else {
+				violations.report((String) element);
+			}
+		}
+	}
+
+	/**
+	 * Remove os elementos adicionados a partir da posi&ccedil;&atilde;o informada, desfazendo o que foi inclu&iacute;do depois dela.
+	 * 
+	 * @param size O tamanho, obtido atrav&eacute;s do m&eacute;todo {@link #mark()}, que a lista deve voltar a ter.
+	 */
+	void truncate(final int size) {
+		if (size >= this.size) {
+			return;
+		}
+		if (size == 0) {
+			pending = 0;
+			if (index != null) {
+				// o índice é mantido, pois os detalhes reaproveitados voltam a crescer na próxima avaliação
+				index.clear();
+			}
+		} else {
+			for (int i = size; i < this.size; i++) {
+				if (elements[i] instanceof Message) {
+					pending--;
+				} else if (index != null) {
+					index.remove(elements[i]);
+				}
+			}
+		}
+		Arrays.fill(elements, size, this.size, null);
+		this.size = size;
+		modCount++;
+	}
+
+	/**
+	 * Acrescenta uma mensagem pendente ao fim da lista.
+	 */
+	private void append(final Message message) {
+		grow();
+		elements[size++] = message;
+		pending++;
+		modCount++;
+	}
+
+	/**
+	 * Verifica se o texto informado est&aacute; na lista, ignorando as mensagens pendentes.
+	 */
+	private boolean containsText(final String text) {
+		if (index != null) {
+			return index.contains(text);
+		}
+		for (int i = 0; i < size; i++) {
+			final Object element = elements[i];
+			if (text == null ? element == null : text.equals(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void grow() {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(INDEX_THRESHOLD, size + (size >> 1)));
+		}
+	}
+
+	/**
+	 * Insere um elemento que ainda n&atilde;o est&aacute; na lista.
+	 */
+	private void insert(final int position, final String element) {
+		grow();
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = element;
+		size++;
+		if (index != null) {
+			index.add(element);
+		} else if (size >= INDEX_THRESHOLD) {
+			index = new HashSet<String>();
+			for (int i = 0; i < size; i++) {
+				if (!(elements[i] instanceof Message)) {
+					index.add((String) elements[i]);
+				}
+			}
+		}
+		modCount++;
+	}
+
+	/**
+	 * Constr&oacute;i as mensagens pendentes, mantendo somente a primeira ocorr&ecirc;ncia de cada texto.
+	 */
+	private void resolve() {
+		if (pending == 0) {
+			return;
+		}
+		final Set<String> texts = new HashSet<String>();
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			final Object element = elements[i];
+			final String text = element instanceof Message ? ((Message) element).build() : (String) element;
+			if (texts.add(text)) {
+				elements[count++] = text;
+			}
+		}
+		Arrays.fill(elements, count, size, null);
+		size = count;
+		pending = 0;
+		index = count >= INDEX_THRESHOLD ? texts : null;
+	}
+}
@@ -0,0 +1,161 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Coluna de valores <code>double</code> a partir da qual s&atilde;o criadas as compara&ccedil;&otilde;es de uma {@link ColumnRule regra colunar}.<BR>
+ * <BR>
+ * As compara&ccedil;&otilde;es seguem os operadores relacionais da linguagem, assim nenhuma compara&ccedil;&atilde;o atende &agrave;s linhas
+ * cujo valor &eacute; {@link Double#NaN}. As compara&ccedil;&otilde;es percorrem o vetor da coluna sem desvios condicionais, e as {@link DoubleSpecification especifica&ccedil;&otilde;es}
+ * informadas no m&eacute;todo {@link #matches(DoubleSpecification)} s&atilde;o verificadas linha a linha no modo {@link EvaluationMode#FAST}.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado que cont&eacute;m a coluna.
+ */
+public final class DoubleColumn<T> {
+
+	/**
+	 * Compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; no intervalo fechado <code>[min, max]</code>.
+	 */
+	private final class Range extends ColumnRule<T> {
+
+		private final double min;
+		private final double max;
+
+		Range(final double min, final double max) {
+			super(0);
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+			final double[] values = values(columns, size);
+			for (int word = 0, row = from; row < to; word++) {
+				final int end = Math.min(to, row + 64);
+				long bits = 0;
+				for (int bit = 0; row < end; row++, bit++) {
+					final double value = values[row];
+					bits |= (value >= min & value <= max ? 1L : 0L) << bit;
+				}
+				mask[word] = bits;
+			}
+		}
+	}
+
+	/**
+	 * Cria uma coluna a partir da fun&ccedil;&atilde;o que obt&eacute;m o seu vetor.
+	 *
+	 * @param <T> Tipo de dado que cont&eacute;m a coluna.
+	 * @param column A fun&ccedil;&atilde;o que obt&eacute;m o vetor da coluna, onde cada posi&ccedil;&atilde;o corresponde a uma linha.
+	 * @return A coluna.
+	 */
+	public static <T> DoubleColumn<T> of(final Function<? super T, double[]> column) {
+		return new DoubleColumn<T>(column);
+	}
+
+	private final Function<? super T, double[]> column;
+
+	private DoubleColumn(final Function<? super T, double[]> column) {
+		this.column = Objects.requireNonNull(column, "column");
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior ou igual ao informado.
+	 *
+	 * @param min O menor valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atLeast(final double min) {
+		return new Range(min, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor ou igual ao informado.
+	 *
+	 * @param max O maior valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atMost(final double max) {
+		return new Range(Double.NEGATIVE_INFINITY, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito, se for menor que <code>min</code> nenhuma linha atende &agrave; compara&ccedil;&atilde;o.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> between(final double min, final double max) {
+		return new Range(min, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; igual ao informado.
+	 *
+	 * @param value O valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> equalTo(final double value) {
+		return new Range(value, value);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> greaterThan(final double value) {
+		return value == Double.POSITIVE_INFINITY ? new Range(1, 0) : new Range(Math.nextUp(value), Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> lessThan(final double value) {
+		return value == Double.NEGATIVE_INFINITY ? new Range(1, 0) : new Range(Double.NEGATIVE_INFINITY, Math.nextDown(value));
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor atende &agrave; {@link DoubleSpecification especifica&ccedil;&atilde;o}
+	 * informada.
+	 *
+	 * @param spec A especifica&ccedil;&atilde;o, verificada no modo {@link EvaluationMode#FAST}.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> matches(final DoubleSpecification spec) {
+		Objects.requireNonNull(spec, "spec");
+		return new ColumnRule<T>(0) {
+
+			@Override
+			void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+				final double[] values = values(columns, size);
+				for (int word = 0, row = from; row < to; word++) {
+					final int end = Math.min(to, row + 64);
+					long bits = 0;
+					for (int bit = 0; row < end; row++, bit++) {
+						if (spec.verify(values[row], Details.IGNORED)) {
+							bits |= 1L << bit;
+						}
+					}
+					mask[word] = bits;
+				}
+			}
+		};
+	}
+
+	private double[] values(final T columns, final int size) {
+		final double[] values = Objects.requireNonNull(column.apply(columns), "column");
+		ColumnRule.check(values.length, size);
+		return values;
+	}
+}
@@ -0,0 +1,39 @@
+package br.com.staroski.rules;
+
+/**
+ * Variante da {@link SilentSpecification especifica&ccedil;&atilde;o silenciosa} que verifica um valor do tipo primitivo <code>double</code>, sem convert&ecirc;-lo para
+ * {@link Double}.<BR>
+ * <BR>
+ * Uma {@link DoubleSpecification} &eacute; associada a uma {@link Rule regra} atrav&eacute;s de uma fun&ccedil;&atilde;o que extrai o valor do objeto verificado, por
+ * exemplo:
+ *
+ * <PRE>
+ * DoubleSpecification naoNegativo = (valor, violacoes) -&gt; {
+ * 	if (valor &lt; 0) {
+ * 		violacoes.report(&quot;Idade n&amp;atildeo pode ser negativa&quot;);
+ * 		return false;
+ * 	}
+ * 	return true;
+ * };
+ * Rule&lt;Pessoa&gt; regra = Rule.createDouble(pessoa -&gt; pessoa.idade, naoNegativo);
+ * </PRE>
+ *
+ * Nenhum objeto &eacute; criado para verificar o valor, a n&atilde;o ser as mensagens das viola&ccedil;&otilde;es quando os detalhes forem lidos.<BR>
+ * <BR>
+ * <I><B>Dica: </B> Consulte a documenta&ccedil;&atilde;o da classe {@link Rule} para mais detalhes.</I>
+ *
+ * @author Ricardo Artur Staroski
+ * @see Rule#createDouble(java.util.function.ToDoubleFunction, DoubleSpecification)
+ */
+public interface DoubleSpecification {
+
+	/**
+	 * Verifica se o valor informado atende, ou n&atilde;o, a especifica&ccedil;&atilde;o desta interface.
+	 * 
+	 * @param value O valor a ser verificado.
+	 * @param violations Onde devem ser informados os motivos de o valor n&atilde;o atender a especifica&ccedil;&atilde;o.
+	 * 
+	 * @return <code>true</code> se o valor atender a especifica&ccedil;&atilde;o e <code>false</code> caso contr&aacute;rio.
+	 */
+	public boolean verify(double value, Violations violations);
+}
@@ -0,0 +1,113 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Resultado imut&aacute;vel da avalia&ccedil;&atilde;o de um objeto por uma {@link Rule regra}.<BR>
+ * <BR>
+ * Inst&acirc;ncias desta classe s&atilde;o obtidas atrav&eacute;s do m&eacute;todo {@link Rule#evaluate(Object)} e n&atilde;o dependem de nenhum estado
+ * armazenado na {@link Rule regra}, portanto podem ser compartilhadas livremente entre threads.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public final class Evaluation {
+
+	/**
+	 * Avalia&ccedil;&atilde;o de um objeto que atendeu &agrave; regra sem gerar detalhes.
+	 */
+	static final Evaluation SATISFIED = new Evaluation(true, Collections.<String> emptyList(), null);
+
+	/**
+	 * Avalia&ccedil;&atilde;o de um objeto que n&atilde;o atendeu &agrave; regra sem gerar detalhes.
+	 */
+	static final Evaluation UNSATISFIED = new Evaluation(false, Collections.<String> emptyList(), null);
+
+	/**
+	 * Obt&eacute;m uma avalia&ccedil;&atilde;o a partir do resultado e dos detalhes coletados.
+	 * 
+	 * @param satisfied Se o objeto atendeu ou n&atilde;o &agrave; regra.
+	 * @param details Os detalhes coletados durante a avalia&ccedil;&atilde;o, a lista &eacute; copiada.
+	 * @return A avalia&ccedil;&atilde;o correspondente.
+	 */
+	static Evaluation of(final boolean satisfied, final List<String> details) {
+		if (details instanceof Details) {
+			final Details collected = (Details) details;
+			if (collected.mark() == 0) {
+				return satisfied ? SATISFIED : UNSATISFIED;
+			}
+			if (collected.isPending()) {
+				// as mensagens só são construídas se os detalhes forem lidos
+				final Details pending = collected.copy();
+				return new Evaluation(satisfied, Collections.unmodifiableList(pending), pending);
+			}
+		} else if (details.isEmpty()) {
+			return satisfied ? SATISFIED : UNSATISFIED;
+		}
+		return new Evaluation(satisfied, Collections.unmodifiableList(new ArrayList<String>(details)), null);
+	}
+
+	/**
+	 * Indica se o objeto atendeu &agrave; regra.
+	 */
+	private final boolean satisfied;
+
+	/**
+	 * Detalhes do motivo de o objeto n&atilde;o atender &agrave; regra.
+	 */
+	private final List<String> details;
+
+	/**
+	 * Os detalhes com mensagens ainda n&atilde;o constru&iacute;das, vistos atrav&eacute;s de {@link #details}, ou <code>null</code>.<BR>
+	 * Os campos s&atilde;o finais, assim uma avalia&ccedil;&atilde;o pode ser repassada a outra thread sem sincroniza&ccedil;&atilde;o.
+	 */
+	private final Details pending;
+
+	/**
+	 * Indica se as mensagens pendentes j&aacute; foram constru&iacute;das.
+	 */
+	private volatile boolean resolved;
+
+	/**
+	 * Construtor privado.
+	 */
+	private Evaluation(final boolean satisfied, final List<String> details, final Details pending) {
+		this.satisfied = satisfied;
+		this.details = details;
+		this.pending = pending;
+	}
+
+	/**
+	 * Obt&eacute;m os detalhes do motivo de o objeto avaliado n&atilde;o atender &agrave; regra.
+	 * 
+	 * @return Uma lista imut&aacute;vel, vazia caso nenhum detalhe tenha sido gerado.
+	 */
+	public List<String> getDetails() {
+		if (pending != null && !resolved) {
+			synchronized (this) {
+				if (!resolved) {
+					// constrói as mensagens uma única vez, depois a lista só é lida
+					pending.size();
+					resolved = true;
+				}
+			}
+		}
+		return details;
+	}
+
+	/**
+	 * Verifica se o objeto avaliado atendeu &agrave; regra.
+	 * 
+	 * @return <code>true</code> se o objeto atendeu &agrave; regra e <code>false</code> caso contr&aacute;rio.
+	 */
+	public boolean isSatisfied() {
+		return satisfied;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "Evaluation[satisfied=" + satisfied + ", details=" + getDetails() + "]";
+	}
+}
@@ -0,0 +1,22 @@
+package br.com.staroski.rules;
+
+/**
+ * Modos de avalia&ccedil;&atilde;o de uma {@link Rule regra} atrav&eacute;s do m&eacute;todo {@link Rule#evaluate(Object, EvaluationMode)}.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public enum EvaluationMode {
+
+	/**
+	 * Obt&eacute;m somente o resultado da avalia&ccedil;&atilde;o, sem detalhes.<BR>
+	 * As opera&ccedil;&otilde;es <I>AND</I> e <I>OR</I> deixam de verificar a segunda regra quando a primeira j&aacute; determina o resultado, assim
+	 * como os operadores <code>&amp;&amp;</code> e <code>||</code> do Java.
+	 */
+	FAST,
+
+	/**
+	 * Verifica todas as regras e coleta todos os detalhes do motivo de o objeto n&atilde;o atend&ecirc;-las, assim como o m&eacute;todo
+	 * {@link Rule#isSatisfiedBy(Object)}.
+	 */
+	DIAGNOSTIC;
+}
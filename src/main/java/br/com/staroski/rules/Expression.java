@@ -0,0 +1,158 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Representa&ccedil;&atilde;o normalizada de uma {@link Rule regra}, onde as cadeias de opera&ccedil;&otilde;es <B>E</B> e <B>OU</B> s&atilde;o achatadas em
+ * opera&ccedil;&otilde;es com v&aacute;rios operandos.<BR>
+ * <BR>
+ * As express&otilde;es s&atilde;o utilizadas pelos compiladores de regras e preservam os detalhes gerados por elas, exceto na raiz, onde uma
+ * opera&ccedil;&atilde;o <B>OU</B> mant&eacute;m seus dois operandos originais, pois os detalhes de uma regra <B>OU</B> atendida s&atilde;o descartados
+ * somente quando ela comp&otilde;e outra.
+ * 
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class Expression<T> {
+
+	/**
+	 * Uma {@link Rule regra} avaliada diretamente, normalmente uma {@link ConcreteRule}.
+	 */
+	static final int LEAF = 0;
+
+	/**
+	 * Opera&ccedil;&atilde;o <B>E</B> entre os operandos.
+	 */
+	static final int AND = 1;
+
+	/**
+	 * Opera&ccedil;&atilde;o <B>OU</B> entre os operandos.
+	 */
+	static final int OR = 2;
+
+	/**
+	 * Opera&ccedil;&atilde;o <B>N&Atilde;O</B> do &uacute;nico operando.
+	 */
+	static final int NOT = 3;
+
+	/**
+	 * Obt&eacute;m a express&atilde;o de uma regra que comp&otilde;e outra.
+	 * 
+	 * @param rule A regra.
+	 * @return A express&atilde;o normalizada da regra.
+	 */
+	static <T> Expression<T> of(final Rule<T> rule) {
+		final Rule<T> source = unwrap(rule);
+		if (source instanceof And) {
+			return new Expression<T>(AND, null, flatten(And.class, (BinaryRule<T>) source));
+		}
+		if (source instanceof Or) {
+			return new Expression<T>(OR, null, flatten(Or.class, (BinaryRule<T>) source));
+		}
+		if (source instanceof Not) {
+			return new Expression<T>(NOT, null, Collections.singletonList(of(((Not<T>) source).getRule())));
+		}
+		return new Expression<T>(LEAF, source, Collections.<Expression<T>> emptyList());
+	}
+
+	/**
+	 * Obt&eacute;m a chave que identifica uma folha: folhas com especifica&ccedil;&otilde;es iguais s&atilde;o a mesma folha, as demais regras s&oacute;
+	 * s&atilde;o iguais a si mesmas.
+	 * 
+	 * @param rule A regra da folha.
+	 * @return A chave da folha.
+	 */
+	static Object key(final Rule<?> rule) {
+		return rule instanceof ConcreteRule ? ((ConcreteRule<?>) rule).getSpecification() : rule;
+	}
+
+	/**
+	 * Obt&eacute;m a express&atilde;o de uma regra que &eacute; avaliada diretamente.
+	 * 
+	 * @param rule A regra.
+	 * @return A express&atilde;o normalizada da regra.
+	 */
+	static <T> Expression<T> root(final Rule<T> rule) {
+		final Rule<T> source = unwrap(rule);
+		if (source instanceof Or) {
+			// os detalhes de um OU atendido só são descartados quando ele compõe outra regra
+			final BinaryRule<T> or = (BinaryRule<T>) source;
+			final List<Expression<T>> operands = new ArrayList<Expression<T>>(2);
+			operands.add(of(or.getFirstRule()));
+			operands.add(of(or.getSecondRule()));
+			return new Expression<T>(OR, null, operands);
+		}
+		return of(source);
+	}
+
+	/**
+	 * Obt&eacute;m os operandos de uma cadeia de regras do mesmo tipo, da esquerda para a direita.
+	 */
+	private static <T> List<Expression<T>> flatten(final Class<?> type, final BinaryRule<T> rule) {
+		final List<Expression<T>> operands = new ArrayList<Expression<T>>();
+		final Deque<Rule<T>> pending = new ArrayDeque<Rule<T>>();
+		pending.push(rule);
+		// iterativo, pois cadeias longas como a.and(b).and(c)... são muito profundas
+		while (!pending.isEmpty()) {
+			final Rule<T> next = unwrap(pending.pop());
+			if (type.isInstance(next)) {
+				final BinaryRule<T> binary = (BinaryRule<T>) next;
+				pending.push(binary.getSecondRule());
+				pending.push(binary.getFirstRule());
+			} else {
+				operands.add(of(next));
+			}
+		}
+		return operands;
+	}
+
+	/**
+	 * Obt&eacute;m a regra que originou uma regra compilada no modo {@link EvaluationMode#DIAGNOSTIC}, as compiladas no modo
+	 * {@link EvaluationMode#FAST} n&atilde;o geram detalhes e por isso s&atilde;o mantidas.
+	 */
+	private static <T> Rule<T> unwrap(final Rule<T> rule) {
+		if (rule instanceof CompiledRule) {
+			final CompiledRule<T> compiled = (CompiledRule<T>) rule;
+			if (compiled.getMode() == EvaluationMode.DIAGNOSTIC) {
+				return compiled.getSource();
+			}
+		}
+		return rule;
+	}
+
+	/**
+	 * O tipo desta express&atilde;o: {@link #LEAF}, {@link #AND}, {@link #OR} ou {@link #NOT}.
+	 */
+	final int kind;
+
+	/**
+	 * A regra avaliada diretamente, somente para {@link #LEAF}.
+	 */
+	final Rule<T> rule;
+
+	/**
+	 * Os operandos desta express&atilde;o, vazio para {@link #LEAF}.
+	 */
+	final List<Expression<T>> operands;
+
+	/**
+	 * Cria uma nova express&atilde;o.
+	 */
+	Expression(final int kind, final Rule<T> rule, final List<Expression<T>> operands) {
+		this.kind = kind;
+		this.rule = rule;
+		this.operands = operands;
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de express&otilde;es que comp&otilde;em esta, incluindo ela mesma.
+	 * 
+	 * @return A quantidade de express&otilde;es.
+	 */
+	int size() {
+		int size = 1;
+		for (final Expression<T> operand : operands) {
+			size += operand.size();
+		}
+		return size;
+	}
+}
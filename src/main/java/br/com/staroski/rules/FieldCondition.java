@@ -0,0 +1,399 @@
+package br.com.staroski.rules;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * {@link SilentSpecification Especifica&ccedil;&atilde;o} declarativa que compara uma propriedade do objeto com uma constante, por exemplo
+ * <code>idade &gt;= 0</code>.<BR>
+ * <BR>
+ * Ao contr&aacute;rio das demais especifica&ccedil;&otilde;es, o que ela l&ecirc; e compara pode ser consultado atrav&eacute;s dos m&eacute;todos
+ * {@link #getProperty()}, {@link #getOperator()} e {@link #getValue()}, e ela declara a propriedade lida atrav&eacute;s da interface
+ * {@link PropertyDependent}, assim um {@link RuleNetwork} s&oacute; a verifica novamente quando a propriedade muda, e duas condi&ccedil;&otilde;es iguais
+ * s&atilde;o verificadas uma &uacute;nica vez por um {@link RuleGroup}.<BR>
+ * <BR>
+ * A propriedade pode ser lida por uma fun&ccedil;&atilde;o informada ou localizada pelo nome, uma &uacute;nica vez, num m&eacute;todo
+ * <code>getNome()</code>, <code>isNome()</code> ou <code>nome()</code>, ou num atributo <code>nome</code>. Os m&eacute;todos localizados s&atilde;o
+ * convertidos em express&otilde;es lambda, e os que retornam tipos primitivos num&eacute;ricos s&atilde;o comparados sem convers&atilde;o para objetos.
+ * Os atributos, e os m&eacute;todos sem acesso pelo {@link MethodHandles.Lookup} informado, s&atilde;o lidos por um {@link MethodHandle} que converte o
+ * valor para objeto. Nenhuma reflex&atilde;o &eacute; utilizada durante as verifica&ccedil;&otilde;es.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * Rule&lt;Pessoa&gt; idade = FieldCondition.of(MethodHandles.lookup(), Pessoa.class, &quot;idade&quot;, Operator.GREATER_THAN_OR_EQUAL, 0);
+ * Rule&lt;Pessoa&gt; sexo = FieldCondition.of(&quot;sexo&quot;, (Pessoa pessoa) -&gt; pessoa.sexo, Operator.NOT_EQUAL, 'X');
+ * </PRE>
+ *
+ * Os valores s&atilde;o comparados atrav&eacute;s do m&eacute;todo {@link Comparable#compareTo(Object)}, os n&uacute;meros de tipos diferentes e os
+ * n&uacute;meros de ponto flutuante s&atilde;o comparados pelo seu valor, assim <code>-0.0</code> &eacute; igual a <code>0.0</code> e
+ * {@link Double#NaN} s&oacute; &eacute; diferente, como nos tipos primitivos, independente de como a propriedade &eacute; lida. Os valores que n&atilde;o
+ * s&atilde;o compar&aacute;veis entre si s&atilde;o comparados pelo m&eacute;todo {@link Object#equals(Object)} e nunca atendem aos operadores de
+ * ordem. Um valor <code>null</code> s&oacute; &eacute; igual a <code>null</code> e nunca atende aos demais operadores. Quando o
+ * objeto n&atilde;o atende &agrave; condi&ccedil;&atilde;o, a viola&ccedil;&atilde;o repassada &eacute; a pr&oacute;pria condi&ccedil;&atilde;o, por
+ * exemplo <code>"idade &gt;= 0"</code>.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+ */
+public final class FieldCondition<T> implements SilentSpecification<T>, PropertyDependent {
+
+	/**
+	 * Operador que compara a propriedade com a constante.
+	 */
+	public enum Operator {
+
+		EQUAL("=="),
+		NOT_EQUAL("!="),
+		LESS_THAN("<"),
+		LESS_THAN_OR_EQUAL("<="),
+		GREATER_THAN(">"),
+		GREATER_THAN_OR_EQUAL(">=");
+
+		private final String symbol;
+
+		private Operator(final String symbol) {
+			this.symbol = symbol;
+		}
+
+		/**
+		 * Obt&eacute;m o s&iacute;mbolo do operador.
+		 *
+		 * @return O s&iacute;mbolo, por exemplo <code>"&gt;="</code>.
+		 */
+		public String getSymbol() {
+			return symbol;
+		}
+
+		/**
+		 * Verifica se o resultado de uma compara&ccedil;&atilde;o atende ao operador.
+		 */
+		boolean accepts(final int comparison) {
+			switch (this) {
+				case EQUAL:
+					return comparison == 0;
+				case NOT_EQUAL:
+					return comparison != 0;
+				case LESS_THAN:
+					return comparison < 0;
+				case LESS_THAN_OR_EQUAL:
+					return comparison <= 0;
+				case GREATER_THAN:
+					return comparison > 0;
+				default:
+					return comparison >= 0;
+			}
+		}
+	}
+
+	/**
+	 * Resultado de uma compara&ccedil;&atilde;o que n&atilde;o atende a nenhum operador de ordem: valores <code>null</code> ou {@link Double#NaN}.
+	 */
+	private static final int UNORDERED = Integer.MIN_VALUE;
+
+	/**
+	 * Cria uma regra que compara a propriedade lida pela fun&ccedil;&atilde;o informada com uma constante.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param property O nome da propriedade, que identifica o que a fun&ccedil;&atilde;o l&ecirc;.
+	 * @param accessor A fun&ccedil;&atilde;o que l&ecirc; a propriedade.
+	 * @param operator O operador da compara&ccedil;&atilde;o.
+	 * @param value A constante.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> of(final String property, final Function<? super T, ?> accessor, final Operator operator, final Object value) {
+		return Rule.create(new FieldCondition<T>(null, property, Objects.requireNonNull(accessor, "accessor"), null, null, operator, value));
+	}
+
+	/**
+	 * Cria uma regra que compara uma propriedade do tipo informado com uma constante, localizando o m&eacute;todo ou atributo que l&ecirc; a propriedade
+	 * uma &uacute;nica vez.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param lookup O {@link MethodHandles.Lookup} com acesso &agrave; propriedade, normalmente <code>MethodHandles.lookup()</code> da classe que
+	 *            cria a regra.
+	 * @param type O tipo de dado do objeto.
+	 * @param property O nome da propriedade.
+	 * @param operator O operador da compara&ccedil;&atilde;o.
+	 * @param value A constante.
+	 * @return A regra criada.
+	 * @throws IllegalArgumentException Se a propriedade n&atilde;o for encontrada, n&atilde;o for acess&iacute;vel ou n&atilde;o puder ser comparada com a
+	 *             constante.
+	 */
+	public static <T> Rule<T> of(final MethodHandles.Lookup lookup, final Class<T> type, final String property, final Operator operator,
+			final Object value) {
+		final MethodHandle handle = find(lookup, type, property);
+		final Class<?> result = handle.type().returnType();
+		final Class<?> boxed = MethodType.methodType(result).wrap().returnType();
+		final boolean number = value instanceof Number;
+		// o tipo da propriedade é conhecido, uma constante incompatível falharia em todas as verificações
+		if (value != null && !boxed.isInstance(value) && !(number && Number.class.isAssignableFrom(boxed))) {
+			throw new IllegalArgumentException(type.getName() + "." + property + " (" + result.getName() + ") cannot be compared with "
+					+ value.getClass().getName() + " " + value);
+		}
+		// somente os retornos primitivos, os objetos podem ser null
+		if (number && result.isPrimitive() && isIntegral(result) && isIntegral(value.getClass())) {
+			final ToLongFunction<T> integral = lambda(lookup, ToLongFunction.class, "applyAsLong", long.class, handle, type);
+			if (integral != null) {
+				return Rule.create(new FieldCondition<T>(type, property, null, integral, null, operator, value));
+			}
+		} else if (number && result.isPrimitive() && result != boolean.class && result != char.class) {
+			final ToDoubleFunction<T> floating = lambda(lookup, ToDoubleFunction.class, "applyAsDouble", double.class, handle, type);
+			if (floating != null) {
+				return Rule.create(new FieldCondition<T>(type, property, null, null, floating, operator, value));
+			}
+		}
+		Function<T, ?> accessor = lambda(lookup, Function.class, "apply", Object.class, handle, type);
+		if (accessor == null) {
+			// atributos e métodos sem acesso privilegiado são lidos pelo MethodHandle
+			final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+			accessor = object -> {
+				try {
+					return generic.invokeExact((Object) object);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new UndeclaredThrowableException(e);
+				}
+			};
+		}
+		return Rule.create(new FieldCondition<T>(type, property, accessor, null, null, operator, value));
+	}
+
+	/**
+	 * Localiza o m&eacute;todo ou atributo que l&ecirc; a propriedade.
+	 */
+	private static MethodHandle find(final MethodHandles.Lookup lookup, final Class<?> type, final String property) {
+		if (property.isEmpty()) {
+			throw new IllegalArgumentException("property");
+		}
+		final String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+		for (Class<?> owner = type; owner != null; owner = owner.getSuperclass()) {
+			for (final String name : new String[] { "get" + suffix, "is" + suffix, property }) {
+				try {
+					final Method method = owner.getDeclaredMethod(name);
+					if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+						return lookup.unreflect(method);
+					}
+				} catch (NoSuchMethodException e) {
+					// tenta o próximo nome
+				} catch (IllegalAccessException e) {
+					throw new IllegalArgumentException(type.getName() + "." + name + "()", e);
+				}
+			}
+			try {
+				final Field field = owner.getDeclaredField(property);
+				if (!Modifier.isStatic(field.getModifiers())) {
+					return lookup.unreflectGetter(field);
+				}
+			} catch (NoSuchFieldException e) {
+				// tenta a superclasse
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException(type.getName() + "." + property, e);
+			}
+		}
+		throw new IllegalArgumentException(type.getName() + " has no property " + property);
+	}
+
+	private static boolean isFloating(final Class<?> type) {
+		return type == Double.class || type == Float.class;
+	}
+
+	private static boolean isIntegral(final Class<?> type) {
+		return type == int.class || type == long.class || type == short.class || type == byte.class //
+				|| type == Integer.class || type == Long.class || type == Short.class || type == Byte.class;
+	}
+
+	/**
+	 * Converte o m&eacute;todo que l&ecirc; a propriedade numa express&atilde;o lambda da interface informada.
+	 *
+	 * @return A express&atilde;o lambda ou <code>null</code> se o m&eacute;todo for um atributo ou n&atilde;o for acess&iacute;vel.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <F> F lambda(final MethodHandles.Lookup lookup, final Class<?> function, final String name, final Class<?> result,
+			final MethodHandle handle, final Class<?> type) {
+		try {
+			final Class<?> returned = handle.type().returnType();
+			final MethodType instantiated = MethodType.methodType(result == Object.class ? MethodType.methodType(returned).wrap().returnType() : result, type);
+			final CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(function),
+					MethodType.methodType(result, Object.class), handle, instantiated);
+			return (F) site.getTarget().invoke();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	private final Class<T> type;
+	private final String property;
+	private final Function<? super T, ?> accessor;
+	private final ToLongFunction<? super T> integral;
+	private final ToDoubleFunction<? super T> floating;
+	private final Operator operator;
+	private final Object value;
+	private final String message;
+
+	/**
+	 * O valor da constante para as propriedades lidas como <code>long</code> ou <code>double</code>.
+	 */
+	private final long longValue;
+	private final double doubleValue;
+
+	private FieldCondition(final Class<T> type, final String property, final Function<? super T, ?> accessor, final ToLongFunction<? super T> integral,
+			final ToDoubleFunction<? super T> floating, final Operator operator, final Object value) {
+		if (value == null && operator != Operator.EQUAL && operator != Operator.NOT_EQUAL) {
+			throw new IllegalArgumentException(operator + " null");
+		}
+		this.type = type;
+		this.property = Objects.requireNonNull(property, "property");
+		this.accessor = accessor;
+		this.integral = integral;
+		this.floating = floating;
+		this.operator = Objects.requireNonNull(operator, "operator");
+		this.value = value;
+		this.message = property + " " + operator.symbol + " " + value;
+		this.longValue = value instanceof Number ? ((Number) value).longValue() : 0;
+		this.doubleValue = value instanceof Number ? ((Number) value).doubleValue() : 0;
+	}
+
+	/**
+	 * Compara dois valores quaisquer.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private int compare(final Object actual) {
+		if (actual == null || value == null) {
+			if (actual == value) {
+				return 0;
+			}
+			return operator == Operator.EQUAL || operator == Operator.NOT_EQUAL ? 1 : UNORDERED;
+		}
+		if (actual instanceof Number && value instanceof Number) {
+			// ponto flutuante como nos primitivos: NaN não é ordenado e -0.0 == 0.0, ao contrário do compareTo
+			if (isFloating(actual.getClass()) || isFloating(value.getClass())) {
+				return compare(((Number) actual).doubleValue());
+			}
+			if (actual.getClass() != value.getClass()) {
+				if (isIntegral(actual.getClass()) && isIntegral(value.getClass())) {
+					return Long.compare(((Number) actual).longValue(), longValue);
+				}
+				return compare(((Number) actual).doubleValue());
+			}
+		}
+		if (actual instanceof Comparable && actual.getClass().isInstance(value)) {
+			return ((Comparable) actual).compareTo(value);
+		}
+		return actual.equals(value) ? 0 : operator == Operator.EQUAL || operator == Operator.NOT_EQUAL ? 1 : UNORDERED;
+	}
+
+	private int compare(final double actual) {
+		if (actual < doubleValue) {
+			return -1;
+		}
+		if (actual > doubleValue) {
+			return 1;
+		}
+		if (actual == doubleValue) {
+			return 0;
+		}
+		// NaN só é diferente
+		return operator == Operator.NOT_EQUAL ? 1 : UNORDERED;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof FieldCondition) {
+			final FieldCondition<?> other = (FieldCondition<?>) obj;
+			// as condições de funções informadas só são iguais se a função for a mesma
+			return type == other.type && (type != null || accessor.equals(other.accessor)) && property.equals(other.property)
+					&& operator == other.operator && Objects.equals(value, other.value);
+		}
+		return false;
+	}
+
+	/**
+	 * Obt&eacute;m o operador da compara&ccedil;&atilde;o.
+	 *
+	 * @return O operador.
+	 */
+	public Operator getOperator() {
+		return operator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<String> getProperties() {
+		return Collections.singletonList(property);
+	}
+
+	/**
+	 * Obt&eacute;m o nome da propriedade lida.
+	 *
+	 * @return O nome da propriedade.
+	 */
+	public String getProperty() {
+		return property;
+	}
+
+	/**
+	 * Obt&eacute;m o tipo de dado do objeto cuja propriedade foi localizada pelo nome.
+	 *
+	 * @return O tipo de dado ou <code>null</code> se a propriedade &eacute; lida por uma fun&ccedil;&atilde;o informada.
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Obt&eacute;m a constante comparada.
+	 *
+	 * @return A constante.
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(type, property, operator, value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return message;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean verify(final T object, final Violations violations) {
+		final int comparison;
+		if (integral != null) {
+			comparison = Long.compare(integral.applyAsLong(object), longValue);
+		} else if (floating != null) {
+			comparison = compare(floating.applyAsDouble(object));
+		} else {
+			comparison = compare(accessor.apply(object));
+		}
+		if (comparison != UNORDERED && operator.accepts(comparison)) {
+			return true;
+		}
+		violations.report(message);
+		return false;
+	}
+}
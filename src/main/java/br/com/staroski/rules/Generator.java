@@ -0,0 +1,433 @@
+package br.com.staroski.rules;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.logging.*;
+
+/**
+ * Gera em tempo de execu&ccedil;&atilde;o uma classe que avalia o programa de desvios de uma {@link CompiledRule regra compilada} no modo
+ * {@link EvaluationMode#FAST}.<BR>
+ * <BR>
+ * Cada instru&ccedil;&atilde;o do programa se torna uma chamada direta ao m&eacute;todo <code>verify</code> da sua especifica&ccedil;&atilde;o, de modo que
+ * cada especifica&ccedil;&atilde;o tem o seu pr&oacute;prio ponto de chamada e a JIT pode otimiz&aacute;-lo, o que n&atilde;o ocorre quando todas as
+ * especifica&ccedil;&otilde;es s&atilde;o chamadas a partir do mesmo ponto.<BR>
+ * As {@link Specification especifica&ccedil;&otilde;es} convencionais s&atilde;o chamadas diretamente e a {@link UnattendedException} &eacute; tratada
+ * pela pr&oacute;pria classe gerada.<BR>
+ * <BR>
+ * A classe gerada referencia somente tipos p&uacute;blicos, &eacute; carregada por um {@link ClassLoader} pr&oacute;prio e implementa
+ * {@link SilentSpecification}.
+ */
+final class Generator {
+
+	private static final String PACKAGE = "br/com/staroski/rules/generated/";
+
+	private static final String OBJECT = "java/lang/Object";
+	private static final String SILENT = "br/com/staroski/rules/SilentSpecification";
+	private static final String SPECIFICATION = "br/com/staroski/rules/Specification";
+	private static final String VIOLATIONS = "br/com/staroski/rules/Violations";
+	private static final String UNATTENDED = "br/com/staroski/rules/UnattendedException";
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	private static final Logger LOGGER = Logger.getLogger(Generator.class.getName());
+
+	/**
+	 * Gera a classe que avalia o programa de desvios informado a partir da instru&ccedil;&atilde;o inicial.
+	 * 
+	 * @param specs As especifica&ccedil;&otilde;es de cada instru&ccedil;&atilde;o.
+	 * @param onTrue Os desvios caso a regra seja atendida.
+	 * @param onFalse Os desvios caso a regra n&atilde;o seja atendida.
+	 * @param entry A instru&ccedil;&atilde;o inicial.
+	 * @return Uma inst&acirc;ncia da classe gerada ou <code>null</code> se n&atilde;o foi poss&iacute;vel ger&aacute;-la.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> SilentSpecification<T> generate(final SilentSpecification<T>[] specs, final int[] onTrue, final int[] onFalse, final int entry) {
+		try {
+			final Generator generator = new Generator(specs, onTrue, onFalse, entry);
+			final String name = PACKAGE + "GeneratedRule" + COUNTER.incrementAndGet();
+			final byte[] bytes = generator.write(name);
+			final Class<?> type = new Loader().define(name.replace('/', '.'), bytes);
+			final Constructor<?> constructor = type.getConstructor(Object[].class);
+			return (SilentSpecification<T>) constructor.newInstance(new Object[] { generator.targets.toArray() });
+		} catch (Exception | LinkageError e) {
+			// sem geração de classes, a regra continua sendo avaliada pelo programa de desvios
+			LOGGER.log(Level.WARNING, "rule class generation failed, falling back to the branch program", e);
+			return null;
+		}
+	}
+
+	private final int[] onTrue;
+	private final int[] onFalse;
+
+	/**
+	 * As instru&ccedil;&otilde;es alcan&ccedil;&aacute;veis a partir da instru&ccedil;&atilde;o inicial, em ordem.
+	 */
+	private final int[] reachable;
+
+	/**
+	 * Os objetos verificados por cada instru&ccedil;&atilde;o alcan&ccedil;&aacute;vel, armazenados nos campos da classe gerada.
+	 */
+	private final List<Object> targets = new ArrayList<Object>();
+
+	/**
+	 * Indica, para cada objeto verificado, se ele &eacute; uma {@link SilentSpecification} ou uma {@link Specification} convencional.
+	 */
+	private final List<Boolean> kinds = new ArrayList<Boolean>();
+
+	private final ConstantPool pool = new ConstantPool();
+
+	private Generator(final SilentSpecification<?>[] specs, final int[] onTrue, final int[] onFalse, final int entry) {
+		this.onTrue = onTrue;
+		this.onFalse = onFalse;
+		final boolean[] marked = new boolean[specs.length];
+		marked[entry] = true;
+		final int[] pcs = new int[specs.length];
+		int count = 0;
+		// os desvios sempre avançam, então uma única passada encontra tudo que é alcançável
+		for (int pc = entry; pc < specs.length; pc++) {
+			if (marked[pc]) {
+				pcs[count++] = pc;
+				final SilentSpecification<?> spec = specs[pc];
+				if (spec instanceof SpecificationAdapter) {
+					targets.add(((SpecificationAdapter<?>) spec).getSpecification());
+					kinds.add(Boolean.FALSE);
+				} else {
+					targets.add(spec);
+					kinds.add(Boolean.TRUE);
+				}
+				mark(marked, pc, onTrue[pc]);
+				mark(marked, pc, onFalse[pc]);
+			}
+		}
+		reachable = Arrays.copyOf(pcs, count);
+	}
+
+	private static void mark(final boolean[] marked, final int pc, final int target) {
+		if (target >= 0) {
+			if (target <= pc) {
+				throw new IllegalStateException("backward jump at " + pc);
+			}
+			marked[target] = true;
+		}
+	}
+
+	/**
+	 * Obt&eacute;m o descritor do campo que armazena o objeto verificado por uma instru&ccedil;&atilde;o.
+	 */
+	private String descriptor(final int field) {
+		return "L" + (isSilent(field) ? SILENT : SPECIFICATION) + ";";
+	}
+
+	private boolean isSilent(final int field) {
+		return kinds.get(field);
+	}
+
+	/**
+	 * Obt&eacute;m o c&oacute;digo do construtor, que recebe os objetos verificados num vetor.
+	 */
+	private Code constructor(final String name) throws IOException {
+		final Code code = new Code();
+		code.op(0x2a); // aload_0
+		code.op(0xb7, pool.method(OBJECT, "<init>", "()V")); // invokespecial
+		for (int field = 0; field < targets.size(); field++) {
+			code.op(0x2a); // aload_0
+			code.op(0x2b); // aload_1
+			code.push(field, pool);
+			code.op(0x32); // aaload
+			code.op(0xc0, pool.type(isSilent(field) ? SILENT : SPECIFICATION)); // checkcast
+			code.op(0xb5, pool.field(name, "s" + field, descriptor(field))); // putfield
+		}
+		code.op(0xb1); // return
+		return code;
+	}
+
+	/**
+	 * Obt&eacute;m o c&oacute;digo do m&eacute;todo <code>verify</code>, onde cada instru&ccedil;&atilde;o do programa se torna uma chamada direta.
+	 */
+	private Code verify(final String name) throws IOException {
+		final Code code = new Code();
+		final int[] handlers = new int[reachable.length];
+		for (int field = 0; field < reachable.length; field++) {
+			final int pc = reachable[field];
+			final int next = field + 1 < reachable.length ? reachable[field + 1] : Integer.MIN_VALUE;
+			code.label(pc);
+			code.op(0x2a); // aload_0
+			code.op(0xb4, pool.field(name, "s" + field, descriptor(field))); // getfield
+			code.op(0x2b); // aload_1
+			if (isSilent(field)) {
+				code.op(0x2c); // aload_2
+				code.op(0xb9, pool.interfaceMethod(SILENT, "verify", "(Ljava/lang/Object;L" + VIOLATIONS + ";)Z")); // invokeinterface
+				code.u1(3);
+				code.u1(0);
+				if (onFalse[pc] == next) {
+					code.jump(0x9a, onTrue[pc]); // ifne
+				} else {
+					code.jump(0x99, onFalse[pc]); // ifeq
+					if (onTrue[pc] != next) {
+						code.jump(0xa7, onTrue[pc]); // goto
+					}
+				}
+			} else {
+				final int start = code.size();
+				code.op(0xb9, pool.interfaceMethod(SPECIFICATION, "verify", "(Ljava/lang/Object;)V")); // invokeinterface
+				code.u1(2);
+				code.u1(0);
+				handlers[field] = code.size();
+				code.handler(start, code.size(), pool.type(UNATTENDED), field);
+				if (onTrue[pc] != next) {
+					code.jump(0xa7, onTrue[pc]); // goto
+				}
+			}
+		}
+		code.label(CompiledRule.TRUE);
+		code.op(0x04); // iconst_1
+		code.op(0xac); // ireturn
+		code.label(CompiledRule.FALSE);
+		code.op(0x03); // iconst_0
+		code.op(0xac); // ireturn
+		// os tratadores da UnattendedException ficam no final para não interromper o fluxo das instruções
+		for (int field = 0; field < reachable.length; field++) {
+			if (!isSilent(field)) {
+				code.handlerStart(field);
+				code.op(0x57); // pop
+				code.jump(0xa7, onFalse[reachable[field]]); // goto
+			}
+		}
+		return code;
+	}
+
+	/**
+	 * Escreve o arquivo de classe.
+	 */
+	private byte[] write(final String name) throws IOException {
+		final int thisClass = pool.type(name);
+		final int superClass = pool.type(OBJECT);
+		final int silent = pool.type(SILENT);
+		final Code constructor = constructor(name);
+		final Code verify = verify(name);
+		final int[] fieldNames = new int[targets.size()];
+		final int[] fieldTypes = new int[targets.size()];
+		for (int field = 0; field < fieldNames.length; field++) {
+			fieldNames[field] = pool.utf8("s" + field);
+			fieldTypes[field] = pool.utf8(descriptor(field));
+		}
+		final int init = pool.utf8("<init>");
+		final int initType = pool.utf8("([Ljava/lang/Object;)V");
+		final int verifyName = pool.utf8("verify");
+		final int verifyType = pool.utf8("(Ljava/lang/Object;L" + VIOLATIONS + ";)Z");
+		final int codeName = pool.utf8("Code");
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(49); // Java 5, dispensa os StackMapTable
+		pool.write(out);
+		out.writeShort(0x0031); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(1);
+		out.writeShort(silent);
+		out.writeShort(fieldNames.length);
+		for (int field = 0; field < fieldNames.length; field++) {
+			out.writeShort(0x0012); // private final
+			out.writeShort(fieldNames[field]);
+			out.writeShort(fieldTypes[field]);
+			out.writeShort(0);
+		}
+		out.writeShort(2);
+		constructor.write(out, init, initType, codeName, 3, 2);
+		verify.write(out, verifyName, verifyType, codeName, 3, 3);
+		out.writeShort(0);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * C&oacute;digo de um m&eacute;todo, com os r&oacute;tulos e desvios resolvidos no final.
+	 */
+	private static final class Code {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final Map<Integer, Integer> labels = new HashMap<Integer, Integer>();
+		private final List<int[]> jumps = new ArrayList<int[]>();
+		private final List<int[]> handlers = new ArrayList<int[]>();
+
+		int size() {
+			return bytes.size();
+		}
+
+		void u1(final int value) {
+			bytes.write(value);
+		}
+
+		void op(final int opcode) {
+			bytes.write(opcode);
+		}
+
+		void op(final int opcode, final int index) {
+			bytes.write(opcode);
+			bytes.write(index >>> 8);
+			bytes.write(index);
+		}
+
+		void push(final int value, final ConstantPool pool) throws IOException {
+			if (value <= 5) {
+				op(0x03 + value); // iconst_n
+			} else if (value <= Byte.MAX_VALUE) {
+				op(0x10); // bipush
+				u1(value);
+			} else if (value <= Short.MAX_VALUE) {
+				op(0x11, value); // sipush
+			} else {
+				op(0x13, pool.integer(value)); // ldc_w
+			}
+		}
+
+		void label(final int label) {
+			labels.put(label, size());
+		}
+
+		void jump(final int opcode, final int label) {
+			jumps.add(new int[] { size(), label });
+			op(opcode, 0);
+		}
+
+		void handler(final int start, final int end, final int type, final int field) {
+			handlers.add(new int[] { start, end, -1, type, field });
+		}
+
+		void handlerStart(final int field) {
+			for (final int[] handler : handlers) {
+				if (handler[4] == field) {
+					handler[2] = size();
+				}
+			}
+		}
+
+		void write(final DataOutputStream out, final int name, final int type, final int codeName, final int maxStack, final int maxLocals)
+				throws IOException {
+			final byte[] code = bytes.toByteArray();
+			for (final int[] jump : jumps) {
+				final int offset = labels.get(jump[1]) - jump[0];
+				if (offset != (short) offset) {
+					throw new IllegalStateException("jump too long");
+				}
+				code[jump[0] + 1] = (byte) (offset >>> 8);
+				code[jump[0] + 2] = (byte) offset;
+			}
+			if (code.length > 0xFFFF) {
+				throw new IllegalStateException("method too long");
+			}
+			out.writeShort(0x0001); // public
+			out.writeShort(name);
+			out.writeShort(type);
+			out.writeShort(1);
+			out.writeShort(codeName);
+			out.writeInt(12 + code.length + 8 * handlers.size());
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(code.length);
+			out.write(code);
+			out.writeShort(handlers.size());
+			for (final int[] handler : handlers) {
+				out.writeShort(handler[0]);
+				out.writeShort(handler[1]);
+				out.writeShort(handler[2]);
+				out.writeShort(handler[3]);
+			}
+			out.writeShort(0);
+		}
+	}
+
+	/**
+	 * Tabela de constantes do arquivo de classe.
+	 */
+	private static final class ConstantPool {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+		private int count = 1;
+
+		int utf8(final String value) throws IOException {
+			final Integer index = indexes.get("U" + value);
+			if (index != null) {
+				return index;
+			}
+			out.writeByte(1);
+			out.writeUTF(value);
+			return add("U" + value);
+		}
+
+		int integer(final int value) throws IOException {
+			final Integer index = indexes.get("I" + value);
+			if (index != null) {
+				return index;
+			}
+			out.writeByte(3);
+			out.writeInt(value);
+			return add("I" + value);
+		}
+
+		int type(final String name) throws IOException {
+			return reference(7, "C" + name, utf8(name), -1);
+		}
+
+		int field(final String owner, final String name, final String type) throws IOException {
+			return reference(9, "F" + owner + "." + name + type, type(owner), nameAndType(name, type));
+		}
+
+		int method(final String owner, final String name, final String type) throws IOException {
+			return reference(10, "M" + owner + "." + name + type, type(owner), nameAndType(name, type));
+		}
+
+		int interfaceMethod(final String owner, final String name, final String type) throws IOException {
+			return reference(11, "I" + owner + "." + name + type, type(owner), nameAndType(name, type));
+		}
+
+		private int nameAndType(final String name, final String type) throws IOException {
+			return reference(12, "N" + name + type, utf8(name), utf8(type));
+		}
+
+		private int reference(final int tag, final String key, final int first, final int second) throws IOException {
+			final Integer index = indexes.get(key);
+			if (index != null) {
+				return index;
+			}
+			out.writeByte(tag);
+			out.writeShort(first);
+			if (second >= 0) {
+				out.writeShort(second);
+			}
+			return add(key);
+		}
+
+		private int add(final String key) {
+			indexes.put(key, count);
+			return count++;
+		}
+
+		void write(final DataOutputStream target) throws IOException {
+			out.flush();
+			target.writeShort(count);
+			bytes.writeTo(target);
+		}
+	}
+
+	/**
+	 * Carrega cada classe gerada isoladamente, permitindo que ela seja descartada junto com a regra.
+	 */
+	private static final class Loader extends ClassLoader {
+
+		Loader() {
+			super(Generator.class.getClassLoader());
+		}
+
+		Class<?> define(final String name, final byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package br.com.staroski.rules;
+
+/**
+ * Regra interna que mede a avalia&ccedil;&atilde;o de outra regra e informa o resultado a um {@link RuleListener}, obtida atrav&eacute;s do
+ * m&eacute;todo {@link Rule#instrument(String, RuleListener)}.<BR>
+ * <BR>
+ * A regra instrumentada &eacute; uma c&oacute;pia da &aacute;rvore original onde cada n&oacute; &eacute; envolvido por esta regra, assim a regra
+ * original continua sendo avaliada sem nenhum custo adicional.
+ * 
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class InstrumentedRule<T> extends Rule<T> {
+
+	/**
+	 * Instrumenta a regra informada e todas as regras que a comp&otilde;em.
+	 * 
+	 * @param rule A regra.
+	 * @param name O nome da regra.
+	 * @param listener O {@link RuleListener} que receber&aacute; as medi&ccedil;&otilde;es.
+	 * @return A regra instrumentada.
+	 */
+	static <T> Rule<T> instrument(final Rule<T> rule, final String name, final RuleListener listener) {
+		final Rule<T> copy;
+		if (rule instanceof And || rule instanceof Or) {
+			final BinaryRule<T> binary = (BinaryRule<T>) rule;
+			final String label1 = label(binary.getFirstRule());
+			final String label2 = label(binary.getSecondRule());
+			final Rule<T> rule1 = instrument(binary.getFirstRule(), name + "/" + label1, listener);
+			// operandos com o mesmo nome são diferenciados pela posição
+			final Rule<T> rule2 = instrument(binary.getSecondRule(), name + "/" + (label1.equals(label2) ? label2 + "#2" : label2), listener);
+			copy = rule instanceof And ? new And<T>(rule1, rule2) : new Or<T>(rule1, rule2);
+		} else if (rule instanceof Not) {
+			final Rule<T> operand = ((Not<T>) rule).getRule();
+			copy = new Not<T>(instrument(operand, name + "/" + label(operand), listener));
+		} else if (rule instanceof ConcreteRule && ((ConcreteRule<T>) rule).getSpecification() instanceof SpecificationAdapter) {
+			final Specification<T> spec = ((SpecificationAdapter<T>) ((ConcreteRule<T>) rule).getSpecification()).getSpecification();
+			copy = new ConcreteRule<T>(new SilentSpecification<T>() {
+
+				@Override
+				public boolean verify(final T object, final Violations violations) {
+					try {
+						spec.verify(object);
+						return true;
+					} catch (UnattendedException e) {
+						listener.thrown(name, e);
+						e.report(violations);
+						return false;
+					}
+				}
+			});
+		} else {
+			copy = rule;
+		}
+		return new InstrumentedRule<T>(copy, name, listener);
+	}
+
+	/**
+	 * Obt&eacute;m o nome de uma regra dentro do caminho: o tipo da opera&ccedil;&atilde;o ou o nome da classe da especifica&ccedil;&atilde;o.
+	 */
+	static String label(final Rule<?> rule) {
+		if (rule instanceof And) {
+			return "AND";
+		}
+		if (rule instanceof Or) {
+			return "OR";
+		}
+		if (rule instanceof Not) {
+			return "NOT";
+		}
+		Object target = rule;
+		if (rule instanceof ConcreteRule) {
+			target = ((ConcreteRule<?>) rule).getSpecification();
+			if (target instanceof SpecificationAdapter) {
+				target = ((SpecificationAdapter<?>) target).getSpecification();
+			} else if (target instanceof PrimitiveSpecification) {
+				target = ((PrimitiveSpecification<?>) target).getSpecification();
+			}
+		}
+		final String name = target.getClass().getName();
+		// as classes de expressões lambda possuem um sufixo como "/0x0000000800c03000"
+		final int end = name.indexOf('/');
+		return name.substring(name.lastIndexOf('.') + 1, end < 0 ? name.length() : end);
+	}
+
+	private final Rule<T> rule;
+	private final String name;
+	private final RuleListener listener;
+
+	private InstrumentedRule(final Rule<T> rule, final String name, final RuleListener listener) {
+		this.rule = rule;
+		this.name = name;
+		this.listener = listener;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		final long start = System.nanoTime();
+		final boolean satisfied;
+		try {
+			satisfied = rule.test(object, details);
+		} catch (RuntimeException | Error e) {
+			listener.thrown(name, e);
+			throw e;
+		}
+		listener.evaluated(name, satisfied, System.nanoTime() - start);
+		return satisfied;
+	}
+}
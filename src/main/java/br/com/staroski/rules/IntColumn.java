@@ -0,0 +1,163 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Coluna de valores <code>int</code> a partir da qual s&atilde;o criadas as compara&ccedil;&otilde;es de uma {@link ColumnRule regra colunar}.<BR>
+ * <BR>
+ * As compara&ccedil;&otilde;es percorrem o vetor da coluna sem desvios condicionais, e as {@link IntSpecification especifica&ccedil;&otilde;es}
+ * informadas no m&eacute;todo {@link #matches(IntSpecification)} s&atilde;o verificadas linha a linha no modo {@link EvaluationMode#FAST}.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado que cont&eacute;m a coluna.
+ */
+public final class IntColumn<T> {
+
+	/**
+	 * Compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; no intervalo fechado <code>[min, max]</code>.
+	 */
+	private final class Range extends ColumnRule<T> {
+
+		private final int min;
+		private final int max;
+
+		Range(final int min, final int max) {
+			super(0);
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+			final int[] values = values(columns, size);
+			final long lower = min;
+			final long span = (long) max - min;
+			for (int word = 0, row = from; row < to; word++) {
+				final int end = Math.min(to, row + 64);
+				long bits = 0;
+				for (int bit = 0; row < end; row++, bit++) {
+					// o bit de sinal indica se o valor está abaixo do mínimo ou acima do máximo
+					final long offset = values[row] - lower;
+					bits |= ((offset | (span - offset)) >>> 63 ^ 1L) << bit;
+				}
+				mask[word] = bits;
+			}
+		}
+	}
+
+	/**
+	 * Cria uma coluna a partir da fun&ccedil;&atilde;o que obt&eacute;m o seu vetor.
+	 *
+	 * @param <T> Tipo de dado que cont&eacute;m a coluna.
+	 * @param column A fun&ccedil;&atilde;o que obt&eacute;m o vetor da coluna, onde cada posi&ccedil;&atilde;o corresponde a uma linha.
+	 * @return A coluna.
+	 */
+	public static <T> IntColumn<T> of(final Function<? super T, int[]> column) {
+		return new IntColumn<T>(column);
+	}
+
+	private final Function<? super T, int[]> column;
+
+	private IntColumn(final Function<? super T, int[]> column) {
+		this.column = Objects.requireNonNull(column, "column");
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior ou igual ao informado.
+	 *
+	 * @param min O menor valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atLeast(final int min) {
+		return new Range(min, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor ou igual ao informado.
+	 *
+	 * @param max O maior valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atMost(final int max) {
+		return new Range(Integer.MIN_VALUE, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito, se for menor que <code>min</code> nenhuma linha atende &agrave; compara&ccedil;&atilde;o.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> between(final int min, final int max) {
+		return new Range(min, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; igual ao informado.
+	 *
+	 * @param value O valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> equalTo(final int value) {
+		return new Range(value, value);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> greaterThan(final int value) {
+		return value == Integer.MAX_VALUE ? new Range(1, 0) : new Range(value + 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> lessThan(final int value) {
+		return value == Integer.MIN_VALUE ? new Range(1, 0) : new Range(Integer.MIN_VALUE, value - 1);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor atende &agrave; {@link IntSpecification especifica&ccedil;&atilde;o}
+	 * informada.
+	 *
+	 * @param spec A especifica&ccedil;&atilde;o, verificada no modo {@link EvaluationMode#FAST}.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> matches(final IntSpecification spec) {
+		Objects.requireNonNull(spec, "spec");
+		return new ColumnRule<T>(0) {
+
+			@Override
+			void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+				final int[] values = values(columns, size);
+				for (int word = 0, row = from; row < to; word++) {
+					final int end = Math.min(to, row + 64);
+					long bits = 0;
+					for (int bit = 0; row < end; row++, bit++) {
+						if (spec.verify(values[row], Details.IGNORED)) {
+							bits |= 1L << bit;
+						}
+					}
+					mask[word] = bits;
+				}
+			}
+		};
+	}
+
+	private int[] values(final T columns, final int size) {
+		final int[] values = Objects.requireNonNull(column.apply(columns), "column");
+		ColumnRule.check(values.length, size);
+		return values;
+	}
+}
@@ -0,0 +1,165 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Coluna de valores <code>long</code> a partir da qual s&atilde;o criadas as compara&ccedil;&otilde;es de uma {@link ColumnRule regra colunar}.<BR>
+ * <BR>
+ * As compara&ccedil;&otilde;es percorrem o vetor da coluna sem desvios condicionais, e as {@link LongSpecification especifica&ccedil;&otilde;es}
+ * informadas no m&eacute;todo {@link #matches(LongSpecification)} s&atilde;o verificadas linha a linha no modo {@link EvaluationMode#FAST}.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado que cont&eacute;m a coluna.
+ */
+public final class LongColumn<T> {
+
+	/**
+	 * Compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; no intervalo fechado <code>[min, max]</code>.
+	 */
+	private final class Range extends ColumnRule<T> {
+
+		private final long min;
+		private final long max;
+
+		Range(final long min, final long max) {
+			super(0);
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+			final long[] values = values(columns, size);
+			if (min > max) {
+				Arrays.fill(mask, 0, ColumnRule.words(from, to), 0L);
+				return;
+			}
+			// compara sem sinal a distância até o mínimo, assim uma única comparação verifica os dois limites
+			final long limit = max - min + Long.MIN_VALUE;
+			for (int word = 0, row = from; row < to; word++) {
+				final int end = Math.min(to, row + 64);
+				long bits = 0;
+				for (int bit = 0; row < end; row++, bit++) {
+					bits |= (values[row] - min + Long.MIN_VALUE <= limit ? 1L : 0L) << bit;
+				}
+				mask[word] = bits;
+			}
+		}
+	}
+
+	/**
+	 * Cria uma coluna a partir da fun&ccedil;&atilde;o que obt&eacute;m o seu vetor.
+	 *
+	 * @param <T> Tipo de dado que cont&eacute;m a coluna.
+	 * @param column A fun&ccedil;&atilde;o que obt&eacute;m o vetor da coluna, onde cada posi&ccedil;&atilde;o corresponde a uma linha.
+	 * @return A coluna.
+	 */
+	public static <T> LongColumn<T> of(final Function<? super T, long[]> column) {
+		return new LongColumn<T>(column);
+	}
+
+	private final Function<? super T, long[]> column;
+
+	private LongColumn(final Function<? super T, long[]> column) {
+		this.column = Objects.requireNonNull(column, "column");
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior ou igual ao informado.
+	 *
+	 * @param min O menor valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atLeast(final long min) {
+		return new Range(min, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor ou igual ao informado.
+	 *
+	 * @param max O maior valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> atMost(final long max) {
+		return new Range(Long.MIN_VALUE, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito, se for menor que <code>min</code> nenhuma linha atende &agrave; compara&ccedil;&atilde;o.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> between(final long min, final long max) {
+		return new Range(min, max);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; igual ao informado.
+	 *
+	 * @param value O valor aceito.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> equalTo(final long value) {
+		return new Range(value, value);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; maior que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> greaterThan(final long value) {
+		return value == Long.MAX_VALUE ? new Range(1, 0) : new Range(value + 1, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor &eacute; menor que o informado.
+	 *
+	 * @param value O valor a ser superado.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> lessThan(final long value) {
+		return value == Long.MIN_VALUE ? new Range(1, 0) : new Range(Long.MIN_VALUE, value - 1);
+	}
+
+	/**
+	 * Cria uma compara&ccedil;&atilde;o que atende &agrave;s linhas cujo valor atende &agrave; {@link LongSpecification especifica&ccedil;&atilde;o}
+	 * informada.
+	 *
+	 * @param spec A especifica&ccedil;&atilde;o, verificada no modo {@link EvaluationMode#FAST}.
+	 * @return A {@link ColumnRule regra} da compara&ccedil;&atilde;o.
+	 */
+	public ColumnRule<T> matches(final LongSpecification spec) {
+		Objects.requireNonNull(spec, "spec");
+		return new ColumnRule<T>(0) {
+
+			@Override
+			void evaluate(final T columns, final int size, final int from, final int to, final long[] mask, final long[][] scratch) {
+				final long[] values = values(columns, size);
+				for (int word = 0, row = from; row < to; word++) {
+					final int end = Math.min(to, row + 64);
+					long bits = 0;
+					for (int bit = 0; row < end; row++, bit++) {
+						if (spec.verify(values[row], Details.IGNORED)) {
+							bits |= 1L << bit;
+						}
+					}
+					mask[word] = bits;
+				}
+			}
+		};
+	}
+
+	private long[] values(final T columns, final int size) {
+		final long[] values = Objects.requireNonNull(column.apply(columns), "column");
+		ColumnRule.check(values.length, size);
+		return values;
+	}
+}
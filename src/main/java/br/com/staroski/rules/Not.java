@@ -7,7 +7,7 @@ package br.com.staroski.rules;
  */
 final class Not<T> extends Rule<T> {
 
-	private Rule<T> rule;
+	private final Rule<T> rule;
 
 	/**
 	 * Cria uma nova regra.
@@ -33,4 +33,12 @@ final class Not<T> extends Rule<T> {
 		}
 		return unsatisfied;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		return !testOperand(rule, object, details);
+	}
 }
\ No newline at end of file
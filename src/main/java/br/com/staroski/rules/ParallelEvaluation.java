@@ -0,0 +1,90 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Tarefa que avalia uma lista de objetos dividindo-a em blocos avaliados em paralelo por um {@link ForkJoinPool}.<BR>
+ * <BR>
+ * Cada bloco acumula seus pr&oacute;prios resultados e utiliza os detalhes reaproveit&aacute;veis da thread que o avalia, os resultados s&atilde;o
+ * reunidos na ordem dos objetos somente no final. Os blocos t&ecirc;m tamanho m&uacute;ltiplo de 64, assim os mapas de bits s&atilde;o reunidos
+ * copiando palavras inteiras.
+ * 
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class ParallelEvaluation<T> extends RecursiveTask<BatchEvaluation> {
+
+	private static final long serialVersionUID = 1;
+
+	/**
+	 * Tamanho m&iacute;nimo de um bloco, abaixo dele o custo de dividir a lista supera o ganho.
+	 */
+	static final int MIN_CHUNK = 1024;
+
+	/**
+	 * Quantidade de blocos por thread do {@link ForkJoinPool}, permitindo que as threads mais r&aacute;pidas roubem blocos das mais lentas.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * Avalia um bloco de objetos.
+	 */
+	private static final class Chunk<T> extends RecursiveTask<BatchEvaluation.Builder> {
+
+		private static final long serialVersionUID = 1;
+
+		private final Rule<T> rule;
+		private final List<? extends T> objects;
+		private final EvaluationMode mode;
+
+		Chunk(final Rule<T> rule, final List<? extends T> objects, final EvaluationMode mode) {
+			this.rule = rule;
+			this.objects = objects;
+			this.mode = mode;
+		}
+
+		@Override
+		protected BatchEvaluation.Builder compute() {
+			final BatchEvaluation.Builder builder = new BatchEvaluation.Builder();
+			rule.evaluateAll(objects, mode, builder);
+			return builder;
+		}
+	}
+
+	private final Rule<T> rule;
+	private final List<? extends T> objects;
+	private final EvaluationMode mode;
+	private final int chunkSize;
+
+	/**
+	 * Cria uma nova tarefa.
+	 * 
+	 * @param rule A regra.
+	 * @param objects Os objetos a serem verificados.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @param parallelism A quantidade de threads que avaliar&atilde;o os objetos.
+	 */
+	ParallelEvaluation(final Rule<T> rule, final List<? extends T> objects, final EvaluationMode mode, final int parallelism) {
+		this.rule = rule;
+		// os blocos são sublistas, então o acesso por posição precisa ser barato
+		this.objects = objects instanceof RandomAccess ? objects : new ArrayList<T>(objects);
+		this.mode = mode;
+		final int size = objects.size() / (Math.max(1, parallelism) * CHUNKS_PER_THREAD);
+		this.chunkSize = Math.max(MIN_CHUNK, (size + 63) & ~63);
+	}
+
+	@Override
+	protected BatchEvaluation compute() {
+		final int size = objects.size();
+		final List<Chunk<T>> chunks = new ArrayList<Chunk<T>>();
+		for (int from = 0; from < size; from += chunkSize) {
+			chunks.add(new Chunk<T>(rule, objects.subList(from, Math.min(size, from + chunkSize)), mode));
+		}
+		invokeAll(chunks);
+		final BatchEvaluation.Builder builder = new BatchEvaluation.Builder();
+		for (final Chunk<T> chunk : chunks) {
+			builder.addAll(chunk.join());
+		}
+		return builder.build();
+	}
+}
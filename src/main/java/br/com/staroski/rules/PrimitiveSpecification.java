@@ -0,0 +1,137 @@
+package br.com.staroski.rules;
+
+import java.util.function.*;
+
+/**
+ * Adapta uma {@link IntSpecification}, {@link LongSpecification} ou {@link DoubleSpecification} para o contrato da {@link SilentSpecification
+ * especifica&ccedil;&atilde;o silenciosa}, extraindo o valor primitivo do objeto verificado sem convert&ecirc;-lo para um objeto.<BR>
+ * Dois adaptadores s&atilde;o iguais se a fun&ccedil;&atilde;o e a especifica&ccedil;&atilde;o forem iguais, assim um {@link RuleGroup} verifica uma
+ * &uacute;nica vez o mesmo valor.
+ *
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+ */
+abstract class PrimitiveSpecification<T> implements SilentSpecification<T> {
+
+	/**
+	 * Adaptador de uma {@link IntSpecification}.
+	 */
+	static final class OfInt<T> extends PrimitiveSpecification<T> {
+
+		private final ToIntFunction<? super T> field;
+		private final IntSpecification spec;
+
+		OfInt(final ToIntFunction<? super T> field, final IntSpecification spec) {
+			super(field, spec);
+			this.field = field;
+			this.spec = spec;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean verify(final T object, final Violations violations) {
+			return spec.verify(field.applyAsInt(object), violations);
+		}
+	}
+
+	/**
+	 * Adaptador de uma {@link LongSpecification}.
+	 */
+	static final class OfLong<T> extends PrimitiveSpecification<T> {
+
+		private final ToLongFunction<? super T> field;
+		private final LongSpecification spec;
+
+		OfLong(final ToLongFunction<? super T> field, final LongSpecification spec) {
+			super(field, spec);
+			this.field = field;
+			this.spec = spec;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean verify(final T object, final Violations violations) {
+			return spec.verify(field.applyAsLong(object), violations);
+		}
+	}
+
+	/**
+	 * Adaptador de uma {@link DoubleSpecification}.
+	 */
+	static final class OfDouble<T> extends PrimitiveSpecification<T> {
+
+		private final ToDoubleFunction<? super T> field;
+		private final DoubleSpecification spec;
+
+		OfDouble(final ToDoubleFunction<? super T> field, final DoubleSpecification spec) {
+			super(field, spec);
+			this.field = field;
+			this.spec = spec;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean verify(final T object, final Violations violations) {
+			return spec.verify(field.applyAsDouble(object), violations);
+		}
+	}
+
+	private final Object field;
+	private final Object spec;
+
+	private PrimitiveSpecification(final Object field, final Object spec) {
+		if (field == null) {
+			throw new NullPointerException("field");
+		}
+		if (spec == null) {
+			throw new NullPointerException("spec");
+		}
+		this.field = field;
+		this.spec = spec;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj != null && obj.getClass() == getClass()) {
+			final PrimitiveSpecification<?> other = (PrimitiveSpecification<?>) obj;
+			return field.equals(other.field) && spec.equals(other.spec);
+		}
+		return false;
+	}
+
+	/**
+	 * Obt&eacute;m a especifica&ccedil;&atilde;o adaptada.
+	 *
+	 * @return A {@link IntSpecification}, {@link LongSpecification} ou {@link DoubleSpecification} adaptada.
+	 */
+	final Object getSpecification() {
+		return spec;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int hashCode() {
+		return 31 * field.hashCode() + spec.hashCode();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		return spec.toString();
+	}
+}
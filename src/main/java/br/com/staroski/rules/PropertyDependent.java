@@ -0,0 +1,23 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Interface que pode ser implementada por uma {@link Specification especifica&ccedil;&atilde;o}, ou {@link SilentSpecification especifica&ccedil;&atilde;o
+ * silenciosa}, para declarar quais propriedades do objeto ela l&ecirc;.<BR>
+ * <BR>
+ * Um {@link RuleMatch} s&oacute; verifica novamente as especifica&ccedil;&otilde;es que leem as propriedades alteradas, as especifica&ccedil;&otilde;es
+ * que n&atilde;o implementam esta interface s&atilde;o verificadas a cada altera&ccedil;&atilde;o.
+ *
+ * @author Ricardo Artur Staroski
+ * @see RuleNetwork
+ */
+public interface PropertyDependent {
+
+	/**
+	 * Obt&eacute;m os nomes das propriedades lidas pela especifica&ccedil;&atilde;o.
+	 * 
+	 * @return Os nomes das propriedades, por exemplo <code>"idade"</code>.
+	 */
+	public Collection<String> getProperties();
+}
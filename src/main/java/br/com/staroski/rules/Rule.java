@@ -1,6 +1,9 @@
 package br.com.staroski.rules;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 /**
  * Esta classe &eacute; repons&aacute;vel por criar {@link Rule regras} reaproveit&aacute;veis a partir de simples {@link Specification
@@ -16,6 +19,10 @@ import java.util.*;
  * Outra caracter&iacute;stica interessante desta classe &eacute; o m&eacute;todo {@link #getDetails()} que obt&eacute;m detalhes do motivo de um objeto
  * atender, ou n&atilde;o, dependendo da situa&ccedil;&atilde;o, a {@link Specification especifica&ccedil;&atilde;o} da regra.<BR>
  * <BR>
+ * Para validar objetos a partir de v&aacute;rias threads, utilize o m&eacute;todo {@link #evaluate(Object)}, ele n&atilde;o armazena nada na regra e
+ * devolve uma {@link Evaluation avalia&ccedil;&atilde;o} imut&aacute;vel com o resultado e os detalhes, assim uma mesma regra pode ser compartilhada
+ * sem sincroniza&ccedil;&atilde;o.<BR>
+ * <BR>
  * <B><I>Veja o exemplo para entender como utiliza-la:</I></B><BR>
  * <BR>
  * <BR>
@@ -171,15 +178,103 @@ public abstract class Rule<T> {
 	}
 
 	/**
-	 * Detalhes do motivo de um objeto nao atender a esta regra.
+	 * Obt&eacute;m uma regra a partir de uma {@link SilentSpecification especifica&ccedil;&atilde;o silenciosa}, que informa os motivos de um objeto
+	 * n&atilde;o atend&ecirc;-la sem lan&ccedil;ar exce&ccedil;&otilde;es.
+	 * 
+	 * @param <T>
+	 *            Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param spec
+	 *            A {@link SilentSpecification} da qual ser&aacute; criada uma {@link Rule}.
+	 * @return A {@link Rule} que encapsula a {@link SilentSpecification} informada.
 	 */
-	private Details<String> details;
+	public static final <T> Rule<T> create(final SilentSpecification<T> spec) {
+		return new ConcreteRule<T>(spec);
+	}
+
+	/**
+	 * Obt&eacute;m uma regra que verifica, atrav&eacute;s de uma {@link DoubleSpecification}, o valor <code>double</code> extra&iacute;do de cada objeto pela
+	 * fun&ccedil;&atilde;o informada, sem convert&ecirc;-lo para {@link Double}.
+	 * 
+	 * @param <T>
+	 *            Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link DoubleSpecification} que verifica o valor.
+	 * @return A {@link Rule} que encapsula a {@link DoubleSpecification} informada.
+	 */
+	public static final <T> Rule<T> createDouble(final ToDoubleFunction<? super T> field, final DoubleSpecification spec) {
+		return new ConcreteRule<T>(new PrimitiveSpecification.OfDouble<T>(field, spec));
+	}
+
+	/**
+	 * Obt&eacute;m uma regra que verifica, atrav&eacute;s de uma {@link IntSpecification}, o valor <code>int</code> extra&iacute;do de cada objeto pela
+	 * fun&ccedil;&atilde;o informada, sem convert&ecirc;-lo para {@link Integer}.
+	 * 
+	 * @param <T>
+	 *            Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link IntSpecification} que verifica o valor.
+	 * @return A {@link Rule} que encapsula a {@link IntSpecification} informada.
+	 */
+	public static final <T> Rule<T> createInt(final ToIntFunction<? super T> field, final IntSpecification spec) {
+		return new ConcreteRule<T>(new PrimitiveSpecification.OfInt<T>(field, spec));
+	}
+
+	/**
+	 * Obt&eacute;m uma regra que verifica, atrav&eacute;s de uma {@link LongSpecification}, o valor <code>long</code> extra&iacute;do de cada objeto pela
+	 * fun&ccedil;&atilde;o informada, sem convert&ecirc;-lo para {@link Long}.
+	 * 
+	 * @param <T>
+	 *            Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link LongSpecification} que verifica o valor.
+	 * @return A {@link Rule} que encapsula a {@link LongSpecification} informada.
+	 */
+	public static final <T> Rule<T> createLong(final ToLongFunction<? super T> field, final LongSpecification spec) {
+		return new ConcreteRule<T>(new PrimitiveSpecification.OfLong<T>(field, spec));
+	}
+
+	/**
+	 * Verifica se o objeto informado atende a uma regra que comp&otilde;e outra, mantendo nos detalhes somente o que foi gerado pela regra se o
+	 * objeto n&atilde;o a atender, assim como as regras compostas fazem no m&eacute;todo {@link #isSatisfiedBy(Object)}.
+	 * 
+	 * @param rule
+	 *            A regra a ser verificada.
+	 * @param object
+	 *            O objeto a ser verificado.
+	 * @param details
+	 *            Os detalhes da avalia&ccedil;&atilde;o em andamento ou <code>null</code> no modo {@link EvaluationMode#FAST}.
+	 * @return <code>true</code> se o objeto atender a regra e <code>false</code> caso contr&aacute;rio.
+	 */
+	static <T> boolean testOperand(final Rule<T> rule, final T object, final Details details) {
+		if (details == null) {
+			return rule.test(object, null);
+		}
+		final int size = details.mark();
+		final boolean satisfied = rule.test(object, details);
+		if (satisfied) {
+			// os detalhes de quem foi atendido não sobem para a regra composta
+			details.truncate(size);
+		}
+		return satisfied;
+	}
+
+	/**
+	 * Detalhes do motivo de um objeto nao atender a esta regra, criados somente quando o m&eacute;todo {@link #isSatisfiedBy(Object)} &eacute;
+	 * utilizado, assim as regras avaliadas atrav&eacute;s do m&eacute;todo {@link #evaluate(Object)} n&atilde;o ocupam mem&oacute;ria com eles.
+	 */
+	private Details details;
 
 	/**
 	 * Construtor protegido.
 	 */
 	protected Rule() {
-		details = new Details<String>();
+		// os detalhes são criados sob demanda
 	}
 
 	/**
@@ -220,18 +315,362 @@ public abstract class Rule<T> {
 		return and(create(spec));
 	}
 
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>E</B> a {@link SilentSpecification
+	 * especifica&ccedil;&atilde;o silenciosa} informada tamb&eacute;m atenderem ao mesmo objeto.
+	 * 
+	 * @param spec
+	 *            A {@link SilentSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>and(create(spec))</code>.
+	 */
+	public final Rule<T> and(final SilentSpecification<T> spec) {
+		return and(create(spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>E</B> a {@link DoubleSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>double</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link DoubleSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>and(createDouble(field, spec))</code>.
+	 */
+	public final Rule<T> andDouble(final ToDoubleFunction<? super T> field, final DoubleSpecification spec) {
+		return and(createDouble(field, spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>E</B> a {@link IntSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>int</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link IntSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>and(createInt(field, spec))</code>.
+	 */
+	public final Rule<T> andInt(final ToIntFunction<? super T> field, final IntSpecification spec) {
+		return and(createInt(field, spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>E</B> a {@link LongSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>long</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link LongSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>and(createLong(field, spec))</code>.
+	 */
+	public final Rule<T> andLong(final ToLongFunction<? super T> field, final LongSpecification spec) {
+		return and(createLong(field, spec));
+	}
+
+	/**
+	 * Compila esta regra para o modo {@link EvaluationMode#DIAGNOSTIC}.
+	 * 
+	 * @return A regra compilada.
+	 * @see #compile(EvaluationMode)
+	 */
+	public final Rule<T> compile() {
+		return compile(EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Compila esta regra, obtendo uma regra equivalente que &eacute; avaliada sem percorrer a &aacute;rvore de regras.<BR>
+	 * <BR>
+	 * As cadeias de opera&ccedil;&otilde;es <I>AND</I> e <I>OR</I>, como <code>a.and(b).and(c)</code>, s&atilde;o achatadas, as opera&ccedil;&otilde;es
+	 * <I>NOT</I> s&atilde;o empurradas at&eacute; as especifica&ccedil;&otilde;es e a express&atilde;o resultante &eacute; armazenada em vetores, assim a
+	 * avalia&ccedil;&atilde;o de um objeto que atende &agrave; regra n&atilde;o aloca mem&oacute;ria.<BR>
+	 * <BR>
+	 * Se o {@link EvaluationMode modo} for {@link EvaluationMode#FAST}, a regra compilada sempre &eacute; avaliada nesse modo e nunca gera detalhes, caso
+	 * contr&aacute;rio o modo pode ser escolhido a cada chamada do m&eacute;todo {@link #evaluate(Object, EvaluationMode)}.<BR>
+	 * <BR>
+	 * <B>Observa&ccedil;&atilde;o:</B> A regra compilada n&atilde;o reflete os detalhes armazenados pelo m&eacute;todo {@link #isSatisfiedBy(Object)}
+	 * nas regras que a comp&otilde;em.
+	 * 
+	 * @param mode
+	 *            O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o da regra compilada.
+	 * @return A regra compilada.
+	 */
+	public final Rule<T> compile(final EvaluationMode mode) {
+		return CompiledRule.compile(this, mode, false);
+	}
+
+	/**
+	 * Obt&eacute;m uma regra equivalente a esta que verifica ao mesmo tempo os operandos caros das opera&ccedil;&otilde;es <I>AND</I> e <I>OR</I>, atrav&eacute;s
+	 * de threads virtuais quando o Java as suporta ou de um conjunto limitado de threads caso contr&aacute;rio.<BR>
+	 * <BR>
+	 * Somente os operandos cujas {@link Specification especifica&ccedil;&otilde;es} levam, em m&eacute;dia, pelo menos 100 microssegundos s&atilde;o
+	 * verificados fora da thread da avalia&ccedil;&atilde;o.
+	 *
+	 * @return A regra concorrente.
+	 * @see #concurrent(Executor, long, TimeUnit)
+	 */
+	public final Rule<T> concurrent() {
+		return new ConcurrentRule<T>(this instanceof ConcurrentRule ? ((ConcurrentRule<T>) this).getSource() : this, null,
+				ConcurrentRule.DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Obt&eacute;m uma regra equivalente a esta que verifica ao mesmo tempo os operandos caros das opera&ccedil;&otilde;es <I>AND</I> e <I>OR</I>.<BR>
+	 * <BR>
+	 * O custo de cada {@link Specification especifica&ccedil;&atilde;o} &eacute; medido durante as avalia&ccedil;&otilde;es, e o primeiro operando de uma
+	 * opera&ccedil;&atilde;o &eacute; enviado ao {@link Executor} somente quando o custo m&eacute;dio de cada um dos dois operandos atinge o limite
+	 * informado, os operandos baratos s&atilde;o verificados na thread da avalia&ccedil;&atilde;o.<BR>
+	 * As {@link Evaluation avalia&ccedil;&otilde;es} obtidas s&atilde;o as mesmas da avalia&ccedil;&atilde;o sequencial, inclusive a ordem dos detalhes.<BR>
+	 * <BR>
+	 * <B>Observa&ccedil;&atilde;o:</B> As {@link Specification especifica&ccedil;&otilde;es} podem ser verificadas ao mesmo tempo, por isso devem poder
+	 * ser utilizadas por v&aacute;rias threads e n&atilde;o devem depender umas das outras.
+	 *
+	 * @param executor
+	 *            O {@link Executor} onde os operandos s&atilde;o verificados.
+	 * @param threshold
+	 *            O custo m&iacute;nimo dos operandos verificados ao mesmo tempo.
+	 * @param unit
+	 *            A unidade do custo m&iacute;nimo.
+	 * @return A regra concorrente.
+	 */
+	public final Rule<T> concurrent(final Executor executor, final long threshold, final TimeUnit unit) {
+		if (executor == null) {
+			throw new NullPointerException("executor");
+		}
+		return new ConcurrentRule<T>(this instanceof ConcurrentRule ? ((ConcurrentRule<T>) this).getSource() : this, executor, unit.toNanos(threshold));
+	}
+
+	/**
+	 * Obt&eacute;m uma regra equivalente a esta que, no modo {@link EvaluationMode#FAST}, &eacute; avaliada atrav&eacute;s de um diagrama de
+	 * decis&atilde;o bin&aacute;ria ordenado e reduzido.<BR>
+	 * <BR>
+	 * Cada {@link Specification especifica&ccedil;&atilde;o} distinta &eacute; verificada no m&aacute;ximo uma vez por objeto, mesmo que apare&ccedil;a
+	 * v&aacute;rias vezes na express&atilde;o, e somente quando ainda pode mudar o resultado. As express&otilde;es cujo diagrama fica grande demais
+	 * s&atilde;o avaliadas como no m&eacute;todo {@link #simplify()}.<BR>
+	 * No modo {@link EvaluationMode#DIAGNOSTIC} esta regra &eacute; avaliada, assim os detalhes n&atilde;o mudam.<BR>
+	 * <BR>
+	 * <B>Observa&ccedil;&atilde;o:</B> As {@link Specification especifica&ccedil;&otilde;es} podem ser verificadas em qualquer ordem, ou n&atilde;o
+	 * ser verificadas, por isso n&atilde;o devem depender umas das outras.
+	 *
+	 * @return A regra avaliada pelo diagrama de decis&atilde;o.
+	 */
+	public final Rule<T> decisionDiagram() {
+		if (this instanceof DecisionDiagram) {
+			return this;
+		}
+		return new DecisionDiagram<T>(this);
+	}
+
+	/**
+	 * Avalia o objeto informado sem armazenar nenhum estado nesta regra, podendo ser invocado concorrentemente por v&aacute;rias threads.<BR>
+	 * <BR>
+	 * Os detalhes devolvidos s&atilde;o os mesmos que seriam obtidos pelo m&eacute;todo {@link #getDetails()} ap&oacute;s uma &uacute;nica chamada do
+	 * m&eacute;todo {@link #isSatisfiedBy(Object)} nesta regra.
+	 * 
+	 * @param object
+	 *            O objeto a ser verificado.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} imut&aacute;vel do objeto.
+	 */
+	public final Evaluation evaluate(final T object) {
+		return evaluate(object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado no {@link EvaluationMode modo} desejado, sem armazenar nenhum estado nesta regra.<BR>
+	 * <BR>
+	 * No modo {@link EvaluationMode#FAST} as regras que n&atilde;o podem alterar o resultado n&atilde;o s&atilde;o verificadas e a {@link Evaluation
+	 * avalia&ccedil;&atilde;o} devolvida n&atilde;o possui detalhes.
+	 * 
+	 * @param object
+	 *            O objeto a ser verificado.
+	 * @param mode
+	 *            O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} imut&aacute;vel do objeto.
+	 */
+	public final Evaluation evaluate(final T object, final EvaluationMode mode) {
+		if (mode == EvaluationMode.FAST) {
+			return test(object, null) ? Evaluation.SATISFIED : Evaluation.UNSATISFIED;
+		}
+		final Details details = Details.acquire();
+		try {
+			final boolean satisfied = test(object, details);
+			return Evaluation.of(satisfied, details);
+		} finally {
+			details.release();
+		}
+	}
+
+	/**
+	 * Avalia todos os objetos informados no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 * 
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @return A {@link BatchEvaluation avalia&ccedil;&atilde;o} dos objetos, na ordem em que foram informados.
+	 * @see #evaluateAll(Iterable, EvaluationMode)
+	 */
+	public final BatchEvaluation evaluateAll(final Iterable<? extends T> objects) {
+		return evaluateAll(objects, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia todos os objetos informados no {@link EvaluationMode modo} desejado, sem armazenar nenhum estado nesta regra.<BR>
+	 * <BR>
+	 * O resultado de cada objeto ocupa um bit e somente os objetos que n&atilde;o atendem &agrave; regra possuem detalhes, que s&atilde;o coletados
+	 * sempre na mesma lista durante a avalia&ccedil;&atilde;o, assim os objetos que atendem &agrave; regra n&atilde;o alocam mem&oacute;ria.
+	 * 
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @param mode
+	 *            O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return A {@link BatchEvaluation avalia&ccedil;&atilde;o} dos objetos, na ordem em que foram informados.
+	 */
+	public final BatchEvaluation evaluateAll(final Iterable<? extends T> objects, final EvaluationMode mode) {
+		final BatchEvaluation.Builder builder = new BatchEvaluation.Builder();
+		evaluateAll(objects, mode, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Avalia em paralelo todos os objetos informados no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 * 
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @param pool
+	 *            O {@link ForkJoinPool} que avaliar&aacute; os objetos.
+	 * @return A {@link BatchEvaluation avalia&ccedil;&atilde;o} dos objetos, na ordem em que foram informados.
+	 * @see #evaluateAll(List, EvaluationMode, ForkJoinPool)
+	 */
+	public final BatchEvaluation evaluateAll(final List<? extends T> objects, final ForkJoinPool pool) {
+		return evaluateAll(objects, EvaluationMode.DIAGNOSTIC, pool);
+	}
+
+	/**
+	 * Avalia em paralelo todos os objetos informados no {@link EvaluationMode modo} desejado.<BR>
+	 * <BR>
+	 * A lista &eacute; dividida em blocos avaliados pelas threads do {@link ForkJoinPool} informado, cada bloco acumula seus pr&oacute;prios resultados
+	 * e o resultado final &eacute; o mesmo do m&eacute;todo {@link #evaluateAll(Iterable, EvaluationMode)}. Para avaliar um vetor, utilize
+	 * {@link Arrays#asList(Object...)}.
+	 * 
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @param mode
+	 *            O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @param pool
+	 *            O {@link ForkJoinPool} que avaliar&aacute; os objetos, por exemplo {@link ForkJoinPool#commonPool()}.
+	 * @return A {@link BatchEvaluation avalia&ccedil;&atilde;o} dos objetos, na ordem em que foram informados.
+	 */
+	public final BatchEvaluation evaluateAll(final List<? extends T> objects, final EvaluationMode mode, final ForkJoinPool pool) {
+		if (objects.size() <= ParallelEvaluation.MIN_CHUNK) {
+			return evaluateAll(objects, mode);
+		}
+		return pool.invoke(new ParallelEvaluation<T>(this, objects, mode, pool.getParallelism()));
+	}
+
+	/**
+	 * Avalia todos os objetos informados, acumulando os resultados no {@link BatchEvaluation.Builder construtor} informado.
+	 */
+	final void evaluateAll(final Iterable<? extends T> objects, final EvaluationMode mode, final BatchEvaluation.Builder builder) {
+		final Details details = mode == EvaluationMode.FAST ? null : Details.acquire();
+		try {
+			for (final T object : objects) {
+				builder.add(test(object, details), details == null ? Collections.<String> emptyList() : details);
+				if (details != null) {
+					details.clear();
+				}
+			}
+		} finally {
+			if (details != null) {
+				details.release();
+			}
+		}
+	}
+
+	/**
+	 * Obt&eacute;m os objetos que atendem a esta regra, avaliados no modo {@link EvaluationMode#FAST} &agrave; medida que s&atilde;o consumidos.
+	 * 
+	 * @param <S>
+	 *            Tipo de dado dos objetos.
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @return Os objetos que atendem a esta regra.
+	 */
+	public final <S extends T> Stream<S> filter(final Stream<S> objects) {
+		return objects.filter(object -> test(object, null));
+	}
+
+	/**
+	 * Compila esta regra para o modo {@link EvaluationMode#DIAGNOSTIC} gerando uma classe para o modo {@link EvaluationMode#FAST}.
+	 * 
+	 * @return A regra compilada.
+	 * @see #generate(EvaluationMode)
+	 */
+	public final Rule<T> generate() {
+		return generate(EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Compila esta regra assim como o m&eacute;todo {@link #compile(EvaluationMode)} e gera em tempo de execu&ccedil;&atilde;o uma classe que avalia a
+	 * express&atilde;o inteira no modo {@link EvaluationMode#FAST}, chamando diretamente cada {@link Specification especifica&ccedil;&atilde;o}.<BR>
+	 * <BR>
+	 * Indicado para regras avaliadas com muita frequ&ecirc;ncia, pois cada especifica&ccedil;&atilde;o passa a ter seu pr&oacute;prio ponto de chamada e
+	 * pode ser otimizada pela JIT. Caso a classe n&atilde;o possa ser gerada, a regra compilada &eacute; avaliada normalmente e o resultado &eacute; o
+	 * mesmo.
+	 * 
+	 * @param mode
+	 *            O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o da regra compilada.
+	 * @return A regra compilada.
+	 */
+	public final Rule<T> generate(final EvaluationMode mode) {
+		return CompiledRule.compile(this, mode, true);
+	}
+
 	/**
 	 * Obt&eacute;m os detalhes caso um objeto n&atilde;o atenda &agrave; esta regra.<BR>
 	 * <BR>
 	 * <B>Observa&ccedil;&atilde;o:</B> Os detalhes s&atilde;o obtidos durante a execu&ccedil;&atilde;o do m&eacute;todo {@link #isSatisfiedBy(Object)}, invocar este
-	 * m&eacute;todo sem ter invocado o {@link #isSatisfiedBy(Object)} antes, retornar&aacute; uma lista vazia.
+	 * m&eacute;todo sem ter invocado o {@link #isSatisfiedBy(Object)} antes, retornar&aacute; uma lista vazia.<BR>
+	 * A lista retornada acompanha os detalhes desta regra, inclusive os obtidos por avalia&ccedil;&otilde;es posteriores.
 	 * 
 	 * @return Uma cole&ccedil;&atilde;o vazia caso o objeto atenda a esta regra ou uma cole&ccedil;&atilde;o contendo contendo os detalhes do motivo de ele
 	 *         n&atilde;o atender a regra.
 	 */
 	public final List<String> getDetails() {
-		// ninguém de fora pode modificar essa lista
-		return Collections.unmodifiableList(details);
+		// ninguém de fora pode modificar essa lista, que acompanha os detalhes mesmo antes de eles serem criados
+		return new AbstractList<String>() {
+
+			@Override
+			public String get(final int index) {
+				final Details current = details;
+				if (current == null) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+				}
+				return current.get(index);
+			}
+
+			@Override
+			public int size() {
+				final Details current = details;
+				return current == null ? 0 : current.size();
+			}
+		};
+	}
+
+	/**
+	 * Obt&eacute;m uma c&oacute;pia desta regra onde cada regra que a comp&otilde;e informa ao {@link RuleListener} a quantidade de
+	 * avalia&ccedil;&otilde;es, se o objeto foi atendido, o tempo de cada avalia&ccedil;&atilde;o e as exce&ccedil;&otilde;es lan&ccedil;adas.<BR>
+	 * <BR>
+	 * Cada regra &eacute; identificada pelo caminho a partir do nome informado, por exemplo <code>pessoa/AND/Nome</code>. Esta regra n&atilde;o
+	 * &eacute; modificada, assim basta avaliar a regra original para desligar a instrumenta&ccedil;&atilde;o sem nenhum custo adicional.
+	 * 
+	 * @param name
+	 *            O nome desta regra.
+	 * @param listener
+	 *            O {@link RuleListener} que receber&aacute; as medi&ccedil;&otilde;es, por exemplo um {@link RuleMetrics}.
+	 * @return A regra instrumentada.
+	 */
+	public final Rule<T> instrument(final String name, final RuleListener listener) {
+		return InstrumentedRule.instrument(this, name, listener);
 	}
 
 	/**
@@ -268,6 +707,26 @@ public abstract class Rule<T> {
 		return new Not<T>(this);
 	}
 
+	/**
+	 * Obt&eacute;m uma regra equivalente a esta que, no modo {@link EvaluationMode#FAST}, se adapta aos objetos avaliados.<BR>
+	 * <BR>
+	 * O custo e a quantidade de objetos que n&atilde;o atendem a cada {@link Specification especifica&ccedil;&atilde;o} s&atilde;o medidos durante as
+	 * avalia&ccedil;&otilde;es e os operandos das opera&ccedil;&otilde;es <I>AND</I> e <I>OR</I> s&atilde;o reordenados periodicamente, de modo que as
+	 * especifica&ccedil;&otilde;es baratas, que mais vezes decidem o resultado, sejam verificadas primeiro.<BR>
+	 * No modo {@link EvaluationMode#DIAGNOSTIC} os operandos s&atilde;o verificados na ordem original, assim os detalhes n&atilde;o mudam de ordem.<BR>
+	 * <BR>
+	 * <B>Observa&ccedil;&atilde;o:</B> As {@link Specification especifica&ccedil;&otilde;es} podem ser verificadas em qualquer ordem, por isso n&atilde;o
+	 * devem depender umas das outras.
+	 *
+	 * @return A regra otimizada.
+	 */
+	public final Rule<T> optimize() {
+		if (this instanceof AdaptiveRule) {
+			return this;
+		}
+		return new AdaptiveRule<T>(this);
+	}
+
 	/**
 	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>OU</B> a especifica&ccedil;&atilde;o
 	 * informada tamb&eacute;m atenderem ao mesmo objeto.<BR>
@@ -306,10 +765,138 @@ public abstract class Rule<T> {
 		return or(create(spec));
 	}
 
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>OU</B> a {@link SilentSpecification
+	 * especifica&ccedil;&atilde;o silenciosa} informada tamb&eacute;m atenderem ao mesmo objeto.
+	 * 
+	 * @param spec
+	 *            A {@link SilentSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>or(create(spec))</code>.
+	 */
+	public final Rule<T> or(final SilentSpecification<T> spec) {
+		return or(create(spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>OU</B> a {@link DoubleSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>double</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link DoubleSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>or(createDouble(field, spec))</code>.
+	 */
+	public final Rule<T> orDouble(final ToDoubleFunction<? super T> field, final DoubleSpecification spec) {
+		return or(createDouble(field, spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>OU</B> a {@link IntSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>int</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link IntSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>or(createInt(field, spec))</code>.
+	 */
+	public final Rule<T> orInt(final ToIntFunction<? super T> field, final IntSpecification spec) {
+		return or(createInt(field, spec));
+	}
+
+	/**
+	 * Cria uma nova regra que somente atender&aacute; a um objeto qualquer se a especifica&ccedil;&atilde;o desta regra <B>OU</B> a {@link LongSpecification}
+	 * informada atenderem ao mesmo objeto, verificando o valor <code>long</code> extra&iacute;do pela fun&ccedil;&atilde;o informada.
+	 * 
+	 * @param field
+	 *            A fun&ccedil;&atilde;o que extrai o valor do objeto verificado.
+	 * @param spec
+	 *            A {@link LongSpecification} a ser adicionada a esta regra.
+	 * @return Uma {@link Rule} equivalente a <code>or(createLong(field, spec))</code>.
+	 */
+	public final Rule<T> orLong(final ToLongFunction<? super T> field, final LongSpecification spec) {
+		return or(createLong(field, spec));
+	}
+
+	/**
+	 * Separa os objetos informados entre os que atendem e os que n&atilde;o atendem a esta regra, avaliados no modo {@link EvaluationMode#FAST}.
+	 * 
+	 * @param objects
+	 *            Os objetos a serem verificados.
+	 * @return Um mapa onde a chave <code>true</code> cont&eacute;m os objetos que atendem a esta regra e a chave <code>false</code> os que n&atilde;o
+	 *         atendem, ambos na ordem em que foram informados.
+	 */
+	public final Map<Boolean, List<T>> partition(final Collection<? extends T> objects) {
+		final List<T> satisfied = new ArrayList<T>();
+		final List<T> unsatisfied = new ArrayList<T>();
+		for (final T object : objects) {
+			if (test(object, null)) {
+				satisfied.add(object);
+			} else {
+				unsatisfied.add(object);
+			}
+		}
+		final Map<Boolean, List<T>> partition = new HashMap<Boolean, List<T>>(4);
+		partition.put(Boolean.TRUE, satisfied);
+		partition.put(Boolean.FALSE, unsatisfied);
+		return partition;
+	}
+
+	/**
+	 * Obt&eacute;m uma regra equivalente a esta que, no modo {@link EvaluationMode#FAST}, avalia a express&atilde;o simplificada.<BR>
+	 * <BR>
+	 * As opera&ccedil;&otilde;es <I>NOT</I> s&atilde;o empurradas at&eacute; as {@link Specification especifica&ccedil;&otilde;es} pelas leis de De
+	 * Morgan, as especifica&ccedil;&otilde;es repetidas numa opera&ccedil;&atilde;o <I>AND</I> ou <I>OR</I> s&atilde;o verificadas uma &uacute;nica
+	 * vez, os operandos absorvidos, como <code>b</code> em <code>a.and(a.or(b))</code>, s&atilde;o descartados, e as opera&ccedil;&otilde;es sempre
+	 * atendidas ou nunca atendidas, como <code>a.and(a.not())</code>, s&atilde;o substitu&iacute;das pelo seu resultado.<BR>
+	 * No modo {@link EvaluationMode#DIAGNOSTIC} esta regra &eacute; avaliada, assim os detalhes n&atilde;o mudam.<BR>
+	 * <BR>
+	 * <B>Observa&ccedil;&atilde;o:</B> As {@link Specification especifica&ccedil;&otilde;es} descartadas n&atilde;o s&atilde;o verificadas, por isso
+	 * n&atilde;o devem depender umas das outras.
+	 *
+	 * @return A regra simplificada.
+	 */
+	public final Rule<T> simplify() {
+		if (this instanceof SimplifiedRule) {
+			return this;
+		}
+		return new SimplifiedRule<T>(this);
+	}
+
 	/**
 	 * Obt&eacute;m a lista modific&aacute;vel de detalhes desta {@link Rule regra}.
 	 */
 	protected final List<String> getModifiableDetails() {
+		if (details == null) {
+			details = new Details();
+		}
 		return details;
 	}
+
+	/**
+	 * Verifica se o objeto informado atende a esta regra, adicionando aos detalhes informados os motivos de ele n&atilde;o atender, sem alterar o
+	 * estado desta regra.<BR>
+	 * <BR>
+	 * As regras internas sobrescrevem este m&eacute;todo, as demais s&atilde;o avaliadas atrav&eacute;s do m&eacute;todo {@link #isSatisfiedBy(Object)} de
+	 * forma sincronizada.
+	 * 
+	 * @param object
+	 *            O objeto a ser verificado.
+	 * @param details
+	 *            Os detalhes da avalia&ccedil;&atilde;o em andamento ou <code>null</code> no modo {@link EvaluationMode#FAST}.
+	 * @return <code>true</code> se o objeto atender a especifica&ccedil;&atilde;o e <code>false</code> caso contr&aacute;rio.
+	 */
+	boolean test(final T object, final Details details) {
+		// regras de terceiros só conhecem o contrato antigo
+		synchronized (this) {
+			final List<String> own = getModifiableDetails();
+			own.clear();
+			final boolean satisfied = isSatisfiedBy(object);
+			if (details != null) {
+				details.addAll(own);
+			}
+			return satisfied;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,321 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Cat&aacute;logo de {@link Rule regras} onde cada regra se aplica somente aos objetos cuja chave atende a uma condi&ccedil;&atilde;o simples:
+ * igualdade a um valor ou pertin&ecirc;ncia a uma faixa de valores.<BR>
+ * <BR>
+ * As condi&ccedil;&otilde;es s&atilde;o indexadas numa &aacute;rvore de segmentos sobre os intervalos elementares formados pelos limites das faixas, onde
+ * uma igualdade &eacute; a faixa que come&ccedil;a e termina no mesmo valor, assim a sele&ccedil;&atilde;o das regras aplic&aacute;veis a um objeto custa
+ * <code>O(log n)</code> mais a quantidade de regras selecionadas, independente do tamanho do cat&aacute;logo.<BR>
+ * As chaves s&atilde;o sempre comparadas pelo m&eacute;todo {@link Comparable#compareTo(Object)}, tanto nas igualdades quanto nas faixas, de modo que
+ * <code>whenEqual(valor, regra)</code> equivale a <code>whenBetween(valor, valor, regra)</code>.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * RuleCatalog&lt;Pessoa, Integer&gt; catalogo = RuleCatalog.builder((Pessoa pessoa) -&gt; pessoa.idade)
+ * 		.whenEqual(0, recemNascido)
+ * 		.whenBetween(18, 65, adulto)
+ * 		.always(nome)
+ * 		.build();
+ * Map&lt;Rule&lt;Pessoa&gt;, Evaluation&gt; avaliacoes = catalogo.evaluate(pessoa);
+ * </PRE>
+ *
+ * Esta classe &eacute; imut&aacute;vel e pode ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ * @param <K> Tipo de dado da chave que determina as regras aplic&aacute;veis a um objeto.
+ */
+public final class RuleCatalog<T, K extends Comparable<? super K>> {
+
+	/**
+	 * Construtor de um {@link RuleCatalog}, as regras s&atilde;o avaliadas na ordem em que s&atilde;o adicionadas.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param <K> Tipo de dado da chave que determina as regras aplic&aacute;veis a um objeto.
+	 */
+	public static final class Builder<T, K extends Comparable<? super K>> {
+
+		private final Function<? super T, ? extends K> key;
+		private final List<Rule<T>> rules = new ArrayList<Rule<T>>();
+		private final List<Guard> guards = new ArrayList<Guard>();
+		private final List<K> lows = new ArrayList<K>();
+		private final List<K> highs = new ArrayList<K>();
+
+		private Builder(final Function<? super T, ? extends K> key) {
+			this.key = Objects.requireNonNull(key, "key");
+		}
+
+		private Builder<T, K> add(final Rule<T> rule, final Guard guard, final K low, final K high) {
+			rules.add(Objects.requireNonNull(rule, "rule"));
+			guards.add(guard);
+			lows.add(low);
+			highs.add(high);
+			return this;
+		}
+
+		/**
+		 * Adiciona uma regra que se aplica a todos os objetos.
+		 *
+		 * @param rule A regra.
+		 * @return Este construtor.
+		 */
+		public Builder<T, K> always(final Rule<T> rule) {
+			return add(rule, Guard.ALWAYS, null, null);
+		}
+
+		/**
+		 * Cria o cat&aacute;logo com as regras adicionadas.
+		 *
+		 * @return O cat&aacute;logo.
+		 */
+		public RuleCatalog<T, K> build() {
+			return new RuleCatalog<T, K>(this);
+		}
+
+		/**
+		 * Adiciona uma regra que se aplica aos objetos cuja chave est&aacute; entre os valores informados, inclusive.
+		 *
+		 * @param low O menor valor da chave.
+		 * @param high O maior valor da chave.
+		 * @param rule A regra.
+		 * @return Este construtor.
+		 */
+		public Builder<T, K> whenBetween(final K low, final K high, final Rule<T> rule) {
+			if (low.compareTo(high) > 0) {
+				throw new IllegalArgumentException("low > high: " + low + " > " + high);
+			}
+			return add(rule, Guard.BETWEEN, low, high);
+		}
+
+		/**
+		 * Adiciona uma regra que se aplica aos objetos cuja chave &eacute; igual ao valor informado.
+		 *
+		 * @param value O valor da chave.
+		 * @param rule A regra.
+		 * @return Este construtor.
+		 */
+		public Builder<T, K> whenEqual(final K value, final Rule<T> rule) {
+			final K k = Objects.requireNonNull(value, "value");
+			return add(rule, Guard.EQUAL, k, k);
+		}
+	}
+
+	/**
+	 * O tipo da condi&ccedil;&atilde;o de uma regra.
+	 */
+	private enum Guard {
+		ALWAYS, EQUAL, BETWEEN
+	}
+
+	private static final int[] NONE = {};
+
+	/**
+	 * Cria um construtor de cat&aacute;logo cujas regras s&atilde;o selecionadas pela chave extra&iacute;da de cada objeto.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param <K> Tipo de dado da chave que determina as regras aplic&aacute;veis a um objeto.
+	 * @param key A fun&ccedil;&atilde;o que extrai a chave do objeto.
+	 * @return O construtor.
+	 */
+	public static <T, K extends Comparable<? super K>> Builder<T, K> builder(final Function<? super T, ? extends K> key) {
+		return new Builder<T, K>(key);
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	private final Function<? super T, ? extends K> key;
+
+	private final List<Rule<T>> rules;
+
+	/**
+	 * As regras que se aplicam a todos os objetos.
+	 */
+	private final int[] always;
+
+	/**
+	 * Os limites das faixas, ordenados e sem repeti&ccedil;&atilde;o. O valor <code>bounds[i]</code> corresponde ao intervalo elementar
+	 * <code>2i + 1</code>, os valores entre <code>bounds[i - 1]</code> e <code>bounds[i]</code> ao intervalo <code>2i</code>.
+	 */
+	private final K[] bounds;
+
+	/**
+	 * &Aacute;rvore de segmentos sobre os intervalos elementares, onde cada n&oacute; cont&eacute;m as regras cujas faixas cobrem todos os seus
+	 * intervalos.
+	 */
+	private final int[][] segments;
+
+	/**
+	 * Quantidade de intervalos elementares.
+	 */
+	private final int slots;
+
+	/**
+	 * Quantidade de n&iacute;veis da &aacute;rvore de segmentos.
+	 */
+	private final int depth;
+
+	private RuleCatalog(final Builder<T, K> builder) {
+		this.key = builder.key;
+		this.rules = Collections.unmodifiableList(new ArrayList<Rule<T>>(builder.rules));
+		final List<Integer> always = new ArrayList<Integer>();
+		// o TreeSet também compara pelo compareTo, uma igualdade é um único limite
+		final TreeSet<K> bounds = new TreeSet<K>();
+		for (int id = 0; id < rules.size(); id++) {
+			if (builder.guards.get(id) == Guard.ALWAYS) {
+				always.add(id);
+			} else {
+				bounds.add(builder.lows.get(id));
+				bounds.add(builder.highs.get(id));
+			}
+		}
+		this.always = toArray(always);
+		@SuppressWarnings("unchecked")
+		final K[] array = (K[]) bounds.toArray(new Comparable<?>[bounds.size()]);
+		this.bounds = array;
+		this.slots = 2 * this.bounds.length + 1;
+		this.depth = 33 - Integer.numberOfLeadingZeros(slots - 1);
+		final List<List<Integer>> segments = new ArrayList<List<Integer>>();
+		for (int i = 0; i < 4 * slots; i++) {
+			segments.add(null);
+		}
+		for (int id = 0; id < rules.size(); id++) {
+			if (builder.guards.get(id) != Guard.ALWAYS) {
+				insert(segments, 1, 0, slots - 1, slot(builder.lows.get(id)), slot(builder.highs.get(id)), id);
+			}
+		}
+		this.segments = new int[segments.size()][];
+		for (int i = 0; i < segments.size(); i++) {
+			this.segments[i] = segments.get(i) == null ? NONE : toArray(segments.get(i));
+		}
+	}
+
+	/**
+	 * Acrescenta uma regra aos n&oacute;s da &aacute;rvore de segmentos que cobrem exatamente os intervalos de <code>from</code> at&eacute;
+	 * <code>to</code>.
+	 */
+	private static void insert(final List<List<Integer>> segments, final int node, final int first, final int last, final int from, final int to,
+			final int id) {
+		if (to < first || last < from) {
+			return;
+		}
+		if (from <= first && last <= to) {
+			List<Integer> ids = segments.get(node);
+			if (ids == null) {
+				segments.set(node, ids = new ArrayList<Integer>(2));
+			}
+			ids.add(id);
+			return;
+		}
+		final int middle = (first + last) >>> 1;
+		insert(segments, 2 * node, first, middle, from, to, id);
+		insert(segments, 2 * node + 1, middle + 1, last, from, to, id);
+	}
+
+	/**
+	 * Avalia o objeto informado no modo {@link EvaluationMode#DIAGNOSTIC} pelas regras que se aplicam a ele.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} de cada regra aplic&aacute;vel, na ordem em que as regras foram adicionadas.
+	 */
+	public Map<Rule<T>, Evaluation> evaluate(final T object) {
+		return evaluate(object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado no {@link EvaluationMode modo} desejado pelas regras que se aplicam a ele.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} de cada regra aplic&aacute;vel, na ordem em que as regras foram adicionadas.
+	 */
+	public Map<Rule<T>, Evaluation> evaluate(final T object, final EvaluationMode mode) {
+		final Map<Rule<T>, Evaluation> evaluations = new LinkedHashMap<Rule<T>, Evaluation>();
+		for (final Rule<T> rule : select(object)) {
+			if (!evaluations.containsKey(rule)) {
+				evaluations.put(rule, rule.evaluate(object, mode));
+			}
+		}
+		return evaluations;
+	}
+
+	/**
+	 * Obt&eacute;m todas as regras do cat&aacute;logo.
+	 *
+	 * @return Uma lista imut&aacute;vel com as regras, na ordem em que foram adicionadas.
+	 */
+	public List<Rule<T>> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Obt&eacute;m as regras que se aplicam ao objeto informado.
+	 *
+	 * @param object O objeto.
+	 * @return As regras cuja condi&ccedil;&atilde;o &eacute; atendida pela chave do objeto, na ordem em que foram adicionadas.
+	 */
+	public List<Rule<T>> select(final T object) {
+		final K k = key.apply(object);
+		final int[] ids;
+		if (k == null) {
+			ids = always;
+		} else {
+			final int[][] parts = new int[depth + 1][];
+			int count = 0;
+			parts[count++] = always;
+			// percorre a árvore da raiz até o intervalo elementar da chave
+			final int slot = slot(k);
+			int node = 1;
+			int first = 0;
+			int last = slots - 1;
+			while (true) {
+				parts[count++] = segments[node];
+				if (first == last) {
+					break;
+				}
+				final int middle = (first + last) >>> 1;
+				if (slot <= middle) {
+					node = 2 * node;
+					last = middle;
+				} else {
+					node = 2 * node + 1;
+					first = middle + 1;
+				}
+			}
+			int size = 0;
+			for (int i = 0; i < count; i++) {
+				size += parts[i].length;
+			}
+			ids = new int[size];
+			size = 0;
+			for (int i = 0; i < count; i++) {
+				System.arraycopy(parts[i], 0, ids, size, parts[i].length);
+				size += parts[i].length;
+			}
+			Arrays.sort(ids);
+		}
+		final List<Rule<T>> selected = new ArrayList<Rule<T>>(ids.length);
+		for (final int id : ids) {
+			selected.add(rules.get(id));
+		}
+		return selected;
+	}
+
+	/**
+	 * Obt&eacute;m o intervalo elementar que cont&eacute;m o valor informado.
+	 */
+	private int slot(final K value) {
+		final int index = Arrays.binarySearch(bounds, value);
+		return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+	}
+}
@@ -0,0 +1,235 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * F&aacute;brica de {@link Rule regras} que reaproveita as regras estruturalmente id&ecirc;nticas, assim um cat&aacute;logo com muitas regras
+ * parecidas mant&eacute;m uma &uacute;nica inst&acirc;ncia de cada combina&ccedil;&atilde;o.<BR>
+ * <BR>
+ * Duas regras criadas a partir de {@link Specification especifica&ccedil;&otilde;es} iguais s&atilde;o a mesma regra, e duas opera&ccedil;&otilde;es
+ * <I>AND</I>, <I>OR</I> ou <I>NOT</I> sobre as mesmas regras tamb&eacute;m. As regras montadas fora da f&aacute;brica podem ser reaproveitadas
+ * atrav&eacute;s do m&eacute;todo {@link #intern(Rule)}.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * RuleFactory&lt;Pessoa&gt; fabrica = new RuleFactory&lt;Pessoa&gt;();
+ * Rule&lt;Pessoa&gt; regra1 = fabrica.and(fabrica.create(new Nome()), fabrica.create(new Idade()));
+ * Rule&lt;Pessoa&gt; regra2 = fabrica.intern(Rule.create(new Nome()).and(new Idade()));
+ * // regra1 == regra2
+ * </PRE>
+ *
+ * <B>Observa&ccedil;&atilde;o:</B> Uma mesma regra pode ser compartilhada por v&aacute;rias outras, por isso as regras da f&aacute;brica devem ser
+ * avaliadas atrav&eacute;s do m&eacute;todo {@link Rule#evaluate(Object)}, que n&atilde;o armazena nenhum estado na regra, e n&atilde;o do m&eacute;todo
+ * {@link Rule#isSatisfiedBy(Object)}.<BR>
+ * As regras s&atilde;o mantidas enquanto a f&aacute;brica existir. Esta classe pode ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public final class RuleFactory<T> {
+
+	/**
+	 * Chave de uma opera&ccedil;&atilde;o, cujos operandos j&aacute; foram reaproveitados e por isso s&atilde;o comparados pela identidade.
+	 */
+	private static final class Node {
+
+		final int kind;
+		final Rule<?> operand1;
+		final Rule<?> operand2;
+
+		Node(final int kind, final Rule<?> operand1, final Rule<?> operand2) {
+			this.kind = kind;
+			this.operand1 = operand1;
+			this.operand2 = operand2;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj instanceof Node) {
+				final Node other = (Node) obj;
+				return kind == other.kind && operand1 == other.operand1 && operand2 == other.operand2;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * kind + System.identityHashCode(operand1)) * 31 + System.identityHashCode(operand2);
+		}
+	}
+
+	/**
+	 * As folhas, pela {@link Expression#key(Rule) chave}.
+	 */
+	private final ConcurrentMap<Object, Rule<T>> leaves = new ConcurrentHashMap<Object, Rule<T>>();
+
+	/**
+	 * As opera&ccedil;&otilde;es, pelos seus operandos.
+	 */
+	private final ConcurrentMap<Node, Rule<T>> nodes = new ConcurrentHashMap<Node, Rule<T>>();
+
+	/**
+	 * Obt&eacute;m a regra equivalente a <code>rule1.and(rule2)</code>.
+	 *
+	 * @param rule1 A primeira regra.
+	 * @param rule2 A segunda regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> and(final Rule<T> rule1, final Rule<T> rule2) {
+		return node(Expression.AND, intern(rule1), intern(rule2));
+	}
+
+	/**
+	 * Obt&eacute;m a regra equivalente a <code>Rule.create(spec)</code>.
+	 *
+	 * @param spec A {@link SilentSpecification especifica&ccedil;&atilde;o silenciosa} da regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> create(final SilentSpecification<T> spec) {
+		return leaf(Rule.create(spec));
+	}
+
+	/**
+	 * Obt&eacute;m a regra equivalente a <code>Rule.create(spec)</code>.
+	 *
+	 * @param spec A {@link Specification especifica&ccedil;&atilde;o} da regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> create(final Specification<T> spec) {
+		return leaf(Rule.create(spec));
+	}
+
+	/**
+	 * Obt&eacute;m a regra desta f&aacute;brica estruturalmente id&ecirc;ntica &agrave; regra informada, reaproveitando cada regra que a comp&otilde;e.
+	 *
+	 * @param rule A regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> intern(final Rule<T> rule) {
+		final Map<Rule<T>, Rule<T>> interned = new IdentityHashMap<Rule<T>, Rule<T>>();
+		final Deque<Rule<T>> pending = new ArrayDeque<Rule<T>>();
+		pending.push(rule);
+		// iterativo, pois cadeias longas como a.and(b).and(c)... são muito profundas
+		while (!pending.isEmpty()) {
+			final Rule<T> next = pending.peek();
+			if (interned.containsKey(next)) {
+				pending.pop();
+			} else if (isInterned(next)) {
+				// as regras desta fábrica já são compostas por regras reaproveitadas
+				interned.put(next, next);
+				pending.pop();
+			} else if (next instanceof And || next instanceof Or) {
+				final BinaryRule<T> binary = (BinaryRule<T>) next;
+				final Rule<T> operand1 = interned.get(binary.getFirstRule());
+				final Rule<T> operand2 = interned.get(binary.getSecondRule());
+				if (operand1 == null || operand2 == null) {
+					if (operand2 == null) {
+						pending.push(binary.getSecondRule());
+					}
+					if (operand1 == null) {
+						pending.push(binary.getFirstRule());
+					}
+				} else {
+					interned.put(next, node(next instanceof And ? Expression.AND : Expression.OR, operand1, operand2));
+					pending.pop();
+				}
+			} else if (next instanceof Not) {
+				final Rule<T> operand = interned.get(((Not<T>) next).getRule());
+				if (operand == null) {
+					pending.push(((Not<T>) next).getRule());
+				} else {
+					interned.put(next, node(Expression.NOT, operand, null));
+					pending.pop();
+				}
+			} else {
+				interned.put(next, leaf(next));
+				pending.pop();
+			}
+		}
+		return interned.get(rule);
+	}
+
+	/**
+	 * Obt&eacute;m a regra equivalente a <code>rule.not()</code>.
+	 *
+	 * @param rule A regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> not(final Rule<T> rule) {
+		return node(Expression.NOT, intern(rule), null);
+	}
+
+	/**
+	 * Obt&eacute;m a regra equivalente a <code>rule1.or(rule2)</code>.
+	 *
+	 * @param rule1 A primeira regra.
+	 * @param rule2 A segunda regra.
+	 * @return A regra reaproveitada.
+	 */
+	public Rule<T> or(final Rule<T> rule1, final Rule<T> rule2) {
+		return node(Expression.OR, intern(rule1), intern(rule2));
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de regras distintas criadas por esta f&aacute;brica.
+	 *
+	 * @return A quantidade de regras.
+	 */
+	public int size() {
+		return leaves.size() + nodes.size();
+	}
+
+	/**
+	 * Verifica se a regra informada foi criada por esta f&aacute;brica.
+	 */
+	private boolean isInterned(final Rule<T> rule) {
+		if (rule instanceof And || rule instanceof Or) {
+			final BinaryRule<T> binary = (BinaryRule<T>) rule;
+			final int kind = rule instanceof And ? Expression.AND : Expression.OR;
+			return nodes.get(new Node(kind, binary.getFirstRule(), binary.getSecondRule())) == rule;
+		}
+		if (rule instanceof Not) {
+			return nodes.get(new Node(Expression.NOT, ((Not<T>) rule).getRule(), null)) == rule;
+		}
+		return leaves.get(Expression.key(rule)) == rule;
+	}
+
+	/**
+	 * Obt&eacute;m a folha reaproveitada de uma regra que n&atilde;o &eacute; uma opera&ccedil;&atilde;o.
+	 */
+	private Rule<T> leaf(final Rule<T> rule) {
+		final Rule<T> existing = leaves.putIfAbsent(Expression.key(rule), rule);
+		return existing == null ? rule : existing;
+	}
+
+	/**
+	 * Obt&eacute;m a opera&ccedil;&atilde;o reaproveitada sobre operandos j&aacute; reaproveitados.
+	 */
+	private Rule<T> node(final int kind, final Rule<T> operand1, final Rule<T> operand2) {
+		if (kind == Expression.NOT && operand1 instanceof Not) {
+			// como em Rule.not(), a dupla negação devolve a regra original
+			return ((Not<T>) operand1).getRule();
+		}
+		final Node key = new Node(kind, operand1, operand2);
+		final Rule<T> existing = nodes.get(key);
+		if (existing != null) {
+			return existing;
+		}
+		final Rule<T> rule;
+		switch (kind) {
+			case Expression.AND:
+				rule = new And<T>(operand1, operand2);
+				break;
+			case Expression.OR:
+				rule = new Or<T>(operand1, operand2);
+				break;
+			default:
+				rule = new Not<T>(operand1);
+				break;
+		}
+		final Rule<T> raced = nodes.putIfAbsent(key, rule);
+		return raced == null ? rule : raced;
+	}
+}
@@ -0,0 +1,315 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Grupo de {@link Rule regras} avaliadas juntas, onde as {@link Specification especifica&ccedil;&otilde;es} e as sub-regras id&ecirc;nticas que
+ * aparecem em mais de uma regra s&atilde;o verificadas uma &uacute;nica vez para cada objeto.<BR>
+ * <BR>
+ * Ao criar o grupo, as regras s&atilde;o percorridas e cada regra que as comp&otilde;e recebe um identificador: duas folhas s&atilde;o id&ecirc;nticas se
+ * suas especifica&ccedil;&otilde;es forem iguais segundo o m&eacute;todo {@link Object#equals(Object)} e duas opera&ccedil;&otilde;es s&atilde;o
+ * id&ecirc;nticas se tiverem o mesmo tipo e operandos id&ecirc;nticos, na mesma ordem. Durante a avalia&ccedil;&atilde;o o resultado de cada
+ * identificador &eacute; memorizado e reaproveitado pelas demais regras.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * Rule&lt;Pessoa&gt; idade = Rule.create(new Idade());
+ * RuleGroup&lt;Pessoa&gt; grupo = RuleGroup.of(idade.and(nome), idade.and(sexo), idade.or(sexo).not());
+ * List&lt;Evaluation&gt; avaliacoes = grupo.evaluate(pessoa); // Idade &eacute; verificada uma &uacute;nica vez
+ * </PRE>
+ *
+ * O resultado e os detalhes de cada regra s&atilde;o os mesmos obtidos pelo m&eacute;todo {@link Rule#evaluate(Object, EvaluationMode)} da regra.<BR>
+ * Esta classe n&atilde;o armazena nenhum estado durante as avalia&ccedil;&otilde;es, podendo ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public final class RuleGroup<T> {
+
+	/**
+	 * Estado de um n&oacute; ainda n&atilde;o avaliado.
+	 */
+	private static final byte PENDING = 0;
+
+	/**
+	 * Estado de um n&oacute; atendido.
+	 */
+	private static final byte SATISFIED = 1;
+
+	/**
+	 * Estado de um n&oacute; n&atilde;o atendido.
+	 */
+	private static final byte UNSATISFIED = 2;
+
+	/**
+	 * Cria um grupo com as regras informadas.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param rules As regras.
+	 * @return O grupo de regras.
+	 */
+	public static <T> RuleGroup<T> of(final Collection<? extends Rule<T>> rules) {
+		return new RuleGroup<T>(new ArrayList<Rule<T>>(rules));
+	}
+
+	/**
+	 * Cria um grupo com as regras informadas.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param rules As regras.
+	 * @return O grupo de regras.
+	 */
+	@SafeVarargs
+	public static <T> RuleGroup<T> of(final Rule<T>... rules) {
+		// o vetor não é repassado a outro método de argumentos variáveis
+		final List<Rule<T>> list = new ArrayList<Rule<T>>(rules.length);
+		for (final Rule<T> rule : rules) {
+			list.add(rule);
+		}
+		return new RuleGroup<T>(list);
+	}
+
+	/**
+	 * Obt&eacute;m os detalhes repassados pelos dois operandos de uma opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B>, na ordem e sem duplicatas.
+	 */
+	static List<String> merge(final List<String> details1, final List<String> details2) {
+		if (isEmpty(details2)) {
+			return details1;
+		}
+		if (isEmpty(details1)) {
+			return details2;
+		}
+		final Details merged = new Details();
+		merged.addAll(details1);
+		merged.addAll(details2);
+		return merged;
+	}
+
+	/**
+	 * Verifica se os detalhes de um n&oacute; est&atilde;o vazios sem construir suas mensagens pendentes.
+	 */
+	static boolean isEmpty(final List<String> details) {
+		return details instanceof Details ? ((Details) details).mark() == 0 : details.isEmpty();
+	}
+
+	/**
+	 * Uma avalia&ccedil;&atilde;o do grupo, com o resultado e os detalhes memorizados de cada n&oacute;.
+	 */
+	private final class Pass {
+
+		private final T object;
+
+		private final byte[] states;
+
+		/**
+		 * Os detalhes de cada n&oacute; ou <code>null</code> no modo {@link EvaluationMode#FAST}.
+		 */
+		private final List<String>[] details;
+
+		Pass(final T object, final EvaluationMode mode) {
+			this.object = object;
+			this.states = new byte[kinds.length];
+			@SuppressWarnings("unchecked")
+			final List<String>[] details = mode == EvaluationMode.FAST ? null : (List<String>[]) new List<?>[kinds.length];
+			this.details = details;
+		}
+
+		/**
+		 * Obt&eacute;m os detalhes que um n&oacute; j&aacute; avaliado repassa &agrave; regra que o comp&otilde;e.
+		 */
+		private List<String> forward(final int node) {
+			return states[node] == SATISFIED ? Collections.<String> emptyList() : details[node];
+		}
+
+		private List<String> merge(final int node1, final int node2) {
+			return RuleGroup.merge(forward(node1), forward(node2));
+		}
+
+		boolean test(final int node) {
+			final byte state = states[node];
+			if (state != PENDING) {
+				return state == SATISFIED;
+			}
+			final boolean satisfied;
+			switch (kinds[node]) {
+				case Expression.LEAF:
+					if (details == null) {
+						satisfied = leaves[node].test(object, null);
+					} else {
+						final Details collected = new Details();
+						satisfied = leaves[node].test(object, collected);
+						details[node] = collected.mark() == 0 ? Collections.<String> emptyList() : collected;
+					}
+					break;
+				case Expression.AND:
+					if (details == null) {
+						satisfied = test(operands1[node]) && test(operands2[node]);
+					} else {
+						// os dois operandos repassam seus detalhes, como na regra original
+						satisfied = test(operands1[node]) & test(operands2[node]);
+						details[node] = merge(operands1[node], operands2[node]);
+					}
+					break;
+				case Expression.OR:
+					if (details == null) {
+						satisfied = test(operands1[node]) || test(operands2[node]);
+					} else {
+						satisfied = test(operands1[node]) | test(operands2[node]);
+						details[node] = merge(operands1[node], operands2[node]);
+					}
+					break;
+				default:
+					satisfied = !test(operands1[node]);
+					if (details != null) {
+						details[node] = forward(operands1[node]);
+					}
+					break;
+			}
+			states[node] = satisfied ? SATISFIED : UNSATISFIED;
+			return satisfied;
+		}
+
+		Evaluation evaluate(final int node) {
+			final boolean satisfied = test(node);
+			if (details == null) {
+				return satisfied ? Evaluation.SATISFIED : Evaluation.UNSATISFIED;
+			}
+			return Evaluation.of(satisfied, details[node]);
+		}
+	}
+
+	private final List<Rule<T>> rules;
+
+	/**
+	 * O n&oacute; de cada regra do grupo.
+	 */
+	final int[] roots;
+
+	/**
+	 * O tipo de cada n&oacute;: {@link Expression#LEAF}, {@link Expression#AND}, {@link Expression#OR} ou {@link Expression#NOT}.
+	 */
+	final int[] kinds;
+
+	/**
+	 * O primeiro, ou &uacute;nico, operando de cada n&oacute;.
+	 */
+	final int[] operands1;
+
+	/**
+	 * O segundo operando de cada n&oacute;.
+	 */
+	final int[] operands2;
+
+	/**
+	 * A regra de cada folha ou <code>null</code>.
+	 */
+	final Rule<T>[] leaves;
+
+	private RuleGroup(final List<Rule<T>> rules) {
+		this.rules = Collections.unmodifiableList(rules);
+		final Builder<T> builder = new Builder<T>();
+		roots = new int[rules.size()];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = builder.intern(rules.get(i));
+		}
+		final int size = builder.kinds.size();
+		kinds = new int[size];
+		operands1 = new int[size];
+		operands2 = new int[size];
+		@SuppressWarnings("unchecked")
+		final Rule<T>[] leaves = builder.leaves.toArray((Rule<T>[]) new Rule<?>[size]);
+		this.leaves = leaves;
+		for (int i = 0; i < size; i++) {
+			kinds[i] = builder.kinds.get(i);
+			operands1[i] = builder.operands1.get(i);
+			operands2[i] = builder.operands2.get(i);
+		}
+	}
+
+	/**
+	 * Avalia o objeto informado por todas as regras do grupo no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto por cada regra, na ordem das regras do grupo.
+	 */
+	public List<Evaluation> evaluate(final T object) {
+		return evaluate(object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado por todas as regras do grupo no {@link EvaluationMode modo} desejado.
+	 *
+	 * @param object O objeto a ser verificado.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto por cada regra, na ordem das regras do grupo.
+	 */
+	public List<Evaluation> evaluate(final T object, final EvaluationMode mode) {
+		final Pass pass = new Pass(object, mode);
+		final Evaluation[] evaluations = new Evaluation[roots.length];
+		for (int i = 0; i < roots.length; i++) {
+			evaluations[i] = pass.evaluate(roots[i]);
+		}
+		return Collections.unmodifiableList(Arrays.asList(evaluations));
+	}
+
+	/**
+	 * Obt&eacute;m a quantidade de regras distintas que comp&otilde;em o grupo, ou seja, a quantidade m&aacute;xima de verifica&ccedil;&otilde;es por
+	 * objeto.
+	 *
+	 * @return A quantidade de regras distintas.
+	 */
+	public int getNodeCount() {
+		return kinds.length;
+	}
+
+	/**
+	 * Obt&eacute;m as regras do grupo.
+	 *
+	 * @return Uma lista imut&aacute;vel com as regras, na ordem em que foram informadas.
+	 */
+	public List<Rule<T>> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Atribui identificadores &agrave;s regras, reaproveitando o identificador das regras id&ecirc;nticas.
+	 */
+	private static final class Builder<T> {
+
+		final Map<List<Object>, Integer> ids = new HashMap<List<Object>, Integer>();
+		final List<Integer> kinds = new ArrayList<Integer>();
+		final List<Integer> operands1 = new ArrayList<Integer>();
+		final List<Integer> operands2 = new ArrayList<Integer>();
+		final List<Rule<T>> leaves = new ArrayList<Rule<T>>();
+
+		int intern(final Rule<T> rule) {
+			if (rule instanceof And || rule instanceof Or) {
+				final BinaryRule<T> binary = (BinaryRule<T>) rule;
+				final int kind = rule instanceof And ? Expression.AND : Expression.OR;
+				return add(kind, intern(binary.getFirstRule()), intern(binary.getSecondRule()), null, null);
+			}
+			if (rule instanceof Not) {
+				return add(Expression.NOT, intern(((Not<T>) rule).getRule()), -1, null, null);
+			}
+			// especificações iguais tornam as folhas idênticas, as demais regras só são idênticas a si mesmas
+			final Object key = Expression.key(rule);
+			return add(Expression.LEAF, -1, -1, key, rule);
+		}
+
+		private int add(final int kind, final int operand1, final int operand2, final Object key, final Rule<T> leaf) {
+			final List<Object> id = Arrays.<Object> asList(kind, operand1, operand2, key);
+			final Integer existing = ids.get(id);
+			if (existing != null) {
+				return existing;
+			}
+			final int node = kinds.size();
+			kinds.add(kind);
+			operands1.add(operand1);
+			operands2.add(operand2);
+			leaves.add(leaf);
+			ids.put(id, node);
+			return node;
+		}
+	}
+}
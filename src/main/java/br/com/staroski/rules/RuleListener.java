@@ -0,0 +1,34 @@
+package br.com.staroski.rules;
+
+/**
+ * Interface que recebe as medi&ccedil;&otilde;es de uma {@link Rule regra} instrumentada atrav&eacute;s do m&eacute;todo
+ * {@link Rule#instrument(String, RuleListener)}.<BR>
+ * <BR>
+ * Cada regra que comp&otilde;e a regra instrumentada &eacute; identificada por um nome formado pelo caminho at&eacute; ela, por exemplo
+ * <code>pessoa/AND/Nome</code>.<BR>
+ * Os m&eacute;todos desta interface s&atilde;o invocados pelas threads que avaliam a regra, portanto devem ser r&aacute;pidos e seguros para uso
+ * concorrente.
+ *
+ * @author Ricardo Artur Staroski
+ * @see RuleMetrics
+ */
+public interface RuleListener {
+
+	/**
+	 * Informa que uma regra foi avaliada.
+	 * 
+	 * @param name O nome da regra.
+	 * @param satisfied Se o objeto atendeu &agrave; regra.
+	 * @param nanos O tempo da avalia&ccedil;&atilde;o em nanossegundos.
+	 */
+	public void evaluated(String name, boolean satisfied, long nanos);
+
+	/**
+	 * Informa que uma exce&ccedil;&atilde;o foi lan&ccedil;ada durante a avalia&ccedil;&atilde;o de uma regra, incluindo as {@link UnattendedException}
+	 * lan&ccedil;adas pelas {@link Specification especifica&ccedil;&otilde;es}, que s&atilde;o convertidas em detalhes.
+	 * 
+	 * @param name O nome da regra.
+	 * @param exception A exce&ccedil;&atilde;o lan&ccedil;ada.
+	 */
+	public void thrown(String name, Throwable exception);
+}
@@ -0,0 +1,208 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Resultado das {@link Rule regras} de um {@link RuleNetwork} para um objeto acompanhado, obtido atrav&eacute;s do m&eacute;todo
+ * {@link RuleNetwork#match(Object)}.<BR>
+ * <BR>
+ * O resultado de cada n&oacute; da rede &eacute; memorizado. Quando o objeto &eacute; alterado, o m&eacute;todo {@link #update(String...)} verifica
+ * novamente somente as folhas que leem as propriedades alteradas e recalcula, a partir dos resultados memorizados, somente as opera&ccedil;&otilde;es
+ * cujos operandos mudaram.<BR>
+ * Os m&eacute;todos desta classe s&atilde;o sincronizados, mas as altera&ccedil;&otilde;es do objeto acompanhado devem ser feitas pela mesma thread
+ * que as informa.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public final class RuleMatch<T> {
+
+	private final RuleNetwork<T> network;
+	private final RuleGroup<T> group;
+	private final T object;
+
+	/**
+	 * O resultado de cada n&oacute;.
+	 */
+	private final boolean[] satisfied;
+
+	/**
+	 * Os detalhes de cada n&oacute; ou <code>null</code> no modo {@link EvaluationMode#FAST}.
+	 */
+	private final List<String>[] details;
+
+	RuleMatch(final RuleNetwork<T> network, final T object, final EvaluationMode mode) {
+		this.network = network;
+		this.group = network.group;
+		this.object = object;
+		final int size = group.kinds.length;
+		this.satisfied = new boolean[size];
+		@SuppressWarnings("unchecked")
+		final List<String>[] details = mode == EvaluationMode.FAST ? null : (List<String>[]) new List<?>[size];
+		this.details = details;
+		// os operandos sempre têm identificadores menores que as operações que os utilizam
+		for (int node = 0; node < size; node++) {
+			compute(node);
+		}
+	}
+
+	/**
+	 * Calcula o resultado de um n&oacute;, verificando as folhas e combinando o resultado memorizado dos operandos das opera&ccedil;&otilde;es.
+	 * 
+	 * @return <code>true</code> se o resultado ou os detalhes do n&oacute; mudaram.
+	 */
+	private boolean compute(final int node) {
+		final boolean previous = satisfied[node];
+		final List<String> previousDetails = details == null ? null : details[node];
+		final int operand1 = group.operands1[node];
+		final int operand2 = group.operands2[node];
+		switch (group.kinds[node]) {
+			case Expression.LEAF:
+				if (details == null) {
+					satisfied[node] = group.leaves[node].test(object, null);
+				} else {
+					final Details collected = new Details();
+					satisfied[node] = group.leaves[node].test(object, collected);
+					details[node] = collected.mark() == 0 ? Collections.<String> emptyList() : collected;
+				}
+				break;
+			case Expression.AND:
+				satisfied[node] = satisfied[operand1] && satisfied[operand2];
+				if (details != null) {
+					details[node] = RuleGroup.merge(forward(operand1), forward(operand2));
+				}
+				break;
+			case Expression.OR:
+				satisfied[node] = satisfied[operand1] || satisfied[operand2];
+				if (details != null) {
+					details[node] = RuleGroup.merge(forward(operand1), forward(operand2));
+				}
+				break;
+			default:
+				satisfied[node] = !satisfied[operand1];
+				if (details != null) {
+					details[node] = forward(operand1);
+				}
+				break;
+		}
+		if (previous != satisfied[node]) {
+			return true;
+		}
+		// com o mesmo resultado, os detalhes são comparados sem construir as mensagens pendentes
+		return details != null && !Details.same(details[node], previousDetails);
+	}
+
+	/**
+	 * Obt&eacute;m os detalhes que um n&oacute; repassa &agrave; regra que o comp&otilde;e.
+	 */
+	private List<String> forward(final int node) {
+		return satisfied[node] ? Collections.<String> emptyList() : details[node];
+	}
+
+	/**
+	 * Obt&eacute;m a avalia&ccedil;&atilde;o atual do objeto pela regra informada.
+	 *
+	 * @param index A posi&ccedil;&atilde;o da regra no {@link RuleNetwork}.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+	 */
+	public synchronized Evaluation getEvaluation(final int index) {
+		final int root = group.roots[index];
+		if (details == null) {
+			return satisfied[root] ? Evaluation.SATISFIED : Evaluation.UNSATISFIED;
+		}
+		return Evaluation.of(satisfied[root], details[root]);
+	}
+
+	/**
+	 * Obt&eacute;m a avalia&ccedil;&atilde;o atual do objeto por todas as regras.
+	 *
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto por cada regra, na ordem das regras do {@link RuleNetwork}.
+	 */
+	public synchronized List<Evaluation> getEvaluations() {
+		final Evaluation[] evaluations = new Evaluation[group.roots.length];
+		for (int i = 0; i < evaluations.length; i++) {
+			evaluations[i] = getEvaluation(i);
+		}
+		return Collections.unmodifiableList(Arrays.asList(evaluations));
+	}
+
+	/**
+	 * Obt&eacute;m o objeto acompanhado.
+	 *
+	 * @return O objeto.
+	 */
+	public T getObject() {
+		return object;
+	}
+
+	/**
+	 * Verifica se o objeto atende atualmente &agrave; regra informada.
+	 *
+	 * @param index A posi&ccedil;&atilde;o da regra no {@link RuleNetwork}.
+	 * @return <code>true</code> se o objeto atende &agrave; regra e <code>false</code> caso contr&aacute;rio.
+	 */
+	public synchronized boolean isSatisfied(final int index) {
+		return satisfied[group.roots[index]];
+	}
+
+	/**
+	 * Informa que as propriedades do objeto foram alteradas, verificando novamente as {@link Specification especifica&ccedil;&otilde;es} que as leem e
+	 * as que n&atilde;o declaram as propriedades lidas.
+	 *
+	 * @param properties Os nomes das propriedades alteradas.
+	 * @return As posi&ccedil;&otilde;es das regras cuja avalia&ccedil;&atilde;o mudou, em ordem crescente. As mensagens ainda n&atilde;o
+	 *         constru&iacute;das s&atilde;o comparadas sem serem constru&iacute;das, assim uma regra cujas mensagens s&atilde;o obtidas de um
+	 *         {@link java.util.function.Supplier Supplier} pode ser informada mesmo que o texto das mensagens seja o mesmo.
+	 */
+	public synchronized int[] update(final String... properties) {
+		final BitSet dirty = new BitSet(satisfied.length);
+		for (final String property : properties) {
+			for (final int leaf : network.getDependents(property)) {
+				dirty.set(leaf);
+			}
+		}
+		for (final int leaf : network.getUndeclared()) {
+			dirty.set(leaf);
+		}
+		return propagate(dirty);
+	}
+
+	/**
+	 * Verifica novamente todas as {@link Specification especifica&ccedil;&otilde;es}, para quando n&atilde;o se sabe quais propriedades foram
+	 * alteradas.
+	 *
+	 * @return As posi&ccedil;&otilde;es das regras cuja avalia&ccedil;&atilde;o mudou, em ordem crescente.
+	 */
+	public synchronized int[] updateAll() {
+		final BitSet dirty = new BitSet(satisfied.length);
+		for (final int leaf : network.leaves) {
+			dirty.set(leaf);
+		}
+		return propagate(dirty);
+	}
+
+	/**
+	 * Recalcula os n&oacute;s marcados e, sempre que um resultado muda, as opera&ccedil;&otilde;es que o utilizam.
+	 */
+	private int[] propagate(final BitSet dirty) {
+		final BitSet changed = new BitSet(satisfied.length);
+		// as operações têm identificadores maiores que seus operandos, então são visitadas depois deles
+		for (int node = dirty.nextSetBit(0); node >= 0; node = dirty.nextSetBit(node + 1)) {
+			if (compute(node)) {
+				changed.set(node);
+				for (final int parent : network.parents[node]) {
+					dirty.set(parent);
+				}
+			}
+		}
+		final int[] roots = group.roots;
+		int count = 0;
+		final int[] indexes = new int[roots.length];
+		for (int i = 0; i < roots.length; i++) {
+			if (changed.get(roots[i])) {
+				indexes[count++] = i;
+			}
+		}
+		return Arrays.copyOf(indexes, count);
+	}
+}
@@ -0,0 +1,138 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.management.*;
+
+/**
+ * {@link RuleListener} que acumula as {@link RuleStatistics estat&iacute;sticas} de cada regra que comp&otilde;e uma {@link Rule regra}
+ * instrumentada e pode public&aacute;-las via JMX.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * RuleMetrics metricas = new RuleMetrics();
+ * metricas.register(ManagementFactory.getPlatformMBeanServer(), "br.com.staroski.rules");
+ * Rule&lt;Pessoa&gt; regra = Rule.create(new Nome()).and(new Idade()).instrument("pessoa", metricas);
+ * </PRE>
+ *
+ * Cada regra &eacute; publicada como um MBean de nome <code>&lt;dom&iacute;nio&gt;:type=Rule,name="&lt;nome da regra&gt;"</code>.<BR>
+ * Esta classe pode ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public final class RuleMetrics implements RuleListener {
+
+	private final ConcurrentMap<String, RuleStatistics> statistics = new ConcurrentHashMap<String, RuleStatistics>();
+
+	private MBeanServer server;
+	private String domain;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void evaluated(final String name, final boolean satisfied, final long nanos) {
+		getStatistics(name).evaluated(satisfied, nanos);
+	}
+
+	/**
+	 * Obt&eacute;m as estat&iacute;sticas de todas as regras avaliadas at&eacute; o momento, ordenadas pelo nome.
+	 * 
+	 * @return As estat&iacute;sticas de cada regra.
+	 */
+	public SortedMap<String, RuleStatistics> getAll() {
+		return new TreeMap<String, RuleStatistics>(statistics);
+	}
+
+	/**
+	 * Obt&eacute;m as estat&iacute;sticas da regra informada, criando-as caso ela ainda n&atilde;o tenha sido avaliada.
+	 * 
+	 * @param name O nome da regra.
+	 * @return As estat&iacute;sticas da regra.
+	 */
+	public RuleStatistics getStatistics(final String name) {
+		RuleStatistics stats = statistics.get(name);
+		if (stats == null) {
+			stats = new RuleStatistics(name);
+			final RuleStatistics previous = statistics.putIfAbsent(name, stats);
+			if (previous != null) {
+				return previous;
+			}
+			publish(stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * Publica as estat&iacute;sticas de todas as regras no {@link MBeanServer} informado, incluindo as das regras avaliadas depois desta chamada.
+	 * 
+	 * @param server O {@link MBeanServer}, por exemplo <code>ManagementFactory.getPlatformMBeanServer()</code>.
+	 * @param domain O dom&iacute;nio dos nomes dos MBeans.
+	 */
+	public synchronized void register(final MBeanServer server, final String domain) {
+		unregister();
+		this.server = server;
+		this.domain = domain;
+		for (final RuleStatistics stats : statistics.values()) {
+			publish(stats);
+		}
+	}
+
+	/**
+	 * Zera as estat&iacute;sticas de todas as regras.
+	 */
+	public void reset() {
+		for (final RuleStatistics stats : statistics.values()) {
+			stats.reset();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void thrown(final String name, final Throwable exception) {
+		getStatistics(name).thrown();
+	}
+
+	/**
+	 * Remove do {@link MBeanServer} os MBeans publicados por este objeto.
+	 */
+	public synchronized void unregister() {
+		if (server == null) {
+			return;
+		}
+		for (final RuleStatistics stats : statistics.values()) {
+			try {
+				final ObjectName name = objectName(stats);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+			} catch (JMException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		server = null;
+		domain = null;
+	}
+
+	private ObjectName objectName(final RuleStatistics stats) throws MalformedObjectNameException {
+		return new ObjectName(domain + ":type=Rule,name=" + ObjectName.quote(stats.getName()));
+	}
+
+	private synchronized void publish(final RuleStatistics stats) {
+		if (server == null) {
+			return;
+		}
+		try {
+			final ObjectName name = objectName(stats);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(stats, name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
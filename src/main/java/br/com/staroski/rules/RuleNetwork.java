@@ -0,0 +1,206 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Rede de {@link Rule regras} que acompanha objetos cujas propriedades s&atilde;o alteradas ao longo do tempo, verificando novamente somente o que
+ * depende das propriedades alteradas.<BR>
+ * <BR>
+ * As regras s&atilde;o combinadas como num {@link RuleGroup}, onde as regras id&ecirc;nticas s&atilde;o compartilhadas, e cada folha &eacute;
+ * associada &agrave;s propriedades declaradas por sua especifica&ccedil;&atilde;o atrav&eacute;s da interface {@link PropertyDependent}. O
+ * m&eacute;todo {@link #match(Object)} avalia um objeto e devolve um {@link RuleMatch} que memoriza o resultado de cada n&oacute;, ao informar as
+ * propriedades alteradas s&atilde;o verificadas somente as folhas afetadas e recalculadas somente as opera&ccedil;&otilde;es acima delas cujo
+ * resultado pode ter mudado.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * RuleNetwork&lt;Pessoa&gt; rede = RuleNetwork.of(nome.and(idade), idade.or(sexo));
+ * RuleMatch&lt;Pessoa&gt; situacao = rede.match(pessoa);
+ * pessoa.idade = -1;
+ * int[] alteradas = situacao.update("idade"); // somente Idade &eacute; verificada novamente
+ * </PRE>
+ *
+ * Esta classe n&atilde;o armazena nenhum estado dos objetos, podendo ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public final class RuleNetwork<T> {
+
+	private static final int[] NONE = {};
+
+	/**
+	 * Cria uma rede com as regras informadas.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param rules As regras.
+	 * @return A rede de regras.
+	 */
+	public static <T> RuleNetwork<T> of(final Collection<? extends Rule<T>> rules) {
+		return new RuleNetwork<T>(RuleGroup.of(rules));
+	}
+
+	/**
+	 * Cria uma rede com as regras informadas.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 * @param rules As regras.
+	 * @return A rede de regras.
+	 */
+	@SafeVarargs
+	public static <T> RuleNetwork<T> of(final Rule<T>... rules) {
+		// o vetor não é repassado a outro método de argumentos variáveis
+		final List<Rule<T>> list = new ArrayList<Rule<T>>(rules.length);
+		for (final Rule<T> rule : rules) {
+			list.add(rule);
+		}
+		return of(list);
+	}
+
+	/**
+	 * Obt&eacute;m as propriedades declaradas pela especifica&ccedil;&atilde;o de uma folha ou <code>null</code> se ela n&atilde;o as declara.
+	 */
+	private static Collection<String> properties(final Rule<?> leaf) {
+		if (leaf instanceof ConcreteRule) {
+			Object spec = ((ConcreteRule<?>) leaf).getSpecification();
+			if (spec instanceof SpecificationAdapter) {
+				spec = ((SpecificationAdapter<?>) spec).getSpecification();
+			} else if (spec instanceof PrimitiveSpecification) {
+				spec = ((PrimitiveSpecification<?>) spec).getSpecification();
+			}
+			if (spec instanceof PropertyDependent) {
+				return ((PropertyDependent) spec).getProperties();
+			}
+		}
+		return null;
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	final RuleGroup<T> group;
+
+	/**
+	 * Os n&oacute;s que utilizam cada n&oacute; como operando.
+	 */
+	final int[][] parents;
+
+	/**
+	 * As folhas que leem cada propriedade.
+	 */
+	private final Map<String, int[]> dependents;
+
+	/**
+	 * As folhas que n&atilde;o declaram as propriedades lidas.
+	 */
+	private final int[] undeclared;
+
+	/**
+	 * Todas as folhas.
+	 */
+	final int[] leaves;
+
+	private RuleNetwork(final RuleGroup<T> group) {
+		this.group = group;
+		final int size = group.kinds.length;
+		final List<List<Integer>> parents = new ArrayList<List<Integer>>(size);
+		for (int node = 0; node < size; node++) {
+			parents.add(new ArrayList<Integer>(1));
+		}
+		final Map<String, List<Integer>> dependents = new HashMap<String, List<Integer>>();
+		final List<Integer> undeclared = new ArrayList<Integer>();
+		final List<Integer> leaves = new ArrayList<Integer>();
+		for (int node = 0; node < size; node++) {
+			switch (group.kinds[node]) {
+				case Expression.LEAF:
+					leaves.add(node);
+					final Collection<String> properties = properties(group.leaves[node]);
+					if (properties == null) {
+						undeclared.add(node);
+					} else {
+						for (final String property : properties) {
+							List<Integer> list = dependents.get(property);
+							if (list == null) {
+								dependents.put(property, list = new ArrayList<Integer>());
+							}
+							list.add(node);
+						}
+					}
+					break;
+				case Expression.NOT:
+					parents.get(group.operands1[node]).add(node);
+					break;
+				default:
+					parents.get(group.operands1[node]).add(node);
+					if (group.operands2[node] != group.operands1[node]) {
+						parents.get(group.operands2[node]).add(node);
+					}
+					break;
+			}
+		}
+		this.parents = new int[size][];
+		for (int node = 0; node < size; node++) {
+			this.parents[node] = toArray(parents.get(node));
+		}
+		this.dependents = new HashMap<String, int[]>();
+		for (final Map.Entry<String, List<Integer>> entry : dependents.entrySet()) {
+			this.dependents.put(entry.getKey(), toArray(entry.getValue()));
+		}
+		this.undeclared = toArray(undeclared);
+		this.leaves = toArray(leaves);
+	}
+
+	/**
+	 * Obt&eacute;m as folhas que devem ser verificadas novamente quando a propriedade informada &eacute; alterada, sem incluir as folhas que n&atilde;o
+	 * declaram as propriedades lidas.
+	 */
+	int[] getDependents(final String property) {
+		final int[] nodes = dependents.get(property);
+		return nodes == null ? NONE : nodes;
+	}
+
+	/**
+	 * Obt&eacute;m as regras da rede.
+	 *
+	 * @return Uma lista imut&aacute;vel com as regras, na ordem em que foram informadas.
+	 */
+	public List<Rule<T>> getRules() {
+		return group.getRules();
+	}
+
+	/**
+	 * Obt&eacute;m as folhas que n&atilde;o declaram as propriedades lidas.
+	 */
+	int[] getUndeclared() {
+		return undeclared;
+	}
+
+	/**
+	 * Avalia o objeto informado por todas as regras da rede no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 *
+	 * @param object O objeto a ser acompanhado.
+	 * @return O {@link RuleMatch} com o resultado de cada regra.
+	 */
+	public RuleMatch<T> match(final T object) {
+		return match(object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado por todas as regras da rede no {@link EvaluationMode modo} desejado.<BR>
+	 * Todas as regras s&atilde;o avaliadas por completo, pois o resultado de cada n&oacute; &eacute; reaproveitado nas altera&ccedil;&otilde;es
+	 * seguintes.
+	 *
+	 * @param object O objeto a ser acompanhado.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return O {@link RuleMatch} com o resultado de cada regra.
+	 */
+	public RuleMatch<T> match(final T object, final EvaluationMode mode) {
+		return new RuleMatch<T>(this, object, mode);
+	}
+}
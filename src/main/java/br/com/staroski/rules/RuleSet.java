@@ -0,0 +1,313 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Conjunto de {@link Rule regras} nomeadas que podem ser substitu&iacute;das enquanto s&atilde;o utilizadas, por exemplo ao recarregar as regras de
+ * um arquivo de configura&ccedil;&atilde;o.<BR>
+ * <BR>
+ * As regras s&atilde;o publicadas em {@link Snapshot vers&otilde;es} imut&aacute;veis e numeradas. A leitura da vers&atilde;o atual nunca aguarda
+ * nada, e cada altera&ccedil;&atilde;o cria uma c&oacute;pia da vers&atilde;o atual com as regras alteradas, que substitui a anterior de uma
+ * &uacute;nica vez. As avalia&ccedil;&otilde;es em andamento terminam com a vers&atilde;o em que come&ccedil;aram.<BR>
+ * <BR>
+ * Antes de serem publicadas, as novas regras passam pela prepara&ccedil;&atilde;o informada na cria&ccedil;&atilde;o do conjunto, por exemplo
+ * <code>Rule::compile</code>, e podem ser avaliadas com objetos de exemplo, assim a nova vers&atilde;o j&aacute; est&aacute; pronta quando passa a
+ * ser utilizada. Se a prepara&ccedil;&atilde;o ou a avalia&ccedil;&atilde;o dos exemplos lan&ccedil;ar uma exce&ccedil;&atilde;o, a vers&atilde;o
+ * atual &eacute; mantida.<BR>
+ * <BR>
+ * Exemplo de utiliza&ccedil;&atilde;o:
+ *
+ * <PRE>
+ * RuleSet&lt;Pessoa&gt; regras = new RuleSet&lt;Pessoa&gt;(Rule::compile);
+ * regras.publish(carregarRegras(), exemplos);
+ *
+ * // em qualquer thread
+ * Evaluation avaliacao = regras.evaluate(&quot;cadastro&quot;, pessoa);
+ * </PRE>
+ *
+ * <B>Observa&ccedil;&atilde;o:</B> As regras do conjunto devem ser avaliadas atrav&eacute;s dos m&eacute;todos <code>evaluate</code>, que n&atilde;o
+ * armazenam nenhum estado nas regras, e n&atilde;o do m&eacute;todo {@link Rule#isSatisfiedBy(Object)}.<BR>
+ * Esta classe pode ser utilizada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+public final class RuleSet<T> {
+
+	/**
+	 * Vers&atilde;o imut&aacute;vel das regras de um {@link RuleSet}.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+	 */
+	public static final class Snapshot<T> {
+
+		private final long version;
+
+		private final Map<String, Rule<T>> rules;
+
+		private Snapshot(final long version, final Map<String, Rule<T>> rules) {
+			this.version = version;
+			this.rules = Collections.unmodifiableMap(rules);
+		}
+
+		/**
+		 * Avalia o objeto informado por todas as regras desta vers&atilde;o no modo {@link EvaluationMode#DIAGNOSTIC}.
+		 *
+		 * @param object O objeto a ser verificado.
+		 * @return A {@link Evaluation avalia&ccedil;&atilde;o} de cada regra, pelo nome, na ordem em que as regras foram publicadas.
+		 */
+		public Map<String, Evaluation> evaluate(final T object) {
+			return evaluate(object, EvaluationMode.DIAGNOSTIC);
+		}
+
+		/**
+		 * Avalia o objeto informado por todas as regras desta vers&atilde;o no {@link EvaluationMode modo} desejado.
+		 *
+		 * @param object O objeto a ser verificado.
+		 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+		 * @return A {@link Evaluation avalia&ccedil;&atilde;o} de cada regra, pelo nome, na ordem em que as regras foram publicadas.
+		 */
+		public Map<String, Evaluation> evaluate(final T object, final EvaluationMode mode) {
+			final Map<String, Evaluation> evaluations = new LinkedHashMap<String, Evaluation>();
+			for (final Map.Entry<String, Rule<T>> entry : rules.entrySet()) {
+				evaluations.put(entry.getKey(), entry.getValue().evaluate(object, mode));
+			}
+			return evaluations;
+		}
+
+		/**
+		 * Avalia o objeto informado pela regra com o nome informado no modo {@link EvaluationMode#DIAGNOSTIC}.
+		 *
+		 * @param name O nome da regra.
+		 * @param object O objeto a ser verificado.
+		 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+		 * @throws IllegalArgumentException Se esta vers&atilde;o n&atilde;o tiver uma regra com o nome informado.
+		 */
+		public Evaluation evaluate(final String name, final T object) {
+			return evaluate(name, object, EvaluationMode.DIAGNOSTIC);
+		}
+
+		/**
+		 * Avalia o objeto informado pela regra com o nome informado no {@link EvaluationMode modo} desejado.
+		 *
+		 * @param name O nome da regra.
+		 * @param object O objeto a ser verificado.
+		 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+		 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+		 * @throws IllegalArgumentException Se esta vers&atilde;o n&atilde;o tiver uma regra com o nome informado.
+		 */
+		public Evaluation evaluate(final String name, final T object, final EvaluationMode mode) {
+			final Rule<T> rule = rules.get(name);
+			if (rule == null) {
+				throw new IllegalArgumentException("unknown rule " + name + " in version " + version);
+			}
+			return rule.evaluate(object, mode);
+		}
+
+		/**
+		 * Obt&eacute;m a regra com o nome informado.
+		 *
+		 * @param name O nome da regra.
+		 * @return A regra preparada ou <code>null</code> se esta vers&atilde;o n&atilde;o tiver uma regra com esse nome.
+		 */
+		public Rule<T> getRule(final String name) {
+			return rules.get(name);
+		}
+
+		/**
+		 * Obt&eacute;m as regras desta vers&atilde;o.
+		 *
+		 * @return Um mapa imut&aacute;vel com as regras preparadas, pelo nome, na ordem em que foram publicadas.
+		 */
+		public Map<String, Rule<T>> getRules() {
+			return rules;
+		}
+
+		/**
+		 * Obt&eacute;m o n&uacute;mero desta vers&atilde;o, que aumenta a cada altera&ccedil;&atilde;o do {@link RuleSet}.
+		 *
+		 * @return O n&uacute;mero da vers&atilde;o, <code>0</code> para a vers&atilde;o inicial sem regras.
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return "Snapshot[version=" + version + ", rules=" + rules.keySet() + "]";
+		}
+	}
+
+	private final UnaryOperator<Rule<T>> preparation;
+
+	private final AtomicReference<Snapshot<T>> current;
+
+	/**
+	 * Cria um conjunto sem regras, cujas regras s&atilde;o publicadas como foram informadas.
+	 */
+	public RuleSet() {
+		this(UnaryOperator.<Rule<T>> identity());
+	}
+
+	/**
+	 * Cria um conjunto sem regras, cujas regras s&atilde;o preparadas antes de serem publicadas.
+	 *
+	 * @param preparation A prepara&ccedil;&atilde;o de cada regra, por exemplo <code>Rule::compile</code> ou <code>Rule::decisionDiagram</code>.
+	 */
+	public RuleSet(final UnaryOperator<Rule<T>> preparation) {
+		this.preparation = Objects.requireNonNull(preparation, "preparation");
+		this.current = new AtomicReference<Snapshot<T>>(new Snapshot<T>(0, new LinkedHashMap<String, Rule<T>>()));
+	}
+
+	/**
+	 * Avalia o objeto informado pela regra com o nome informado na vers&atilde;o atual, no modo {@link EvaluationMode#DIAGNOSTIC}.
+	 *
+	 * @param name O nome da regra.
+	 * @param object O objeto a ser verificado.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+	 * @throws IllegalArgumentException Se a vers&atilde;o atual n&atilde;o tiver uma regra com o nome informado.
+	 */
+	public Evaluation evaluate(final String name, final T object) {
+		return current.get().evaluate(name, object, EvaluationMode.DIAGNOSTIC);
+	}
+
+	/**
+	 * Avalia o objeto informado pela regra com o nome informado na vers&atilde;o atual, no {@link EvaluationMode modo} desejado.
+	 *
+	 * @param name O nome da regra.
+	 * @param object O objeto a ser verificado.
+	 * @param mode O {@link EvaluationMode modo} de avalia&ccedil;&atilde;o.
+	 * @return A {@link Evaluation avalia&ccedil;&atilde;o} do objeto.
+	 * @throws IllegalArgumentException Se a vers&atilde;o atual n&atilde;o tiver uma regra com o nome informado.
+	 */
+	public Evaluation evaluate(final String name, final T object, final EvaluationMode mode) {
+		return current.get().evaluate(name, object, mode);
+	}
+
+	/**
+	 * Obt&eacute;m a vers&atilde;o atual das regras.<BR>
+	 * Para avaliar v&aacute;rias regras com a mesma vers&atilde;o, obtenha a vers&atilde;o uma &uacute;nica vez e utilize somente ela.
+	 *
+	 * @return A vers&atilde;o atual.
+	 */
+	public Snapshot<T> getSnapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Substitui todas as regras do conjunto pelas regras informadas.
+	 *
+	 * @param rules As novas regras, pelo nome.
+	 * @return A vers&atilde;o publicada.
+	 */
+	public Snapshot<T> publish(final Map<String, ? extends Rule<T>> rules) {
+		return publish(rules, Collections.<T> emptyList());
+	}
+
+	/**
+	 * Substitui todas as regras do conjunto pelas regras informadas, avaliando cada uma delas com os objetos de exemplo em ambos os
+	 * {@link EvaluationMode modos} antes da publica&ccedil;&atilde;o.
+	 *
+	 * @param rules As novas regras, pelo nome.
+	 * @param samples Os objetos de exemplo.
+	 * @return A vers&atilde;o publicada.
+	 */
+	public Snapshot<T> publish(final Map<String, ? extends Rule<T>> rules, final Iterable<? extends T> samples) {
+		final Map<String, Rule<T>> prepared = new LinkedHashMap<String, Rule<T>>();
+		for (final Map.Entry<String, ? extends Rule<T>> entry : rules.entrySet()) {
+			prepared.put(Objects.requireNonNull(entry.getKey(), "name"), prepare(entry.getValue(), samples));
+		}
+		return swap(previous -> prepared);
+	}
+
+	/**
+	 * Adiciona ou substitui uma regra, mantendo as demais.
+	 *
+	 * @param name O nome da regra.
+	 * @param rule A nova regra.
+	 * @return A vers&atilde;o publicada.
+	 */
+	public Snapshot<T> put(final String name, final Rule<T> rule) {
+		return put(name, rule, Collections.<T> emptyList());
+	}
+
+	/**
+	 * Adiciona ou substitui uma regra, mantendo as demais, avaliando-a com os objetos de exemplo em ambos os {@link EvaluationMode modos} antes da
+	 * publica&ccedil;&atilde;o.
+	 *
+	 * @param name O nome da regra.
+	 * @param rule A nova regra.
+	 * @param samples Os objetos de exemplo.
+	 * @return A vers&atilde;o publicada.
+	 */
+	public Snapshot<T> put(final String name, final Rule<T> rule, final Iterable<? extends T> samples) {
+		Objects.requireNonNull(name, "name");
+		final Rule<T> prepared = prepare(rule, samples);
+		return swap(previous -> {
+			final Map<String, Rule<T>> rules = new LinkedHashMap<String, Rule<T>>(previous);
+			rules.put(name, prepared);
+			return rules;
+		});
+	}
+
+	/**
+	 * Remove uma regra, mantendo as demais.
+	 *
+	 * @param name O nome da regra.
+	 * @return A vers&atilde;o publicada, ou a vers&atilde;o atual se ela n&atilde;o tiver uma regra com o nome informado.
+	 */
+	public Snapshot<T> remove(final String name) {
+		return swap(previous -> {
+			if (!previous.containsKey(name)) {
+				return null;
+			}
+			final Map<String, Rule<T>> rules = new LinkedHashMap<String, Rule<T>>(previous);
+			rules.remove(name);
+			return rules;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "RuleSet[" + current.get() + "]";
+	}
+
+	/**
+	 * Prepara uma regra e a avalia com os objetos de exemplo, para que as estruturas criadas sob demanda j&aacute; existam quando ela for publicada.
+	 */
+	private Rule<T> prepare(final Rule<T> rule, final Iterable<? extends T> samples) {
+		final Rule<T> prepared = Objects.requireNonNull(preparation.apply(Objects.requireNonNull(rule, "rule")), "prepared rule");
+		for (final T sample : samples) {
+			prepared.evaluate(sample, EvaluationMode.FAST);
+			prepared.evaluate(sample, EvaluationMode.DIAGNOSTIC);
+		}
+		return prepared;
+	}
+
+	/**
+	 * Substitui a vers&atilde;o atual por uma c&oacute;pia alterada, repetindo a altera&ccedil;&atilde;o se outra thread publicou uma vers&atilde;o
+	 * nesse meio tempo. Se a altera&ccedil;&atilde;o retornar <code>null</code>, n&atilde;o h&aacute; nada a alterar e a vers&atilde;o atual &eacute;
+	 * mantida.
+	 */
+	private Snapshot<T> swap(final Function<Map<String, Rule<T>>, Map<String, Rule<T>>> change) {
+		while (true) {
+			final Snapshot<T> previous = current.get();
+			final Map<String, Rule<T>> rules = change.apply(previous.rules);
+			if (rules == null) {
+				return previous;
+			}
+			final Snapshot<T> next = new Snapshot<T>(previous.version + 1, rules);
+			if (current.compareAndSet(previous, next)) {
+				return next;
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package br.com.staroski.rules;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Estat&iacute;sticas das avalia&ccedil;&otilde;es de uma regra, coletadas por um {@link RuleMetrics}.<BR>
+ * Esta classe pode ser atualizada e consultada por v&aacute;rias threads ao mesmo tempo.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public final class RuleStatistics implements RuleStatisticsMBean {
+
+	/**
+	 * Quantidade de faixas do histograma de lat&ecirc;ncia, uma para cada pot&ecirc;ncia de dois de um <code>long</code>.
+	 */
+	public static final int BUCKETS = 64;
+
+	private final String name;
+	private final AtomicLong invocations = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong exceptions = new AtomicLong();
+	private final AtomicLong totalTime = new AtomicLong();
+	private final AtomicLong maximumTime = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	RuleStatistics(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Registra uma avalia&ccedil;&atilde;o.
+	 */
+	void evaluated(final boolean satisfied, final long nanos) {
+		invocations.incrementAndGet();
+		if (!satisfied) {
+			failures.incrementAndGet();
+		}
+		final long time = Math.max(0, nanos);
+		totalTime.addAndGet(time);
+		histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(time)));
+		long maximum = maximumTime.get();
+		while (time > maximum && !maximumTime.compareAndSet(maximum, time)) {
+			maximum = maximumTime.get();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getExceptionCount() {
+		return exceptions.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getInvocationCount() {
+		return invocations.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getLatencyHistogram() {
+		final long[] buckets = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = histogram.get(i);
+		}
+		return buckets;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaximumTime() {
+		return maximumTime.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMeanTime() {
+		final long count = invocations.get();
+		return count == 0 ? 0 : (double) totalTime.get() / count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getTotalTime() {
+		return totalTime.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		invocations.set(0);
+		failures.set(0);
+		exceptions.set(0);
+		totalTime.set(0);
+		maximumTime.set(0);
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram.set(i, 0);
+		}
+	}
+
+	/**
+	 * Registra uma exce&ccedil;&atilde;o.
+	 */
+	void thrown() {
+		exceptions.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return name + " [invocations=" + invocations + ", failures=" + failures + ", exceptions=" + exceptions + ", mean=" + getMeanTime() + "ns]";
+	}
+}
@@ -0,0 +1,71 @@
+package br.com.staroski.rules;
+
+/**
+ * Interface de gerenciamento JMX das {@link RuleStatistics estat&iacute;sticas} de uma regra.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public interface RuleStatisticsMBean {
+
+	/**
+	 * Obt&eacute;m a quantidade de exce&ccedil;&otilde;es lan&ccedil;adas durante as avalia&ccedil;&otilde;es da regra.
+	 * 
+	 * @return A quantidade de exce&ccedil;&otilde;es.
+	 */
+	public long getExceptionCount();
+
+	/**
+	 * Obt&eacute;m a quantidade de avalia&ccedil;&otilde;es em que o objeto n&atilde;o atendeu &agrave; regra.
+	 * 
+	 * @return A quantidade de falhas.
+	 */
+	public long getFailureCount();
+
+	/**
+	 * Obt&eacute;m a quantidade de avalia&ccedil;&otilde;es da regra.
+	 * 
+	 * @return A quantidade de avalia&ccedil;&otilde;es.
+	 */
+	public long getInvocationCount();
+
+	/**
+	 * Obt&eacute;m o histograma do tempo das avalia&ccedil;&otilde;es, onde a posi&ccedil;&atilde;o <code>i</code> cont&eacute;m a quantidade de
+	 * avalia&ccedil;&otilde;es que levaram de <code>2<sup>i-1</sup></code> at&eacute; <code>2<sup>i</sup> - 1</code> nanossegundos.
+	 * 
+	 * @return O histograma de lat&ecirc;ncia.
+	 */
+	public long[] getLatencyHistogram();
+
+	/**
+	 * Obt&eacute;m o maior tempo de uma avalia&ccedil;&atilde;o, em nanossegundos.
+	 * 
+	 * @return O maior tempo.
+	 */
+	public long getMaximumTime();
+
+	/**
+	 * Obt&eacute;m o tempo m&eacute;dio das avalia&ccedil;&otilde;es, em nanossegundos.
+	 * 
+	 * @return O tempo m&eacute;dio.
+	 */
+	public double getMeanTime();
+
+	/**
+	 * Obt&eacute;m o nome da regra.
+	 * 
+	 * @return O nome da regra.
+	 */
+	public String getName();
+
+	/**
+	 * Obt&eacute;m o tempo total das avalia&ccedil;&otilde;es, em nanossegundos.
+	 * 
+	 * @return O tempo total.
+	 */
+	public long getTotalTime();
+
+	/**
+	 * Zera as estat&iacute;sticas.
+	 */
+	public void reset();
+}
@@ -0,0 +1,30 @@
+package br.com.staroski.rules;
+
+/**
+ * Variante da {@link Specification especifica&ccedil;&atilde;o} que n&atilde;o utiliza exce&ccedil;&otilde;es para indicar que um objeto n&atilde;o a
+ * atende.<BR>
+ * Se o objeto atende &agrave; {@link SilentSpecification especifica&ccedil;&atilde;o}, o m&eacute;todo {@link #verify(Object, Violations)} deve retornar
+ * <code>true</code>.<BR>
+ * Se o objeto n&atilde;o atende &agrave; {@link SilentSpecification especifica&ccedil;&atilde;o}, o motivo deve ser informado em {@link Violations} e o
+ * m&eacute;todo deve retornar <code>false</code>.<BR>
+ * <BR>
+ * Como nenhuma exce&ccedil;&atilde;o &eacute; criada, a verifica&ccedil;&atilde;o de objetos que n&atilde;o atendem &agrave; especifica&ccedil;&atilde;o
+ * n&atilde;o tem o custo de preencher a pilha de execu&ccedil;&atilde;o de uma {@link UnattendedException}.<BR>
+ * <BR>
+ * <I><B>Dica: </B> Consulte a documenta&ccedil;&atilde;o da classe {@link Rule} para mais detalhes.</I>
+ * 
+ * @author Ricardo Artur Staroski
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o desta interface.
+ */
+public interface SilentSpecification<T> {
+
+	/**
+	 * Verifica se o objeto informado atende, ou n&atilde;o, a especifica&ccedil;&atilde;o desta interface.
+	 * 
+	 * @param object O objeto a ser verificado.
+	 * @param violations Onde devem ser informados os motivos de o objeto n&atilde;o atender a especifica&ccedil;&atilde;o.
+	 * 
+	 * @return <code>true</code> se o objeto atender a especifica&ccedil;&atilde;o e <code>false</code> caso contr&aacute;rio.
+	 */
+	public boolean verify(T object, Violations violations);
+}
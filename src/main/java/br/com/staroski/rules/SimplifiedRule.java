@@ -0,0 +1,246 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+
+/**
+ * Regra interna obtida atrav&eacute;s do m&eacute;todo {@link Rule#simplify()}, que no modo {@link EvaluationMode#FAST} avalia uma express&atilde;o
+ * simplificada equivalente &agrave; regra original.<BR>
+ * <BR>
+ * As nega&ccedil;&otilde;es s&atilde;o empurradas at&eacute; as folhas pelas leis de De Morgan e as opera&ccedil;&otilde;es <B>E</B> e <B>OU</B> s&atilde;o
+ * achatadas e simplificadas:<BR>
+ * - idempot&ecirc;ncia: <code>a &and; a = a</code>;<BR>
+ * - complemento: <code>a &and; &not;a = falso</code> e <code>a &or; &not;a = verdadeiro</code>;<BR>
+ * - absor&ccedil;&atilde;o: <code>a &and; (a &or; b) = a</code> e <code>a &or; (a &and; b) = a</code>;<BR>
+ * - constantes: <code>falso &and; a = falso</code> e <code>verdadeiro &and; a = a</code>, e o mesmo para <B>OU</B>.<BR>
+ * Duas folhas s&atilde;o iguais quando suas {@link Specification especifica&ccedil;&otilde;es} s&atilde;o iguais, como no {@link RuleGroup}. A
+ * express&atilde;o simplificada &eacute; {@link Rule#compile(EvaluationMode) compilada} e os operandos mant&ecirc;m a ordem da sua primeira
+ * ocorr&ecirc;ncia.<BR>
+ * <BR>
+ * No modo {@link EvaluationMode#DIAGNOSTIC} a regra original &eacute; avaliada, de modo que os detalhes s&atilde;o os mesmos.
+ *
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender as regras.
+ */
+final class SimplifiedRule<T> extends Rule<T> {
+
+	/**
+	 * Termo da express&atilde;o simplificada: uma constante, uma folha possivelmente negada ou uma opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B>.<BR>
+	 * Os operandos s&atilde;o um conjunto, assim dois termos com os mesmos operandos em outra ordem s&atilde;o iguais.
+	 */
+	private static final class Term {
+
+		static final int TRUE = -1;
+		static final int FALSE = -2;
+
+		static final Term VERUM = new Term(TRUE, -1, false, Collections.<Term> emptySet());
+		static final Term FALSUM = new Term(FALSE, -1, false, Collections.<Term> emptySet());
+
+		/**
+		 * O tipo do termo: {@link #TRUE}, {@link #FALSE}, {@link Expression#LEAF}, {@link Expression#AND} ou {@link Expression#OR}.
+		 */
+		final int kind;
+
+		/**
+		 * O &iacute;ndice da folha, somente para {@link Expression#LEAF}.
+		 */
+		final int leaf;
+
+		final boolean negated;
+
+		final Set<Term> operands;
+
+		private final int hash;
+
+		Term(final int kind, final int leaf, final boolean negated, final Set<Term> operands) {
+			this.kind = kind;
+			this.leaf = leaf;
+			this.negated = negated;
+			this.operands = operands;
+			this.hash = Objects.hash(kind, leaf, negated, operands);
+		}
+
+		static Term constant(final boolean value) {
+			return value ? VERUM : FALSUM;
+		}
+
+		/**
+		 * Obt&eacute;m o complemento deste termo pelas leis de De Morgan.
+		 */
+		Term complement() {
+			switch (kind) {
+				case TRUE:
+					return FALSUM;
+				case FALSE:
+					return VERUM;
+				case Expression.LEAF:
+					return new Term(kind, leaf, !negated, operands);
+				default:
+					final Set<Term> complements = new LinkedHashSet<Term>();
+					for (final Term operand : operands) {
+						complements.add(operand.complement());
+					}
+					return new Term(kind == Expression.AND ? Expression.OR : Expression.AND, -1, false, complements);
+			}
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj instanceof Term) {
+				final Term other = (Term) obj;
+				return hash == other.hash && kind == other.kind && leaf == other.leaf && negated == other.negated && operands.equals(other.operands);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Combina os termos informados numa opera&ccedil;&atilde;o <B>E</B> ou <B>OU</B> simplificada.
+	 */
+	private static Term combine(final int kind, final List<Term> terms) {
+		final boolean and = kind == Expression.AND;
+		final Term identity = Term.constant(and);
+		final Term absorbing = Term.constant(!and);
+		final Set<Term> operands = new LinkedHashSet<Term>();
+		for (final Term term : terms) {
+			if (term.equals(absorbing)) {
+				return absorbing;
+			}
+			if (term.kind == kind) {
+				operands.addAll(term.operands);
+			} else if (!term.equals(identity)) {
+				operands.add(term);
+			}
+		}
+		for (final Term operand : operands) {
+			if (operands.contains(operand.complement())) {
+				return absorbing;
+			}
+		}
+		// absorção: um operando da operação dual é descartado se contém outro operando desta operação
+		final List<Term> kept = new ArrayList<Term>(operands);
+		for (final Iterator<Term> i = kept.iterator(); i.hasNext();) {
+			final Term term = i.next();
+			if (term.kind != Expression.LEAF && term.kind != kind) {
+				for (final Term other : kept) {
+					if (other != term && (term.operands.contains(other) //
+							|| (other.kind == term.kind && term.operands.containsAll(other.operands)))) {
+						i.remove();
+						break;
+					}
+				}
+			}
+		}
+		if (kept.isEmpty()) {
+			return identity;
+		}
+		if (kept.size() == 1) {
+			return kept.get(0);
+		}
+		return new Term(kind, -1, false, new LinkedHashSet<Term>(kept));
+	}
+
+	private final Rule<T> source;
+
+	/**
+	 * A express&atilde;o simplificada compilada ou <code>null</code> se ela for uma constante.
+	 */
+	private final Rule<T> simplified;
+
+	/**
+	 * O resultado da express&atilde;o simplificada quando ela &eacute; uma constante.
+	 */
+	private final boolean constant;
+
+	/**
+	 * As regras de cada folha distinta, na ordem da primeira ocorr&ecirc;ncia.
+	 */
+	private final List<Rule<T>> leaves = new ArrayList<Rule<T>>();
+
+	private final Map<Object, Integer> indexes = new HashMap<Object, Integer>();
+
+	SimplifiedRule(final Rule<T> source) {
+		this.source = source;
+		final Term term = simplify(Expression.of(source), false);
+		this.constant = term.kind == Term.TRUE;
+		this.simplified = term.kind == Term.TRUE || term.kind == Term.FALSE ? null : CompiledRule.compile(rule(term), EvaluationMode.FAST, false);
+	}
+
+	/**
+	 * Obt&eacute;m a regra original.
+	 */
+	Rule<T> getSource() {
+		return source;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSatisfiedBy(final T object) {
+		final Details details = new Details();
+		final boolean satisfied = test(object, details);
+		getModifiableDetails().addAll(details);
+		return satisfied;
+	}
+
+	/**
+	 * Reconstr&oacute;i a regra de um termo que n&atilde;o &eacute; constante.
+	 */
+	private Rule<T> rule(final Term term) {
+		if (term.kind == Expression.LEAF) {
+			final Rule<T> leaf = leaves.get(term.leaf);
+			return term.negated ? leaf.not() : leaf;
+		}
+		Rule<T> rule = null;
+		for (final Term operand : term.operands) {
+			final Rule<T> next = rule(operand);
+			rule = rule == null ? next : term.kind == Expression.AND ? rule.and(next) : rule.or(next);
+		}
+		return rule;
+	}
+
+	/**
+	 * Simplifica uma express&atilde;o, possivelmente negada.
+	 */
+	private Term simplify(final Expression<T> expression, final boolean negate) {
+		switch (expression.kind) {
+			case Expression.LEAF:
+				final Object key = Expression.key(expression.rule);
+				Integer index = indexes.get(key);
+				if (index == null) {
+					index = leaves.size();
+					indexes.put(key, index);
+					leaves.add(expression.rule);
+				}
+				return new Term(Expression.LEAF, index, negate, Collections.<Term> emptySet());
+			case Expression.NOT:
+				return simplify(expression.operands.get(0), !negate);
+			default:
+				// De Morgan: um E negado é um OU dos operandos negados e vice-versa
+				final int kind = (expression.kind == Expression.AND) != negate ? Expression.AND : Expression.OR;
+				final List<Term> terms = new ArrayList<Term>(expression.operands.size());
+				for (final Expression<T> operand : expression.operands) {
+					terms.add(simplify(operand, negate));
+				}
+				return combine(kind, terms);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	boolean test(final T object, final Details details) {
+		if (details != null) {
+			return source.test(object, details);
+		}
+		return simplified == null ? constant : simplified.test(object, null);
+	}
+}
@@ -6,6 +6,8 @@ package br.com.staroski.rules;
  * {@link #verify(Object)}.<BR>
  * Se o objeto atende &agrave; {@link Specification especifica&ccedil;&atilde;o}, ele deve retornar normalmente.<BR>
  * Se o objeto n&atilde;o atende &agrave; {@link Specification especifica&ccedil;&atilde;o}, ele deve lan&ccedil;ar uma exce&ccedil;&atilde;o do tipo {@link UnattendedException}.<BR>
+ * Quando a verifica&ccedil;&atilde;o falha com frequ&ecirc;ncia, prefira implementar {@link SilentSpecification} ou lan&ccedil;ar uma
+ * {@link UnattendedException#UnattendedException(String, boolean) exce&ccedil;&atilde;o sem pilha de execu&ccedil;&atilde;o}.<BR>
  * <BR>
  * <I><B>Dica: </B> Consulte a documenta&ccedil;&atilde;o da classe {@link Rule} para mais detalhes.</I>
  * 
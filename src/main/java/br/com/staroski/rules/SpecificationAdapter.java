@@ -0,0 +1,74 @@
+package br.com.staroski.rules;
+
+/**
+ * Adapta uma {@link Specification especifica&ccedil;&atilde;o} convencional para o contrato da {@link SilentSpecification especifica&ccedil;&atilde;o
+ * silenciosa}, convertendo a {@link UnattendedException} lan&ccedil;ada em uma viola&ccedil;&atilde;o.
+ * 
+ * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a especifica&ccedil;&atilde;o.
+ */
+final class SpecificationAdapter<T> implements SilentSpecification<T> {
+
+	private final Specification<T> spec;
+
+	/**
+	 * Cria um novo adaptador.
+	 * 
+	 * @param spec A especifica&ccedil;&atilde;o a ser adaptada.
+	 */
+	SpecificationAdapter(final Specification<T> spec) {
+		this.spec = spec;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof SpecificationAdapter) {
+			return spec.equals(((SpecificationAdapter<?>) obj).spec);
+		}
+		return false;
+	}
+
+	/**
+	 * Obt&eacute;m a especifica&ccedil;&atilde;o adaptada.
+	 * 
+	 * @return A especifica&ccedil;&atilde;o adaptada.
+	 */
+	Specification<T> getSpecification() {
+		return spec;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return spec.hashCode();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return spec.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean verify(final T object, final Violations violations) {
+		try {
+			spec.verify(object);
+			return true;
+		} catch (UnattendedException e) {
+			e.report(violations);
+			return false;
+		}
+	}
+}
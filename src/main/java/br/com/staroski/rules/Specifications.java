@@ -0,0 +1,394 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.regex.*;
+
+/**
+ * Biblioteca de {@link Rule regras} prontas para as verifica&ccedil;&otilde;es mais comuns, criadas a partir de uma fun&ccedil;&atilde;o que obt&eacute;m o
+ * valor verificado do objeto.<BR>
+ * <BR>
+ * Todo o trabalho que n&atilde;o depende do valor &eacute; feito uma &uacute;nica vez, na cria&ccedil;&atilde;o da regra: as express&otilde;es regulares
+ * s&atilde;o compiladas e cada thread reutiliza o seu {@link Matcher}, os conjuntos de caracteres s&atilde;o mapas de bits e os conjuntos de
+ * constantes s&atilde;o {@link EnumSet}s. Nenhum objeto &eacute; criado durante as verifica&ccedil;&otilde;es e a mensagem informada &eacute; a
+ * viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; regra.<BR>
+ * <BR>
+ * As especifica&ccedil;&otilde;es <code>Nome</code> e <code>Sexo</code> do exemplo da classe {@link Rule} podem ser escritas assim:
+ *
+ * <PRE>
+ * Rule&lt;Pessoa&gt; nome = Specifications.matches(pessoa -&gt; pessoa.nome, &quot;[A-Z]{1}[a-z]+&quot;,
+ * 		&quot;Nome precisa come&amp;ccedilar com letra mai&amp;uacutescula e ter pelo menos duas letras&quot;);
+ * Rule&lt;Pessoa&gt; idade = Specifications.betweenInt(pessoa -&gt; pessoa.idade, 0, Integer.MAX_VALUE, &quot;Idade n&amp;atildeo pode ser negativa&quot;);
+ * Rule&lt;Pessoa&gt; sexo = Specifications.charIn(pessoa -&gt; pessoa.sexo, &quot;MF&quot;, &quot;Sexo s&amp;oacute pode ser 'M' ou 'F'&quot;);
+ * </PRE>
+ *
+ * Os valores <code>null</code> n&atilde;o atendem &agrave;s regras, com exce&ccedil;&atilde;o das regras que tratam de <code>null</code>.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public final class Specifications {
+
+	/**
+	 * Conjunto de caracteres armazenado num mapa de bits, com um bit para cada caractere at&eacute; o maior do conjunto.
+	 */
+	private static final class CharSet {
+
+		private final long[] words;
+		private final String chars;
+
+		CharSet(final String chars) {
+			int max = 0;
+			for (int i = 0; i < chars.length(); i++) {
+				max = Math.max(max, chars.charAt(i));
+			}
+			words = new long[(max >> 6) + 1];
+			for (int i = 0; i < chars.length(); i++) {
+				final char c = chars.charAt(i);
+				words[c >> 6] |= 1L << c;
+			}
+			this.chars = chars;
+		}
+
+		boolean contains(final int c) {
+			final int word = c >>> 6;
+			return word < words.length && (words[word] & (1L << c)) != 0;
+		}
+
+		boolean containsAll(final CharSequence sequence) {
+			for (int i = 0, n = sequence.length(); i < n; i++) {
+				if (!contains(sequence.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return chars;
+		}
+	}
+
+	/**
+	 * Especifica&ccedil;&atilde;o que verifica um valor obtido do objeto, repassando uma mensagem fixa quando ele n&atilde;o a atende.
+	 */
+	private abstract static class FieldSpecification<T, V> implements SilentSpecification<T> {
+
+		private final Function<? super T, ? extends V> field;
+		private final String message;
+		private final String description;
+
+		FieldSpecification(final Function<? super T, ? extends V> field, final String message, final String description) {
+			this.field = Objects.requireNonNull(field, "field");
+			this.message = Objects.requireNonNull(message, "message");
+			this.description = description;
+		}
+
+		/**
+		 * Verifica o valor obtido do objeto, que pode ser <code>null</code>.
+		 */
+		abstract boolean accept(V value);
+
+		@Override
+		public final String toString() {
+			return description;
+		}
+
+		@Override
+		public final boolean verify(final T object, final Violations violations) {
+			if (accept(field.apply(object))) {
+				return true;
+			}
+			violations.report(message);
+			return false;
+		}
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo valor <code>double</code> est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o valor do objeto.
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> betweenDouble(final ToDoubleFunction<? super T> field, final double min, final double max, final String message) {
+		return Rule.createDouble(field, range(min, max, message));
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo valor <code>int</code> est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o valor do objeto.
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> betweenInt(final ToIntFunction<? super T> field, final int min, final int max, final String message) {
+		return Rule.createInt(field, range(min, max, message));
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo valor <code>long</code> est&aacute; entre os valores informados, inclusive.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o valor do objeto.
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> betweenLong(final ToLongFunction<? super T> field, final long min, final long max, final String message) {
+		return Rule.createLong(field, range(min, max, message));
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo caractere pertence ao conjunto informado, como um <code>switch</code> com um <code>case</code>
+	 * para cada caractere.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o caractere do objeto, por exemplo <code>pessoa -&gt; pessoa.sexo</code>.
+	 * @param chars Os caracteres aceitos.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o caractere n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> charIn(final ToIntFunction<? super T> field, final String chars, final String message) {
+		final CharSet set = new CharSet(chars);
+		Objects.requireNonNull(message, "message");
+		return Rule.createInt(field, new IntSpecification() {
+
+			@Override
+			public String toString() {
+				return "in [" + set + "]";
+			}
+
+			@Override
+			public boolean verify(final int value, final Violations violations) {
+				if (set.contains(value)) {
+					return true;
+				}
+				violations.report(message);
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo texto s&oacute; possui caracteres do conjunto informado.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o texto do objeto.
+	 * @param chars Os caracteres aceitos, por exemplo <code>"0123456789"</code>.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o texto n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> consistsOf(final Function<? super T, ? extends CharSequence> field, final String chars, final String message) {
+		final CharSet set = new CharSet(chars);
+		return Rule.create(new FieldSpecification<T, CharSequence>(field, message, "consists of [" + set + "]") {
+
+			@Override
+			boolean accept(final CharSequence value) {
+				return value != null && set.containsAll(value);
+			}
+		});
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo texto tem a quantidade de caracteres entre os valores informados, inclusive.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o texto do objeto.
+	 * @param min A menor quantidade de caracteres aceita.
+	 * @param max A maior quantidade de caracteres aceita.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o texto n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> length(final Function<? super T, ? extends CharSequence> field, final int min, final int max, final String message) {
+		return Rule.create(new FieldSpecification<T, CharSequence>(field, message, "length in [" + min + ", " + max + "]") {
+
+			@Override
+			boolean accept(final CharSequence value) {
+				if (value == null) {
+					return false;
+				}
+				final int length = value.length();
+				return length >= min && length <= max;
+			}
+		});
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo texto corresponde inteiramente &agrave; {@link Pattern express&atilde;o regular} informada.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o texto do objeto.
+	 * @param pattern A express&atilde;o regular compilada.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o texto n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> matches(final Function<? super T, ? extends CharSequence> field, final Pattern pattern, final String message) {
+		// cada thread reutiliza o seu Matcher, que não pode ser compartilhado
+		final ThreadLocal<Matcher> matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+		return Rule.create(new FieldSpecification<T, CharSequence>(field, message, "matches " + pattern.pattern()) {
+
+			@Override
+			boolean accept(final CharSequence value) {
+				if (value == null) {
+					return false;
+				}
+				final Matcher matcher = matchers.get();
+				try {
+					return matcher.reset(value).matches();
+				} finally {
+					// não mantém o texto verificado
+					matcher.reset("");
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo texto corresponde inteiramente &agrave; express&atilde;o regular informada, compilada uma &uacute;nica
+	 * vez.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o texto do objeto.
+	 * @param regex A express&atilde;o regular, no formato da classe {@link Pattern}.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o texto n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> matches(final Function<? super T, ? extends CharSequence> field, final String regex, final String message) {
+		return matches(field, Pattern.compile(regex), message);
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cujo valor n&atilde;o &eacute; <code>null</code>.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m o valor do objeto.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor &eacute; <code>null</code>.
+	 * @return A regra criada.
+	 */
+	public static <T> Rule<T> notNull(final Function<? super T, ?> field, final String message) {
+		return Rule.create(new FieldSpecification<T, Object>(field, message, "not null") {
+
+			@Override
+			boolean accept(final Object value) {
+				return value != null;
+			}
+		});
+	}
+
+	/**
+	 * Cria uma regra que atende aos objetos cuja constante pertence ao conjunto informado.
+	 *
+	 * @param <T> Tipo de dado do objeto que pode ou n&atilde;o atender a regra.
+	 * @param <E> Tipo de dado da constante.
+	 * @param field A fun&ccedil;&atilde;o que obt&eacute;m a constante do objeto.
+	 * @param values As constantes aceitas, copiadas na cria&ccedil;&atilde;o da regra.
+	 * @param message A viola&ccedil;&atilde;o repassada quando a constante n&atilde;o atende &agrave; regra.
+	 * @return A regra criada.
+	 */
+	public static <T, E extends Enum<E>> Rule<T> oneOf(final Function<? super T, ? extends E> field, final EnumSet<E> values, final String message) {
+		final EnumSet<E> set = values.clone();
+		return Rule.create(new FieldSpecification<T, E>(field, message, "one of " + set) {
+
+			@Override
+			boolean accept(final E value) {
+				return value != null && set.contains(value);
+			}
+		});
+	}
+
+	/**
+	 * Cria uma {@link DoubleSpecification} que atende aos valores entre os valores informados, inclusive.<BR>
+	 * Os valores {@link Double#NaN} n&atilde;o atendem &agrave; especifica&ccedil;&atilde;o.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; especifica&ccedil;&atilde;o.
+	 * @return A especifica&ccedil;&atilde;o criada.
+	 */
+	public static DoubleSpecification range(final double min, final double max, final String message) {
+		Objects.requireNonNull(message, "message");
+		return new DoubleSpecification() {
+
+			@Override
+			public String toString() {
+				return "in [" + min + ", " + max + "]";
+			}
+
+			@Override
+			public boolean verify(final double value, final Violations violations) {
+				if (value >= min && value <= max) {
+					return true;
+				}
+				violations.report(message);
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Cria uma {@link IntSpecification} que atende aos valores entre os valores informados, inclusive.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; especifica&ccedil;&atilde;o.
+	 * @return A especifica&ccedil;&atilde;o criada.
+	 */
+	public static IntSpecification range(final int min, final int max, final String message) {
+		Objects.requireNonNull(message, "message");
+		return new IntSpecification() {
+
+			@Override
+			public String toString() {
+				return "in [" + min + ", " + max + "]";
+			}
+
+			@Override
+			public boolean verify(final int value, final Violations violations) {
+				if (value >= min && value <= max) {
+					return true;
+				}
+				violations.report(message);
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Cria uma {@link LongSpecification} que atende aos valores entre os valores informados, inclusive.
+	 *
+	 * @param min O menor valor aceito.
+	 * @param max O maior valor aceito.
+	 * @param message A viola&ccedil;&atilde;o repassada quando o valor n&atilde;o atende &agrave; especifica&ccedil;&atilde;o.
+	 * @return A especifica&ccedil;&atilde;o criada.
+	 */
+	public static LongSpecification range(final long min, final long max, final String message) {
+		Objects.requireNonNull(message, "message");
+		return new LongSpecification() {
+
+			@Override
+			public String toString() {
+				return "in [" + min + ", " + max + "]";
+			}
+
+			@Override
+			public boolean verify(final long value, final Violations violations) {
+				if (value >= min && value <= max) {
+					return true;
+				}
+				violations.report(message);
+				return false;
+			}
+		};
+	}
+
+	private Specifications() {
+	}
+}
@@ -1,5 +1,8 @@
 package br.com.staroski.rules;
 
+import java.io.*;
+import java.util.function.*;
+
 /**
  * Exce&ccedil;&atilde;o lan&ccedil;ada quando um objeto n&atilde;o atende &agrave; {@link Specification especifica&ccedil;&atilde;o} de uma {@link Rule regra}.
  *
@@ -9,6 +12,19 @@ public class UnattendedException extends Exception {
 
 	private static final long serialVersionUID = 1;
 
+	/**
+	 * A fun&ccedil;&atilde;o que constr&oacute;i a mensagem ou <code>null</code>.
+	 */
+	private transient Supplier<String> supplier;
+
+	/**
+	 * A mensagem constru&iacute;da pela fun&ccedil;&atilde;o ou <code>null</code> enquanto ela n&atilde;o for lida.<BR>
+	 * As exce&ccedil;&otilde;es pr&eacute;-alocadas s&atilde;o compartilhadas por todas as threads, por isso a mensagem n&atilde;o &eacute; protegida por
+	 * bloqueios: threads que a leem ao mesmo tempo podem executar a fun&ccedil;&atilde;o mais de uma vez, e qualquer um dos resultados iguais &eacute;
+	 * mantido.
+	 */
+	private volatile String message;
+
 	/**
 	 * @see Exception#Exception(String)
 	 */
@@ -16,6 +32,20 @@ public class UnattendedException extends Exception {
 		super(message);
 	}
 
+	/**
+	 * Cria uma exce&ccedil;&atilde;o que, se <code>writableStackTrace</code> for <code>false</code>, n&atilde;o preenche a pilha de execu&ccedil;&atilde;o
+	 * nem aceita exce&ccedil;&otilde;es suprimidas.<BR>
+	 * Exce&ccedil;&otilde;es assim s&atilde;o baratas de lan&ccedil;ar e podem ser pr&eacute;-alocadas, por exemplo numa constante, e reutilizadas por
+	 * todas as chamadas de {@link Specification#verify(Object)}.
+	 * 
+	 * @param message O detalhe do motivo de o objeto n&atilde;o atender &agrave; especifica&ccedil;&atilde;o.
+	 * @param writableStackTrace Se a pilha de execu&ccedil;&atilde;o deve ou n&atilde;o ser preenchida.
+	 * @see Exception#Exception(String, Throwable, boolean, boolean)
+	 */
+	public UnattendedException(String message, boolean writableStackTrace) {
+		super(message, null, writableStackTrace, writableStackTrace);
+	}
+
 	/**
 	 * @see Exception#Exception(String, Throwable)
 	 */
@@ -23,6 +53,31 @@ public class UnattendedException extends Exception {
 		super(message, cause);
 	}
 
+	/**
+	 * Cria uma exce&ccedil;&atilde;o cuja mensagem s&oacute; &eacute; constru&iacute;da quando for lida.
+	 * 
+	 * @param message A fun&ccedil;&atilde;o que constr&oacute;i o detalhe do motivo de o objeto n&atilde;o atender &agrave; especifica&ccedil;&atilde;o.
+	 * @see #UnattendedException(Supplier, boolean)
+	 */
+	public UnattendedException(Supplier<String> message) {
+		this(message, true);
+	}
+
+	/**
+	 * Cria uma exce&ccedil;&atilde;o cuja mensagem s&oacute; &eacute; constru&iacute;da quando for lida.<BR>
+	 * As {@link Rule regras} repassam a fun&ccedil;&atilde;o aos detalhes sem execut&aacute;-la, assim a mensagem nunca &eacute; constru&iacute;da
+	 * quando somente o resultado da avalia&ccedil;&atilde;o &eacute; utilizado.
+	 * 
+	 * @param message A fun&ccedil;&atilde;o que constr&oacute;i o detalhe do motivo de o objeto n&atilde;o atender &agrave; especifica&ccedil;&atilde;o, que
+	 *            pode ser executada mais de uma vez e por isso deve sempre construir a mesma mensagem.
+	 * @param writableStackTrace Se a pilha de execu&ccedil;&atilde;o deve ou n&atilde;o ser preenchida.
+	 * @see #UnattendedException(String, boolean)
+	 */
+	public UnattendedException(Supplier<String> message, boolean writableStackTrace) {
+		super(null, null, writableStackTrace, writableStackTrace);
+		this.supplier = message;
+	}
+
 	/**
 	 * @see Exception#Exception(Throwable)
 	 */
@@ -30,4 +85,33 @@ public class UnattendedException extends Exception {
 		super(cause);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getMessage() {
+		String built = message;
+		if (built == null && supplier != null) {
+			built = supplier.get();
+			message = built;
+		}
+		return built != null ? built : super.getMessage();
+	}
+
+	/**
+	 * Informa a mensagem desta exce&ccedil;&atilde;o como uma viola&ccedil;&atilde;o, sem constru&iacute;-la caso ela ainda n&atilde;o tenha sido
+	 * constru&iacute;da.
+	 */
+	void report(final Violations violations) {
+		if (message == null && supplier != null) {
+			violations.report(supplier);
+		} else {
+			violations.report(getMessage());
+		}
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		getMessage();
+		out.defaultWriteObject();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package br.com.staroski.rules;
+
+import java.util.function.*;
+
+/**
+ * Interface atrav&eacute;s da qual uma {@link SilentSpecification especifica&ccedil;&atilde;o silenciosa} informa os motivos de um objeto n&atilde;o
+ * atend&ecirc;-la, sem precisar lan&ccedil;ar uma {@link UnattendedException}.
+ *
+ * @author Ricardo Artur Staroski
+ */
+public interface Violations {
+
+	/**
+	 * Informa o motivo de um objeto n&atilde;o atender &agrave; {@link SilentSpecification especifica&ccedil;&atilde;o}.<BR>
+	 * Mensagens repetidas s&atilde;o consideradas uma &uacute;nica vez.
+	 * 
+	 * @param message O detalhe do motivo de o objeto n&atilde;o atender &agrave; especifica&ccedil;&atilde;o.
+	 */
+	public void report(String message);
+
+	/**
+	 * Informa o motivo de um objeto n&atilde;o atender &agrave; {@link SilentSpecification especifica&ccedil;&atilde;o} atrav&eacute;s de um formato e seus
+	 * argumentos, como no m&eacute;todo {@link String#format(String, Object...)}.<BR>
+	 * A mensagem s&oacute; &eacute; formatada se os detalhes forem lidos, no modo {@link EvaluationMode#FAST} ela nunca &eacute; formatada.
+	 * 
+	 * @param format O formato, ou c&oacute;digo, da mensagem.
+	 * @param args Os argumentos do formato.
+	 */
+	public default void report(final String format, final Object... args) {
+		report(String.format(format, args));
+	}
+
+	/**
+	 * Informa o motivo de um objeto n&atilde;o atender &agrave; {@link SilentSpecification especifica&ccedil;&atilde;o} atrav&eacute;s de uma
+	 * fun&ccedil;&atilde;o que constr&oacute;i a mensagem.<BR>
+	 * A mensagem s&oacute; &eacute; constru&iacute;da se os detalhes forem lidos, no modo {@link EvaluationMode#FAST} ela nunca &eacute;
+	 * constru&iacute;da.
+	 * 
+	 * @param message A fun&ccedil;&atilde;o que constr&oacute;i o detalhe do motivo de o objeto n&atilde;o atender &agrave; especifica&ccedil;&atilde;o.
+	 */
+	public default void report(final Supplier<String> message) {
+		report(message.get());
+	}
+}
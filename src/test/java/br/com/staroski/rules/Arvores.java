@@ -0,0 +1,69 @@
+package br.com.staroski.rules;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+// Árvores aleatórias de regras sobre um conjunto pequeno de folhas compartilhadas
+final class Arvores {
+
+	static final int FOLHAS = 5;
+
+	// quantidade de verificações de todas as folhas
+	final AtomicInteger verificacoes = new AtomicInteger();
+
+	final List<Rule<int[]>> folhas = new ArrayList<Rule<int[]>>();
+
+	// a folha i não é atendida quando a posição i do objeto é zero
+	Arvores() {
+		for (int i = 0; i < FOLHAS; i++) {
+			final int posicao = i;
+			if (i % 2 == 0) {
+				final Specification<int[]> spec = objeto -> {
+					verificacoes.incrementAndGet();
+					if (objeto[posicao] == 0) {
+						throw new UnattendedException("folha " + posicao);
+					}
+				};
+				folhas.add(Rule.create(spec));
+				// outra regra com a mesma especificação é a mesma folha
+				folhas.add(Rule.create(spec));
+			} else {
+				folhas.add(Rule.create((int[] objeto, Violations violacoes) -> {
+					verificacoes.incrementAndGet();
+					if (objeto[posicao] == 0) {
+						violacoes.report("folha %d", posicao);
+						return false;
+					}
+					return true;
+				}));
+			}
+		}
+	}
+
+	Rule<int[]> arvore(Random sorteio, int profundidade) {
+		if (profundidade == 0 || sorteio.nextInt(4) == 0) {
+			return folhas.get(sorteio.nextInt(folhas.size()));
+		}
+		switch (sorteio.nextInt(3)) {
+			case 0:
+				return arvore(sorteio, profundidade - 1).and(arvore(sorteio, profundidade - 1));
+			case 1:
+				return arvore(sorteio, profundidade - 1).or(arvore(sorteio, profundidade - 1));
+			default:
+				return arvore(sorteio, profundidade - 1).not();
+		}
+	}
+
+	// todas as combinações de folhas atendidas e não atendidas
+	static List<int[]> objetos() {
+		List<int[]> objetos = new ArrayList<int[]>();
+		for (int bits = 0; bits < 1 << FOLHAS; bits++) {
+			int[] objeto = new int[FOLHAS];
+			for (int i = 0; i < FOLHAS; i++) {
+				objeto[i] = (bits >> i) & 1;
+			}
+			objetos.add(objeto);
+		}
+		return objetos;
+	}
+}
@@ -0,0 +1,149 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+// Regras assíncronas verificadas contra um cadastro em memória
+public class AsyncRuleTest {
+
+	// substitui um serviço remoto, cada consulta fica pendente até ser respondida pelo teste
+	private static final class Cadastro {
+
+		final Map<String, CompletableFuture<Boolean>> consultas = new ConcurrentHashMap<String, CompletableFuture<Boolean>>();
+		final AtomicInteger iniciadas = new AtomicInteger();
+
+		AsyncSpecification<String> especificacao(final String nome) {
+			return (objeto, violacoes) -> {
+				iniciadas.incrementAndGet();
+				return consultas.computeIfAbsent(nome, chave -> new CompletableFuture<Boolean>()).thenApply(atende -> {
+					if (!atende) {
+						violacoes.report("%s não atende %s", objeto, nome);
+					}
+					return atende;
+				});
+			};
+		}
+
+		void responder(String nome, boolean atende) {
+			consultas.computeIfAbsent(nome, chave -> new CompletableFuture<Boolean>()).complete(atende);
+		}
+
+		void falhar(String nome, Throwable erro) {
+			consultas.computeIfAbsent(nome, chave -> new CompletableFuture<Boolean>()).completeExceptionally(erro);
+		}
+	}
+
+	private static Throwable causa(CompletableFuture<?> futuro) {
+		try {
+			futuro.join();
+			fail("o futuro deveria falhar");
+			return null;
+		} catch (CompletionException e) {
+			return e.getCause();
+		}
+	}
+
+	@Test
+	public void futuroNuloFalhaComMensagem() {
+		AsyncRule<String> regra = AsyncRule.create((AsyncSpecification<String>) (objeto, violacoes) -> null);
+		for (EvaluationMode modo : EvaluationMode.values()) {
+			Throwable erro = causa(regra.evaluate("x", modo));
+			assertTrue(erro instanceof NullPointerException);
+			assertTrue(erro.getMessage().contains("null future"));
+		}
+	}
+
+	@Test
+	public void segundoOperandoNaoIniciadoQuandoPrimeiroDecide() {
+		Cadastro cadastro = new Cadastro();
+		cadastro.responder("a", false);
+		AsyncRule<String> regra = AsyncRule.create(cadastro.especificacao("a")).and(cadastro.especificacao("b"));
+		assertFalse(regra.evaluate("x", EvaluationMode.FAST).join().isSatisfied());
+		assertEquals(1, cadastro.iniciadas.get());
+	}
+
+	@Test
+	public void operandoQueDecideNaoAguardaOOutro() {
+		Cadastro cadastro = new Cadastro();
+		AsyncRule<String> regra = AsyncRule.create(cadastro.especificacao("a")).or(cadastro.especificacao("b"));
+		CompletableFuture<Evaluation> futuro = regra.evaluate("x", EvaluationMode.FAST);
+		assertFalse(futuro.isDone());
+		cadastro.responder("b", true);
+		assertTrue(futuro.isDone());
+		assertTrue(futuro.join().isSatisfied());
+		assertTrue(futuro.join().getDetails().isEmpty());
+	}
+
+	@Test
+	public void diagnosticoAguardaOsDoisOperandos() {
+		Cadastro cadastro = new Cadastro();
+		AsyncRule<String> regra = AsyncRule.create(cadastro.especificacao("a")).and(cadastro.especificacao("b"));
+		CompletableFuture<Evaluation> futuro = regra.evaluate("x");
+		cadastro.responder("a", false);
+		assertFalse(futuro.isDone());
+		cadastro.responder("b", false);
+		Evaluation avaliacao = futuro.join();
+		assertFalse(avaliacao.isSatisfied());
+		assertEquals(Arrays.asList("x não atende a", "x não atende b"), avaliacao.getDetails());
+	}
+
+	@Test
+	public void diagnosticoIgualAoDaRegraSincrona() {
+		Specification<String> curto = objeto -> {
+			if (objeto.length() < 3) {
+				throw new UnattendedException(objeto + " é curto");
+			}
+		};
+		Specification<String> maiusculo = objeto -> {
+			if (!objeto.equals(objeto.toUpperCase())) {
+				throw new UnattendedException(objeto + " não é maiúsculo");
+			}
+		};
+		Rule<String> sincrona = Rule.create(curto).and(Rule.create(maiusculo).not().or(maiusculo)).not().or(curto);
+		AsyncRule<String> assincrona = AsyncRule.create(Rule.create(curto)).and(AsyncRule.create(Rule.create(maiusculo)).not().or(Rule.create(maiusculo)))
+				.not().or(Rule.create(curto));
+		for (String objeto : Arrays.asList("ab", "AB", "abc", "ABC")) {
+			Evaluation esperada = sincrona.evaluate(objeto);
+			Evaluation obtida = assincrona.evaluate(objeto).join();
+			assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+			assertEquals(esperada.getDetails(), obtida.getDetails());
+		}
+	}
+
+	@Test
+	public void falhaNaoAtendidaEhUmaViolacao() {
+		Cadastro cadastro = new Cadastro();
+		AsyncRule<String> regra = AsyncRule.create(cadastro.especificacao("a"));
+		CompletableFuture<Evaluation> futuro = regra.evaluate("x");
+		cadastro.falhar("a", new UnattendedException("x indisponível"));
+		assertFalse(futuro.join().isSatisfied());
+		assertEquals(Collections.singletonList("x indisponível"), futuro.join().getDetails());
+	}
+
+	@Test
+	public void demaisFalhasConcluemAAvaliacao() {
+		IllegalStateException erro = new IllegalStateException("cadastro fora do ar");
+		for (EvaluationMode modo : EvaluationMode.values()) {
+			Cadastro cadastro = new Cadastro();
+			CompletableFuture<Evaluation> futuro = AsyncRule.create(cadastro.especificacao("a")).and(cadastro.especificacao("b")).evaluate("x", modo);
+			cadastro.falhar("a", erro);
+			cadastro.responder("b", true);
+			assertSame(erro, causa(futuro));
+		}
+	}
+
+	@Test
+	public void falhaIgnoradaQuandoOOutroOperandoDecide() {
+		Cadastro cadastro = new Cadastro();
+		CompletableFuture<Evaluation> futuro = AsyncRule.create(cadastro.especificacao("a")).or(cadastro.especificacao("b")).evaluate("x",
+				EvaluationMode.FAST);
+		cadastro.falhar("a", new IllegalStateException("cadastro fora do ar"));
+		cadastro.responder("b", true);
+		assertTrue(futuro.join().isSatisfied());
+	}
+}
@@ -0,0 +1,199 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.junit.*;
+
+// Mapas de bits das regras colunares comparados com a verificação linha a linha
+public class ColumnRuleTest {
+
+	static final class Tabela {
+
+		int[] inteiros;
+		long[] longos;
+		double[] reais;
+	}
+
+	// regra colunar e a verificação equivalente de uma linha
+	private static final class Par {
+
+		final ColumnRule<Tabela> regra;
+		final IntPredicate linha;
+
+		Par(ColumnRule<Tabela> regra, IntPredicate linha) {
+			this.regra = regra;
+			this.linha = linha;
+		}
+	}
+
+	private static final int[] INTEIROS = { Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -2, -1, 0, 1, 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE };
+	private static final long[] LONGOS = { Long.MIN_VALUE, Long.MIN_VALUE + 1, -2, -1, 0, 1, 2, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+	private static final double[] REAIS = { Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1, -0.0, 0.0, Double.MIN_VALUE, 1, Double.MAX_VALUE,
+			Double.POSITIVE_INFINITY, Double.NaN };
+
+	// tamanhos que não são múltiplos de 64 nem do bloco, além dos limites exatos
+	private static final int[] TAMANHOS = { 0, 1, 63, 64, 65, 127, ColumnRule.BLOCK_SIZE - 1, ColumnRule.BLOCK_SIZE, ColumnRule.BLOCK_SIZE + 1,
+			2 * ColumnRule.BLOCK_SIZE + 63, 3 * ColumnRule.BLOCK_SIZE + 100 };
+
+	private final IntColumn<Tabela> inteiro = IntColumn.of(tabela -> tabela.inteiros);
+	private final LongColumn<Tabela> longo = LongColumn.of(tabela -> tabela.longos);
+	private final DoubleColumn<Tabela> real = DoubleColumn.of(tabela -> tabela.reais);
+
+	private Tabela tabela;
+
+	// os valores se repetem em sequências, assim há blocos inteiros em que o primeiro operando decide o resultado
+	private static Tabela tabela(Random sorteio, int linhas) {
+		Tabela tabela = new Tabela();
+		tabela.inteiros = new int[linhas];
+		tabela.longos = new long[linhas];
+		tabela.reais = new double[linhas];
+		int indice = 0;
+		for (int linha = 0; linha < linhas; linha++) {
+			if (linha % 300 == 0 || sorteio.nextInt(4) == 0 && linha % 300 > 200) {
+				indice = sorteio.nextInt(INTEIROS.length);
+			}
+			tabela.inteiros[linha] = INTEIROS[indice];
+			tabela.longos[linha] = LONGOS[(indice + linha / 700) % LONGOS.length];
+			tabela.reais[linha] = REAIS[sorteio.nextInt(8) == 0 ? sorteio.nextInt(REAIS.length) : indice];
+		}
+		return tabela;
+	}
+
+	private Par comparacao(Random sorteio) {
+		switch (sorteio.nextInt(3)) {
+			case 0: {
+				int valor = INTEIROS[sorteio.nextInt(INTEIROS.length)];
+				int outro = INTEIROS[sorteio.nextInt(INTEIROS.length)];
+				switch (sorteio.nextInt(7)) {
+					case 0:
+						return new Par(inteiro.atLeast(valor), linha -> tabela.inteiros[linha] >= valor);
+					case 1:
+						return new Par(inteiro.atMost(valor), linha -> tabela.inteiros[linha] <= valor);
+					case 2:
+						return new Par(inteiro.between(valor, outro), linha -> valor <= tabela.inteiros[linha] && tabela.inteiros[linha] <= outro);
+					case 3:
+						return new Par(inteiro.equalTo(valor), linha -> tabela.inteiros[linha] == valor);
+					case 4:
+						return new Par(inteiro.greaterThan(valor), linha -> tabela.inteiros[linha] > valor);
+					case 5:
+						return new Par(inteiro.lessThan(valor), linha -> tabela.inteiros[linha] < valor);
+					default:
+						return new Par(inteiro.matches((v, violacoes) -> (v & 1) == 0), linha -> (tabela.inteiros[linha] & 1) == 0);
+				}
+			}
+			case 1: {
+				long valor = LONGOS[sorteio.nextInt(LONGOS.length)];
+				long outro = LONGOS[sorteio.nextInt(LONGOS.length)];
+				switch (sorteio.nextInt(7)) {
+					case 0:
+						return new Par(longo.atLeast(valor), linha -> tabela.longos[linha] >= valor);
+					case 1:
+						return new Par(longo.atMost(valor), linha -> tabela.longos[linha] <= valor);
+					case 2:
+						return new Par(longo.between(valor, outro), linha -> valor <= tabela.longos[linha] && tabela.longos[linha] <= outro);
+					case 3:
+						return new Par(longo.equalTo(valor), linha -> tabela.longos[linha] == valor);
+					case 4:
+						return new Par(longo.greaterThan(valor), linha -> tabela.longos[linha] > valor);
+					case 5:
+						return new Par(longo.lessThan(valor), linha -> tabela.longos[linha] < valor);
+					default:
+						return new Par(longo.matches((v, violacoes) -> v < 0), linha -> tabela.longos[linha] < 0);
+				}
+			}
+			default: {
+				double valor = REAIS[sorteio.nextInt(REAIS.length)];
+				double outro = REAIS[sorteio.nextInt(REAIS.length)];
+				switch (sorteio.nextInt(7)) {
+					case 0:
+						return new Par(real.atLeast(valor), linha -> tabela.reais[linha] >= valor);
+					case 1:
+						return new Par(real.atMost(valor), linha -> tabela.reais[linha] <= valor);
+					case 2:
+						return new Par(real.between(valor, outro), linha -> valor <= tabela.reais[linha] && tabela.reais[linha] <= outro);
+					case 3:
+						return new Par(real.equalTo(valor), linha -> tabela.reais[linha] == valor);
+					case 4:
+						return new Par(real.greaterThan(valor), linha -> tabela.reais[linha] > valor);
+					case 5:
+						return new Par(real.lessThan(valor), linha -> tabela.reais[linha] < valor);
+					default:
+						return new Par(real.matches((v, violacoes) -> Double.isNaN(v)), linha -> Double.isNaN(tabela.reais[linha]));
+				}
+			}
+		}
+	}
+
+	private Par arvore(Random sorteio, int profundidade) {
+		if (profundidade == 0 || sorteio.nextInt(5) == 0) {
+			return comparacao(sorteio);
+		}
+		Par primeiro = arvore(sorteio, profundidade - 1);
+		switch (sorteio.nextInt(3)) {
+			case 0: {
+				Par segundo = arvore(sorteio, profundidade - 1);
+				return new Par(primeiro.regra.and(segundo.regra), linha -> primeiro.linha.test(linha) && segundo.linha.test(linha));
+			}
+			case 1: {
+				Par segundo = arvore(sorteio, profundidade - 1);
+				return new Par(primeiro.regra.or(segundo.regra), linha -> primeiro.linha.test(linha) || segundo.linha.test(linha));
+			}
+			default:
+				return new Par(primeiro.regra.not(), linha -> !primeiro.linha.test(linha));
+		}
+	}
+
+	private void conferir(Par par, int tamanho) {
+		long[] mapa = par.regra.evaluate(tabela, tamanho);
+		assertEquals((tamanho + 63) / 64, mapa.length);
+		BitSet linhas = BitSet.valueOf(mapa);
+		for (int linha = 0; linha < tamanho; linha++) {
+			assertEquals("linha " + linha + " de " + tamanho, par.linha.test(linha), linhas.get(linha));
+		}
+		// nenhuma linha além do tamanho é ligada, nem pela negação
+		assertTrue("linhas além de " + tamanho, linhas.length() <= tamanho);
+		assertEquals(linhas.cardinality(), par.regra.count(tabela, tamanho));
+	}
+
+	@Test
+	public void mapaIgualAVerificacaoLinhaALinha() {
+		Random sorteio = new Random(17);
+		for (int tamanho : TAMANHOS) {
+			// as colunas podem ser maiores que a quantidade de linhas verificadas
+			tabela = tabela(sorteio, tamanho + sorteio.nextInt(100));
+			for (int caso = 0; caso < 150; caso++) {
+				conferir(arvore(sorteio, 6), tamanho);
+			}
+		}
+	}
+
+	@Test
+	public void limitesDasComparacoes() {
+		tabela = tabela(new Random(23), 2 * ColumnRule.BLOCK_SIZE + 5);
+		int tamanho = tabela.inteiros.length;
+		conferir(new Par(inteiro.lessThan(Integer.MIN_VALUE), linha -> false), tamanho);
+		conferir(new Par(inteiro.greaterThan(Integer.MAX_VALUE), linha -> false), tamanho);
+		conferir(new Par(longo.lessThan(Long.MIN_VALUE), linha -> false), tamanho);
+		conferir(new Par(longo.greaterThan(Long.MAX_VALUE), linha -> false), tamanho);
+		conferir(new Par(real.lessThan(Double.NEGATIVE_INFINITY), linha -> false), tamanho);
+		conferir(new Par(real.greaterThan(Double.POSITIVE_INFINITY), linha -> false), tamanho);
+		conferir(new Par(inteiro.lessThan(Integer.MIN_VALUE).not(), linha -> true), tamanho);
+		conferir(new Par(inteiro.atLeast(Integer.MIN_VALUE), linha -> true), tamanho);
+		conferir(new Par(longo.atMost(Long.MAX_VALUE), linha -> true), tamanho);
+		// nenhuma comparação atende às linhas com NaN, somente a negação delas
+		conferir(new Par(real.atLeast(Double.NEGATIVE_INFINITY), linha -> !Double.isNaN(tabela.reais[linha])), tamanho);
+		conferir(new Par(real.equalTo(Double.NaN), linha -> false), tamanho);
+		conferir(new Par(real.equalTo(Double.NaN).not(), linha -> true), tamanho);
+		conferir(new Par(real.lessThan(Double.MAX_VALUE).not(), linha -> !(tabela.reais[linha] < Double.MAX_VALUE)), tamanho);
+		conferir(new Par(real.equalTo(0.0), linha -> tabela.reais[linha] == 0.0), tamanho);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void colunaMenorQueOTamanho() {
+		tabela = tabela(new Random(29), 10);
+		inteiro.atLeast(0).evaluate(tabela, 11);
+	}
+}
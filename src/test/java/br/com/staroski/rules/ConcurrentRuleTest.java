@@ -0,0 +1,131 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+// Operandos verificados ao mesmo tempo comparados com a avaliação sequencial
+public class ConcurrentRuleTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void criarExecutor() {
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void encerrarExecutor() {
+		executor.shutdownNow();
+	}
+
+	private static Rule<int[]> falha(final RuntimeException erro) {
+		return Rule.create((Specification<int[]>) objeto -> {
+			throw erro;
+		});
+	}
+
+	private static void compararComSequencial(Rule<int[]> regra, Rule<int[]> concorrente) {
+		for (int[] objeto : Arvores.objetos()) {
+			Evaluation esperada = regra.evaluate(objeto);
+			Evaluation obtida = concorrente.evaluate(objeto);
+			assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+			assertEquals(esperada.getDetails(), obtida.getDetails());
+			assertEquals(esperada.isSatisfied(), concorrente.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void mesmoResultadoEOrdemDosDetalhes() {
+		Arvores arvores = new Arvores();
+		Random sorteio = new Random(3);
+		for (int caso = 0; caso < 300; caso++) {
+			Rule<int[]> regra = arvores.arvore(sorteio, 5);
+			// com limite zero todas as operações são verificadas ao mesmo tempo
+			compararComSequencial(regra, regra.concurrent(executor, 0, TimeUnit.NANOSECONDS));
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void tarefaRecusadaExecutadaAoAguardar() {
+		Executor recusa = tarefa -> {
+			throw new RejectedExecutionException("fila cheia");
+		};
+		Arvores arvores = new Arvores();
+		Random sorteio = new Random(5);
+		for (int caso = 0; caso < 100; caso++) {
+			Rule<int[]> regra = arvores.arvore(sorteio, 4);
+			compararComSequencial(regra, regra.concurrent(recusa, 0, TimeUnit.NANOSECONDS));
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void executorSaturadoNaoBloqueia() throws Exception {
+		ExecutorService unico = Executors.newSingleThreadExecutor();
+		try {
+			// a única thread fica ocupada, as tarefas na fila são executadas por quem aguarda
+			CountDownLatch liberada = new CountDownLatch(1);
+			unico.execute(() -> {
+				try {
+					liberada.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			Arvores arvores = new Arvores();
+			Random sorteio = new Random(9);
+			for (int caso = 0; caso < 50; caso++) {
+				Rule<int[]> regra = arvores.arvore(sorteio, 6);
+				compararComSequencial(regra, regra.concurrent(unico, 0, TimeUnit.NANOSECONDS));
+			}
+			liberada.countDown();
+		} finally {
+			unico.shutdownNow();
+		}
+	}
+
+	@Test
+	public void excecaoDoPrimeiroOperandoPrevaleceNoDiagnostico() {
+		IllegalStateException primeira = new IllegalStateException("primeira");
+		IllegalStateException segunda = new IllegalStateException("segunda");
+		Rule<int[]> atendida = Rule.create((int[] objeto, Violations violacoes) -> true);
+		List<Rule<int[]>> regras = Arrays.asList(falha(primeira).and(falha(segunda)), falha(primeira).or(falha(segunda)));
+		for (Rule<int[]> regra : regras) {
+			try {
+				regra.concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(new int[Arvores.FOLHAS]);
+				fail("a avaliação deveria falhar");
+			} catch (IllegalStateException e) {
+				assertSame(primeira, e);
+			}
+		}
+		try {
+			atendida.and(falha(segunda)).concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(new int[Arvores.FOLHAS]);
+			fail("a avaliação deveria falhar");
+		} catch (IllegalStateException e) {
+			assertSame(segunda, e);
+		}
+	}
+
+	@Test
+	public void excecaoDescartadaQuandoOOutroOperandoDecideNoModoRapido() {
+		Rule<int[]> atendida = Rule.create((int[] objeto, Violations violacoes) -> true);
+		Rule<int[]> naoAtendida = Rule.create((int[] objeto, Violations violacoes) -> false);
+		IllegalStateException erro = new IllegalStateException("descartada");
+		int[] objeto = new int[Arvores.FOLHAS];
+		// o segundo operando, verificado na thread da avaliação, decide o resultado
+		assertFalse(falha(erro).and(naoAtendida).concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		assertTrue(falha(erro).or(atendida).concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		// o primeiro operando decide o resultado mesmo que o segundo falhe
+		assertFalse(naoAtendida.and(falha(erro)).concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		// quando nenhum operando decide, a exceção é lançada
+		try {
+			atendida.and(falha(erro)).concurrent(executor, 0, TimeUnit.NANOSECONDS).evaluate(objeto, EvaluationMode.FAST);
+			fail("a avaliação deveria falhar");
+		} catch (IllegalStateException e) {
+			assertSame(erro, e);
+		}
+	}
+}
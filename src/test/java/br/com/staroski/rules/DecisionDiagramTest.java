@@ -0,0 +1,72 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+// Diagramas de decisão comparados com as regras originais
+public class DecisionDiagramTest {
+
+	@Test
+	public void diagramaAvaliaComoAOriginal() {
+		Arvores arvores = new Arvores();
+		Random sorteio = new Random(7);
+		for (int caso = 0; caso < 1500; caso++) {
+			Rule<int[]> regra = arvores.arvore(sorteio, 5);
+			Rule<int[]> diagrama = regra.decisionDiagram();
+			for (int[] objeto : Arvores.objetos()) {
+				Evaluation esperada = regra.evaluate(objeto);
+				Evaluation obtida = diagrama.evaluate(objeto);
+				assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+				assertEquals(esperada.getDetails(), obtida.getDetails());
+				assertEquals(esperada.isSatisfied(), diagrama.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			}
+		}
+	}
+
+	@Test
+	public void cadaFolhaVerificadaNoMaximoUmaVez() {
+		Arvores arvores = new Arvores();
+		Random sorteio = new Random(11);
+		for (int caso = 0; caso < 300; caso++) {
+			Rule<int[]> diagrama = arvores.arvore(sorteio, 6).decisionDiagram();
+			for (int[] objeto : Arvores.objetos()) {
+				arvores.verificacoes.set(0);
+				diagrama.evaluate(objeto, EvaluationMode.FAST);
+				assertTrue(arvores.verificacoes.get() <= Arvores.FOLHAS);
+			}
+		}
+	}
+
+	@Test
+	public void complementosSaoConstantes() {
+		Arvores arvores = new Arvores();
+		Rule<int[]> a = arvores.folhas.get(0);
+		Rule<int[]> b = arvores.folhas.get(3);
+		DecisionDiagram<int[]> nunca = (DecisionDiagram<int[]>) a.and(a.not()).decisionDiagram();
+		DecisionDiagram<int[]> sempre = (DecisionDiagram<int[]>) a.or(a.not()).decisionDiagram();
+		DecisionDiagram<int[]> deMorgan = (DecisionDiagram<int[]>) a.or(b).not().and(b.or(a)).decisionDiagram();
+		assertEquals(0, nunca.size());
+		assertEquals(0, sempre.size());
+		assertEquals(0, deMorgan.size());
+		for (int[] objeto : Arvores.objetos()) {
+			assertFalse(nunca.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			assertTrue(sempre.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			assertFalse(deMorgan.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		}
+		assertEquals(0, arvores.verificacoes.get());
+	}
+
+	@Test
+	public void folhasIguaisSaoAMesmaVariavel() {
+		Arvores arvores = new Arvores();
+		// as duas primeiras folhas têm a mesma especificação
+		DecisionDiagram<int[]> diagrama = (DecisionDiagram<int[]>) arvores.folhas.get(0).and(arvores.folhas.get(1).not()).decisionDiagram();
+		assertEquals(0, diagrama.size());
+		DecisionDiagram<int[]> absorcao = (DecisionDiagram<int[]>) arvores.folhas.get(0).or(arvores.folhas.get(0).and(arvores.folhas.get(2)))
+				.decisionDiagram();
+		assertEquals(1, absorcao.size());
+	}
+}
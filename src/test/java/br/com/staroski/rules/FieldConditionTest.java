@@ -0,0 +1,185 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.lang.invoke.*;
+import java.util.*;
+
+import org.junit.*;
+
+import br.com.staroski.rules.FieldCondition.Operator;
+
+// Condições declarativas lidas por métodos, atributos e funções
+public class FieldConditionTest {
+
+	public static class Cadastro {
+
+		private final Integer idade;
+		private final int dependentes;
+		private final double altura;
+
+		Cadastro(Integer idade, int dependentes, double altura) {
+			this.idade = idade;
+			this.dependentes = dependentes;
+			this.altura = altura;
+		}
+
+		public Integer getIdade() {
+			return idade;
+		}
+
+		public int getDependentes() {
+			return dependentes;
+		}
+
+		double getAltura() {
+			return altura;
+		}
+	}
+
+	public static class Medida {
+
+		public double bruto;
+		private final double primitivo;
+		private final Double objeto;
+		public char sexo = 'M';
+
+		Medida(double valor) {
+			this.bruto = valor;
+			this.primitivo = valor;
+			this.objeto = valor;
+		}
+
+		public double getPrimitivo() {
+			return primitivo;
+		}
+
+		public Double getObjeto() {
+			return objeto;
+		}
+	}
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	// cada forma de leitura: atributo, getter primitivo, getter objeto e função informada
+	private static List<Rule<Medida>> condicoes(Operator operador, Object valor) {
+		return Arrays.asList(FieldCondition.of(LOOKUP, Medida.class, "bruto", operador, valor),
+				FieldCondition.of(LOOKUP, Medida.class, "primitivo", operador, valor),
+				FieldCondition.of(LOOKUP, Medida.class, "objeto", operador, valor),
+				FieldCondition.of("bruto", (Medida medida) -> medida.bruto, operador, valor));
+	}
+
+	private static void verificar(boolean esperado, double valor, Operator operador, Object constante) {
+		Medida medida = new Medida(valor);
+		for (Rule<Medida> regra : condicoes(operador, constante)) {
+			for (EvaluationMode modo : EvaluationMode.values()) {
+				assertEquals(regra + " com " + valor + " em " + modo, esperado, regra.evaluate(medida, modo).isSatisfied());
+			}
+		}
+	}
+
+	private static boolean avaliar(Rule<Cadastro> regra, Cadastro cadastro, EvaluationMode modo) {
+		return regra.evaluate(cadastro, modo).isSatisfied();
+	}
+
+	@Test
+	public void retornoObjetoNuloSoEhIgualANulo() {
+		Cadastro semIdade = new Cadastro(null, 0, 1.8);
+		for (EvaluationMode modo : EvaluationMode.values()) {
+			assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.NOT_EQUAL, 5), semIdade, modo));
+			assertFalse(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.EQUAL, 5), semIdade, modo));
+			assertFalse(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.GREATER_THAN, 5), semIdade, modo));
+			assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.EQUAL, null), semIdade, modo));
+		}
+	}
+
+	@Test
+	public void retornoObjetoComparadoPeloValor() {
+		Cadastro cadastro = new Cadastro(30, 2, 1.8);
+		assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.GREATER_THAN_OR_EQUAL, 18L), cadastro, EvaluationMode.FAST));
+		assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "idade", Operator.LESS_THAN, 30.5), cadastro, EvaluationMode.FAST));
+	}
+
+	@Test
+	public void retornosPrimitivos() {
+		Cadastro cadastro = new Cadastro(30, 2, 1.8);
+		assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "dependentes", Operator.EQUAL, 2), cadastro, EvaluationMode.FAST));
+		assertTrue(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "altura", Operator.GREATER_THAN, 1.5), cadastro, EvaluationMode.FAST));
+		assertFalse(avaliar(FieldCondition.of(LOOKUP, Cadastro.class, "altura", Operator.GREATER_THAN, 2), cadastro, EvaluationMode.FAST));
+	}
+
+	@Test
+	public void atributoLidoPeloMethodHandle() {
+		Rule<Cadastro> regra = FieldCondition.of(MethodHandles.publicLookup(), Cadastro.class, "dependentes", Operator.LESS_THAN, 1);
+		assertEquals(Arrays.asList("dependentes < 1"), regra.evaluate(new Cadastro(30, 2, 1.8)).getDetails());
+	}
+
+	@Test
+	public void propriedadeDeclarada() {
+		Rule<Cadastro> regra = FieldCondition.of("idade", Cadastro::getIdade, Operator.GREATER_THAN, 17);
+		FieldCondition<?> condicao = (FieldCondition<?>) ((ConcreteRule<Cadastro>) regra).getSpecification();
+		assertEquals("idade", condicao.getProperty());
+		assertEquals(Operator.GREATER_THAN, condicao.getOperator());
+		assertEquals(17, condicao.getValue());
+		assertEquals(Collections.singletonList("idade"), condicao.getProperties());
+	}
+
+	@Test
+	public void nanNaoEhOrdenado() {
+		for (Object constante : Arrays.<Object> asList(1000.0, 1000, 1000f)) {
+			verificar(false, Double.NaN, Operator.GREATER_THAN, constante);
+			verificar(false, Double.NaN, Operator.GREATER_THAN_OR_EQUAL, constante);
+			verificar(false, Double.NaN, Operator.LESS_THAN, constante);
+			verificar(false, Double.NaN, Operator.EQUAL, constante);
+			verificar(true, Double.NaN, Operator.NOT_EQUAL, constante);
+		}
+		verificar(false, Double.NaN, Operator.EQUAL, Double.NaN);
+		verificar(true, Double.NaN, Operator.NOT_EQUAL, Double.NaN);
+	}
+
+	@Test
+	public void zeroNegativoIgualAZero() {
+		for (Object constante : Arrays.<Object> asList(0.0, 0, 0f, -0.0)) {
+			verificar(true, -0.0, Operator.EQUAL, constante);
+			verificar(false, -0.0, Operator.NOT_EQUAL, constante);
+			verificar(false, -0.0, Operator.LESS_THAN, constante);
+			verificar(true, -0.0, Operator.GREATER_THAN_OR_EQUAL, constante);
+		}
+		verificar(true, 0.0, Operator.EQUAL, -0.0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constanteIncompativelRecusada() {
+		FieldCondition.of(LOOKUP, Medida.class, "sexo", Operator.EQUAL, "M");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constanteNaoNumericaRecusada() {
+		FieldCondition.of(LOOKUP, Medida.class, "primitivo", Operator.GREATER_THAN, "1");
+	}
+
+	@Test
+	public void constanteCompativelAceita() {
+		Medida medida = new Medida(1);
+		assertTrue(FieldCondition.of(LOOKUP, Medida.class, "sexo", Operator.EQUAL, 'M').evaluate(medida).isSatisfied());
+		assertTrue(FieldCondition.of(LOOKUP, Medida.class, "objeto", Operator.EQUAL, 1).evaluate(medida).isSatisfied());
+		assertFalse(FieldCondition.of(LOOKUP, Medida.class, "objeto", Operator.EQUAL, null).evaluate(medida).isSatisfied());
+	}
+
+	@Test
+	public void valoresNaoComparaveisUsamEquals() {
+		Rule<Medida> regra = FieldCondition.of("sexo", (Medida medida) -> medida.sexo, Operator.EQUAL, "M");
+		Rule<Medida> diferente = FieldCondition.of("sexo", (Medida medida) -> medida.sexo, Operator.NOT_EQUAL, "M");
+		Rule<Medida> maior = FieldCondition.of("sexo", (Medida medida) -> medida.sexo, Operator.GREATER_THAN, "A");
+		for (EvaluationMode modo : EvaluationMode.values()) {
+			assertFalse(regra.evaluate(new Medida(1), modo).isSatisfied());
+			assertTrue(diferente.evaluate(new Medida(1), modo).isSatisfied());
+			assertFalse(maior.evaluate(new Medida(1), modo).isSatisfied());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void propriedadeInexistente() {
+		FieldCondition.of(LOOKUP, Cadastro.class, "nome", Operator.EQUAL, "x");
+	}
+}
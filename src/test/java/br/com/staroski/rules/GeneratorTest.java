@@ -0,0 +1,87 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+// Classes geradas comparadas com as regras interpretadas
+public class GeneratorTest {
+
+	private static final int FOLHAS = 6;
+
+	// a folha não é atendida quando a posição do objeto é zero
+	private static Rule<int[]> folha(Random sorteio) {
+		final int i = sorteio.nextInt(FOLHAS);
+		if (sorteio.nextBoolean()) {
+			return Rule.create((Specification<int[]>) objeto -> {
+				if (objeto[i] == 0) {
+					throw new UnattendedException("folha " + i);
+				}
+			});
+		}
+		return Rule.create((int[] objeto, Violations violacoes) -> {
+			if (objeto[i] == 0) {
+				violacoes.report("folha %d", i);
+				return false;
+			}
+			return true;
+		});
+	}
+
+	private static Rule<int[]> arvore(Random sorteio, int profundidade) {
+		if (profundidade == 0 || sorteio.nextInt(4) == 0) {
+			return folha(sorteio);
+		}
+		switch (sorteio.nextInt(3)) {
+			case 0:
+				return arvore(sorteio, profundidade - 1).and(arvore(sorteio, profundidade - 1));
+			case 1:
+				return arvore(sorteio, profundidade - 1).or(arvore(sorteio, profundidade - 1));
+			default:
+				return arvore(sorteio, profundidade - 1).not();
+		}
+	}
+
+	@Test
+	public void geradaAvaliaComoInterpretada() {
+		Random sorteio = new Random(20261018);
+		for (int caso = 0; caso < 500; caso++) {
+			Rule<int[]> regra = arvore(sorteio, 5);
+			Rule<int[]> compilada = regra.compile();
+			Rule<int[]> gerada = regra.generate();
+			assertTrue(((CompiledRule<int[]>) gerada).isGenerated());
+			for (int amostra = 0; amostra < 16; amostra++) {
+				int[] objeto = new int[FOLHAS];
+				for (int i = 0; i < FOLHAS; i++) {
+					objeto[i] = sorteio.nextInt(2);
+				}
+				Evaluation esperada = regra.evaluate(objeto);
+				Evaluation obtida = gerada.evaluate(objeto);
+				assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+				assertEquals(esperada.getDetails(), obtida.getDetails());
+				assertEquals(esperada.getDetails(), compilada.evaluate(objeto).getDetails());
+				assertEquals(esperada.isSatisfied(), gerada.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+				assertEquals(esperada.isSatisfied(), compilada.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			}
+		}
+	}
+
+	@Test
+	public void geradaNoModoRapidoNaoTemDetalhes() {
+		Random sorteio = new Random(7);
+		for (int caso = 0; caso < 100; caso++) {
+			Rule<int[]> regra = arvore(sorteio, 4);
+			Rule<int[]> gerada = regra.generate(EvaluationMode.FAST);
+			assertTrue(((CompiledRule<int[]>) gerada).isGenerated());
+			int[] objeto = new int[FOLHAS];
+			for (int i = 0; i < FOLHAS; i++) {
+				objeto[i] = sorteio.nextInt(2);
+			}
+			Evaluation obtida = gerada.evaluate(objeto);
+			assertEquals(regra.evaluate(objeto, EvaluationMode.FAST).isSatisfied(), obtida.isSatisfied());
+			assertTrue(obtida.getDetails().isEmpty());
+		}
+	}
+}
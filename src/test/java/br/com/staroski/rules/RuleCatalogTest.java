@@ -0,0 +1,117 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.math.*;
+import java.util.*;
+
+import org.junit.*;
+
+// Seleção pela árvore de segmentos comparada com a verificação de cada condição
+public class RuleCatalogTest {
+
+	// condição de uma regra verificada diretamente, null nos limites de ALWAYS
+	private static final class Condicao {
+
+		final BigDecimal menor;
+		final BigDecimal maior;
+
+		Condicao(BigDecimal menor, BigDecimal maior) {
+			this.menor = menor;
+			this.maior = maior;
+		}
+
+		boolean atende(BigDecimal chave) {
+			if (menor == null) {
+				return true;
+			}
+			return chave != null && menor.compareTo(chave) <= 0 && chave.compareTo(maior) <= 0;
+		}
+	}
+
+	// valores pequenos com escalas diferentes, assim chaves iguais pelo compareTo nem sempre são iguais pelo equals
+	private static BigDecimal chave(Random sorteio) {
+		return BigDecimal.valueOf(sorteio.nextInt(21) - 10).setScale(sorteio.nextInt(3));
+	}
+
+	private static Rule<BigDecimal> regra() {
+		return Rule.create((BigDecimal chave, Violations violacoes) -> true);
+	}
+
+	@Test
+	public void selecaoIgualAVerificacaoLinear() {
+		Random sorteio = new Random(31);
+		for (int caso = 0; caso < 500; caso++) {
+			RuleCatalog.Builder<BigDecimal, BigDecimal> construtor = RuleCatalog.builder(chave -> chave);
+			List<Rule<BigDecimal>> regras = new ArrayList<Rule<BigDecimal>>();
+			List<Condicao> condicoes = new ArrayList<Condicao>();
+			int quantidade = sorteio.nextInt(12);
+			for (int i = 0; i < quantidade; i++) {
+				// algumas regras são adicionadas mais de uma vez, com condições diferentes
+				Rule<BigDecimal> regra = regras.isEmpty() || sorteio.nextInt(5) != 0 ? regra() : regras.get(sorteio.nextInt(regras.size()));
+				switch (sorteio.nextInt(3)) {
+					case 0:
+						construtor.always(regra);
+						condicoes.add(new Condicao(null, null));
+						break;
+					case 1: {
+						BigDecimal valor = chave(sorteio);
+						construtor.whenEqual(valor, regra);
+						condicoes.add(new Condicao(valor, valor));
+						break;
+					}
+					default: {
+						BigDecimal menor = chave(sorteio);
+						BigDecimal maior = chave(sorteio);
+						if (menor.compareTo(maior) > 0) {
+							BigDecimal troca = menor;
+							menor = maior;
+							maior = troca;
+						}
+						construtor.whenBetween(menor, maior, regra);
+						condicoes.add(new Condicao(menor, maior));
+						break;
+					}
+				}
+				regras.add(regra);
+			}
+			RuleCatalog<BigDecimal, BigDecimal> catalogo = construtor.build();
+			assertEquals(regras, catalogo.getRules());
+			List<BigDecimal> chaves = new ArrayList<BigDecimal>();
+			// chaves abaixo e acima de todos os limites, que caem nos intervalos abertos das pontas
+			chaves.add(BigDecimal.valueOf(-11));
+			chaves.add(BigDecimal.valueOf(11));
+			chaves.add(null);
+			for (int i = 0; i < 30; i++) {
+				chaves.add(chave(sorteio));
+			}
+			for (BigDecimal chave : chaves) {
+				List<Rule<BigDecimal>> esperadas = new ArrayList<Rule<BigDecimal>>();
+				for (int i = 0; i < regras.size(); i++) {
+					if (condicoes.get(i).atende(chave)) {
+						esperadas.add(regras.get(i));
+					}
+				}
+				assertEquals("chave " + chave, esperadas, catalogo.select(chave));
+			}
+		}
+	}
+
+	@Test
+	public void igualdadePeloCompareTo() {
+		Rule<BigDecimal> igual = regra();
+		Rule<BigDecimal> faixa = regra();
+		RuleCatalog<BigDecimal, BigDecimal> catalogo = RuleCatalog.builder((BigDecimal chave) -> chave)
+				.whenEqual(new BigDecimal("1.0"), igual)
+				.whenBetween(new BigDecimal("1.00"), new BigDecimal("1"), faixa)
+				.build();
+		assertEquals(Arrays.asList(igual, faixa), catalogo.select(new BigDecimal("1.000")));
+		assertEquals(Collections.emptyList(), catalogo.select(new BigDecimal("1.001")));
+		assertEquals(Collections.emptyList(), catalogo.select(new BigDecimal("0.999")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void faixaInvertidaRecusada() {
+		RuleCatalog.builder((BigDecimal chave) -> chave).whenBetween(BigDecimal.ONE, BigDecimal.ZERO, regra());
+	}
+}
@@ -0,0 +1,81 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+// Reaproveitamento de regras estruturalmente idênticas
+public class RuleFactoryTest {
+
+	private static SilentSpecification<Integer> maiorQue(final int limite) {
+		return (numero, violacoes) -> {
+			if (numero > limite) {
+				return true;
+			}
+			violacoes.report("%d não é maior que %d", numero, limite);
+			return false;
+		};
+	}
+
+	@Test
+	public void operacoesDaFabricaIguaisAsReaproveitadas() {
+		RuleFactory<Integer> fabrica = new RuleFactory<Integer>();
+		Rule<Integer> a = Rule.create(maiorQue(1));
+		Rule<Integer> b = Rule.create(maiorQue(2));
+		assertSame(fabrica.and(a, b), fabrica.intern(a.and(b)));
+		assertSame(fabrica.or(a, b), fabrica.intern(a.or(b)));
+		assertSame(fabrica.not(a), fabrica.intern(a.not()));
+		assertSame(fabrica.and(a, b), fabrica.and(fabrica.intern(a), fabrica.intern(b)));
+		assertNotSame(fabrica.and(a, b), fabrica.and(b, a));
+	}
+
+	@Test
+	public void folhasComEspecificacoesIguaisSaoAMesmaRegra() {
+		RuleFactory<Integer> fabrica = new RuleFactory<Integer>();
+		SilentSpecification<Integer> spec = maiorQue(1);
+		assertSame(fabrica.create(spec), fabrica.intern(Rule.create(spec)));
+		assertSame(fabrica.intern(Rule.create(spec).and(Rule.create(spec))), fabrica.and(fabrica.create(spec), fabrica.create(spec)));
+		assertEquals(2, fabrica.size());
+	}
+
+	@Test
+	public void duplaNegacaoDevolveARegraOriginal() {
+		RuleFactory<Integer> fabrica = new RuleFactory<Integer>();
+		Rule<Integer> a = fabrica.create(maiorQue(1));
+		assertSame(a, fabrica.not(fabrica.not(a)));
+	}
+
+	@Test
+	public void regraReaproveitadaAvaliaComoAOriginal() {
+		RuleFactory<Integer> fabrica = new RuleFactory<Integer>();
+		Rule<Integer> original = Rule.create(maiorQue(1)).and(Rule.create(maiorQue(2)).not().or(maiorQue(3)));
+		Rule<Integer> reaproveitada = fabrica.intern(original);
+		for (int numero = 0; numero < 5; numero++) {
+			Evaluation esperada = original.evaluate(numero);
+			Evaluation obtida = reaproveitada.evaluate(numero);
+			assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+			assertEquals(esperada.getDetails(), obtida.getDetails());
+		}
+	}
+
+	@Test
+	public void cadeiaProfundaNaoEstouraAPilha() {
+		RuleFactory<Integer> fabrica = new RuleFactory<Integer>();
+		List<Rule<Integer>> folhas = new ArrayList<Rule<Integer>>();
+		for (int i = 0; i < 100; i++) {
+			folhas.add(Rule.create(maiorQue(i)));
+		}
+		Rule<Integer> cadeia1 = folhas.get(0);
+		Rule<Integer> cadeia2 = folhas.get(0);
+		for (int i = 1; i < 200000; i++) {
+			cadeia1 = cadeia1.and(folhas.get(i % folhas.size()));
+			cadeia2 = cadeia2.and(folhas.get(i % folhas.size()));
+		}
+		Rule<Integer> reaproveitada = fabrica.intern(cadeia1);
+		assertSame(reaproveitada, fabrica.intern(cadeia2));
+		assertSame(reaproveitada, fabrica.intern(reaproveitada));
+		assertEquals(folhas.size() + 199999, fabrica.size());
+	}
+}
@@ -0,0 +1,163 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import br.com.staroski.rules.FieldCondition.Operator;
+
+// Atualização incremental comparada com uma nova avaliação do objeto alterado
+public class RuleMatchTest {
+
+	static final class Ficha {
+
+		int a;
+		int b;
+		int c;
+	}
+
+	private static final String[] PROPRIEDADES = { "a", "b", "c" };
+
+	// quantidade de leituras de cada propriedade pelas folhas declaradas e de verificações da folha sem declaração
+	private final Map<String, AtomicInteger> leituras = new HashMap<String, AtomicInteger>();
+	private final AtomicInteger naoDeclaradas = new AtomicInteger();
+
+	private final List<Rule<Ficha>> folhas = new ArrayList<Rule<Ficha>>();
+
+	@Before
+	public void criarFolhas() {
+		for (String propriedade : PROPRIEDADES) {
+			AtomicInteger contador = new AtomicInteger();
+			leituras.put(propriedade, contador);
+			folhas.add(FieldCondition.of(propriedade, (Ficha ficha) -> {
+				contador.incrementAndGet();
+				return valor(ficha, propriedade);
+			}, Operator.GREATER_THAN, 1));
+			folhas.add(FieldCondition.of(propriedade, (Ficha ficha) -> {
+				contador.incrementAndGet();
+				return valor(ficha, propriedade);
+			}, Operator.NOT_EQUAL, 2));
+		}
+		// lê as propriedades "a" e "c" sem declará-las
+		folhas.add(Rule.create((Ficha ficha, Violations violacoes) -> {
+			naoDeclaradas.incrementAndGet();
+			if (ficha.a == ficha.c) {
+				violacoes.report("a = c = %d", ficha.a);
+				return false;
+			}
+			return true;
+		}));
+	}
+
+	private static int valor(Ficha ficha, String propriedade) {
+		switch (propriedade) {
+			case "a":
+				return ficha.a;
+			case "b":
+				return ficha.b;
+			default:
+				return ficha.c;
+		}
+	}
+
+	private static void alterar(Ficha ficha, String propriedade, int valor) {
+		switch (propriedade) {
+			case "a":
+				ficha.a = valor;
+				break;
+			case "b":
+				ficha.b = valor;
+				break;
+			default:
+				ficha.c = valor;
+				break;
+		}
+	}
+
+	private Rule<Ficha> arvore(Random sorteio, int profundidade) {
+		if (profundidade == 0 || sorteio.nextInt(4) == 0) {
+			return folhas.get(sorteio.nextInt(folhas.size()));
+		}
+		switch (sorteio.nextInt(3)) {
+			case 0:
+				return arvore(sorteio, profundidade - 1).and(arvore(sorteio, profundidade - 1));
+			case 1:
+				return arvore(sorteio, profundidade - 1).or(arvore(sorteio, profundidade - 1));
+			default:
+				return arvore(sorteio, profundidade - 1).not();
+		}
+	}
+
+	private static List<Object> situacao(Evaluation avaliacao) {
+		return Arrays.<Object> asList(avaliacao.isSatisfied(), avaliacao.getDetails());
+	}
+
+	// compara cada regra com uma nova avaliação e confere que as regras que mudaram foram informadas
+	private static void conferir(List<Rule<Ficha>> regras, RuleMatch<Ficha> situacao, Ficha ficha, EvaluationMode modo, List<List<Object>> anteriores,
+			int[] alteradas) {
+		for (int i = 0; i < regras.size(); i++) {
+			List<Object> esperada = situacao(regras.get(i).evaluate(ficha, modo));
+			assertEquals(regras.get(i) + " em " + modo, esperada, situacao(situacao.getEvaluation(i)));
+			assertEquals(esperada.get(0), situacao.isSatisfied(i));
+			if (!esperada.equals(anteriores.get(i))) {
+				assertTrue(regras.get(i) + " mudou sem ser informada", Arrays.binarySearch(alteradas, i) >= 0);
+			}
+			anteriores.set(i, esperada);
+		}
+	}
+
+	@Test
+	public void atualizacaoIgualANovaAvaliacao() {
+		Random sorteio = new Random(11);
+		for (int caso = 0; caso < 200; caso++) {
+			List<Rule<Ficha>> regras = new ArrayList<Rule<Ficha>>();
+			for (int i = 0; i < 4; i++) {
+				regras.add(arvore(sorteio, 4));
+			}
+			RuleNetwork<Ficha> rede = RuleNetwork.of(regras);
+			for (EvaluationMode modo : EvaluationMode.values()) {
+				Ficha ficha = new Ficha();
+				RuleMatch<Ficha> situacao = rede.match(ficha, modo);
+				List<List<Object>> anteriores = new ArrayList<List<Object>>();
+				for (Rule<Ficha> regra : regras) {
+					anteriores.add(situacao(regra.evaluate(ficha, modo)));
+				}
+				conferir(regras, situacao, ficha, modo, anteriores, new int[0]);
+				for (int passo = 0; passo < 20; passo++) {
+					String propriedade = PROPRIEDADES[sorteio.nextInt(PROPRIEDADES.length)];
+					alterar(ficha, propriedade, sorteio.nextInt(4));
+					int[] alteradas = passo % 5 == 4 ? situacao.updateAll() : situacao.update(propriedade);
+					conferir(regras, situacao, ficha, modo, anteriores, alteradas);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void somenteFolhasAfetadasVerificadas() {
+		Rule<Ficha> regra = folhas.get(0).and(folhas.get(2)).or(folhas.get(4).and(folhas.get(6)));
+		RuleMatch<Ficha> situacao = RuleNetwork.of(regra).match(new Ficha());
+		for (AtomicInteger contador : leituras.values()) {
+			contador.set(0);
+		}
+		naoDeclaradas.set(0);
+		situacao.getObject().b = 5;
+		situacao.update("b");
+		assertEquals(0, leituras.get("a").get());
+		assertEquals(1, leituras.get("b").get());
+		assertEquals(0, leituras.get("c").get());
+		// a folha que não declara as propriedades lidas é sempre verificada novamente
+		assertEquals(1, naoDeclaradas.get());
+		// sem informar propriedades, somente ela é verificada e a mensagem dela deixa de ser reportada
+		situacao.getObject().c = 7;
+		assertArrayEquals(new int[] { 0 }, situacao.update());
+		assertEquals(2, naoDeclaradas.get());
+		assertEquals(0, leituras.get("c").get());
+		situacao.update("c");
+		assertEquals(1, leituras.get("c").get());
+		assertEquals(situacao(regra.evaluate(situacao.getObject())), situacao(situacao.getEvaluation(0)));
+	}
+}
@@ -0,0 +1,81 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+// Versões das regras substituídas durante as avaliações
+public class RuleSetTest {
+
+	private static Rule<Integer> maiorQue(final int limite) {
+		return Rule.create((Integer numero, Violations violacoes) -> {
+			if (numero > limite) {
+				return true;
+			}
+			violacoes.report("%d não é maior que %d", numero, limite);
+			return false;
+		});
+	}
+
+	@Test(timeout = 10000)
+	public void avaliacaoEmAndamentoTerminaComSuaVersao() throws Exception {
+		final CountDownLatch iniciada = new CountDownLatch(1);
+		final CountDownLatch liberada = new CountDownLatch(1);
+		Rule<Integer> lenta = Rule.create((Integer numero, Violations violacoes) -> {
+			iniciada.countDown();
+			try {
+				liberada.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			violacoes.report("%d recusado pela versão 1", numero);
+			return false;
+		});
+		final RuleSet<Integer> regras = new RuleSet<Integer>();
+		final RuleSet.Snapshot<Integer> versao1 = regras.publish(Collections.singletonMap("regra", lenta));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Evaluation> emAndamento = executor.submit(() -> regras.evaluate("regra", 5));
+			iniciada.await();
+			RuleSet.Snapshot<Integer> versao2 = regras.publish(Collections.singletonMap("regra", maiorQue(1)));
+			liberada.countDown();
+			Evaluation avaliacao = emAndamento.get();
+			assertFalse(avaliacao.isSatisfied());
+			assertEquals(Collections.singletonList("5 recusado pela versão 1"), avaliacao.getDetails());
+			assertEquals(versao1.getVersion() + 1, versao2.getVersion());
+			assertSame(versao2, regras.getSnapshot());
+			assertTrue(regras.evaluate("regra", 5).isSatisfied());
+			assertSame(lenta, versao1.getRule("regra"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void removerRegraInexistenteMantemAVersao() {
+		RuleSet<Integer> regras = new RuleSet<Integer>();
+		RuleSet.Snapshot<Integer> atual = regras.put("a", maiorQue(1));
+		assertSame(atual, regras.remove("b"));
+		RuleSet.Snapshot<Integer> seguinte = regras.remove("a");
+		assertEquals(atual.getVersion() + 1, seguinte.getVersion());
+		assertTrue(seguinte.getRules().isEmpty());
+		assertEquals(1, atual.getRules().size());
+	}
+
+	@Test
+	public void preparacaoComFalhaMantemAVersaoAtual() {
+		RuleSet<Integer> regras = new RuleSet<Integer>(regra -> {
+			throw new IllegalStateException("regra inválida");
+		});
+		RuleSet.Snapshot<Integer> atual = regras.getSnapshot();
+		try {
+			regras.put("a", maiorQue(1));
+			fail("a preparação deveria falhar");
+		} catch (IllegalStateException e) {
+			assertSame(atual, regras.getSnapshot());
+		}
+	}
+}
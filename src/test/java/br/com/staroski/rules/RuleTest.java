@@ -0,0 +1,39 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+// Estado mantido pela regra entre isSatisfiedBy e getDetails
+public class RuleTest {
+
+	private static final Specification<String> PREENCHIDO = texto -> {
+		if (texto.isEmpty()) {
+			throw new UnattendedException("texto vazio");
+		}
+	};
+
+	@Test
+	public void detalhesAcompanhamAsAvaliacoes() {
+		Rule<String> regra = Rule.create(PREENCHIDO);
+		List<String> detalhes = regra.getDetails();
+		assertTrue(detalhes.isEmpty());
+		assertFalse(regra.isSatisfiedBy(""));
+		assertEquals(Collections.singletonList("texto vazio"), detalhes);
+		assertEquals(detalhes, regra.getDetails());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void detalhesNaoPodemSerAlterados() {
+		Rule<String> regra = Rule.create(PREENCHIDO);
+		regra.isSatisfiedBy("");
+		regra.getDetails().clear();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void detalhesVaziosAntesDaPrimeiraAvaliacao() {
+		Rule.create(PREENCHIDO).getDetails().get(0);
+	}
+}
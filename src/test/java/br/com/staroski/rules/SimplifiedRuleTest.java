@@ -0,0 +1,68 @@
+package br.com.staroski.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+// Expressões simplificadas comparadas com as regras originais
+public class SimplifiedRuleTest {
+
+	@Test
+	public void simplificadaAvaliaComoAOriginal() {
+		Arvores arvores = new Arvores();
+		Random sorteio = new Random(20261018);
+		for (int caso = 0; caso < 1500; caso++) {
+			Rule<int[]> regra = arvores.arvore(sorteio, 5);
+			Rule<int[]> simplificada = regra.simplify();
+			for (int[] objeto : Arvores.objetos()) {
+				Evaluation esperada = regra.evaluate(objeto);
+				Evaluation obtida = simplificada.evaluate(objeto);
+				assertEquals(esperada.isSatisfied(), obtida.isSatisfied());
+				assertEquals(esperada.getDetails(), obtida.getDetails());
+				assertEquals(esperada.isSatisfied(), simplificada.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			}
+		}
+	}
+
+	@Test
+	public void complementosSaoConstantes() {
+		Arvores arvores = new Arvores();
+		Rule<int[]> a = arvores.folhas.get(0);
+		Rule<int[]> b = arvores.folhas.get(2);
+		Rule<int[]> nunca = a.and(a.not()).simplify();
+		Rule<int[]> sempre = a.or(a.not()).simplify();
+		// De Morgan: ¬(a ∨ b) ∨ a ∨ b
+		Rule<int[]> deMorgan = a.or(b).not().or(b.or(a)).simplify();
+		for (int[] objeto : Arvores.objetos()) {
+			assertFalse(nunca.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+			assertTrue(sempre.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		}
+		// as constantes não verificam nenhuma especificação
+		assertEquals(0, arvores.verificacoes.get());
+		for (int[] objeto : Arvores.objetos()) {
+			assertTrue(deMorgan.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+		}
+		// no modo de diagnóstico a regra original é avaliada
+		assertEquals(Arrays.asList("folha 0"), nunca.evaluate(new int[Arvores.FOLHAS]).getDetails());
+	}
+
+	@Test
+	public void absorcaoEIdempotencia() {
+		Arvores arvores = new Arvores();
+		Rule<int[]> a = arvores.folhas.get(0);
+		Rule<int[]> mesma = arvores.folhas.get(1);
+		Rule<int[]> b = arvores.folhas.get(2);
+		List<Rule<int[]>> equivalentesA = Arrays.asList(a.and(a.or(b)), a.or(a.and(b)), a.and(mesma), a.not().not().or(mesma));
+		for (Rule<int[]> regra : equivalentesA) {
+			Rule<int[]> simplificada = regra.simplify();
+			for (int[] objeto : Arvores.objetos()) {
+				arvores.verificacoes.set(0);
+				assertEquals(objeto[0] != 0, simplificada.evaluate(objeto, EvaluationMode.FAST).isSatisfied());
+				// somente a folha a é verificada
+				assertEquals(1, arvores.verificacoes.get());
+			}
+		}
+	}
+}
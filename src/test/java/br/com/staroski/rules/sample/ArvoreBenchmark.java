@@ -0,0 +1,183 @@
+package br.com.staroski.rules.sample;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import br.com.staroski.rules.*;
+
+// Benchmarks de árvores de regras sintéticas, profundas (a.and(b).and(c)...) ou largas (balanceadas)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArvoreBenchmark {
+
+	public enum Formato {
+		PROFUNDA, LARGA
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		int proximo;
+
+		int[] proximo(int[][] valores) {
+			return valores[proximo++ & (valores.length - 1)];
+		}
+	}
+
+	// especificações de classes distintas, assim como numa aplicação real
+	static final class Positivo implements SilentSpecification<int[]> {
+
+		final int campo;
+
+		Positivo(int campo) {
+			this.campo = campo;
+		}
+
+		@Override
+		public boolean verify(int[] valores, Violations violacoes) {
+			if (valores[campo] < 0) {
+				violacoes.report("Campo " + campo + " negativo");
+				return false;
+			}
+			return true;
+		}
+	}
+
+	static final class Limite implements SilentSpecification<int[]> {
+
+		final int campo;
+
+		Limite(int campo) {
+			this.campo = campo;
+		}
+
+		@Override
+		public boolean verify(int[] valores, Violations violacoes) {
+			if (valores[campo] > 1000) {
+				violacoes.report("Campo " + campo + " acima do limite");
+				return false;
+			}
+			return true;
+		}
+	}
+
+	static final class Par implements Specification<int[]> {
+
+		final int campo;
+
+		Par(int campo) {
+			this.campo = campo;
+		}
+
+		@Override
+		public void verify(int[] valores) throws UnattendedException {
+			if ((valores[campo] & 1) != 0) {
+				throw new UnattendedException("Campo " + campo + " impar");
+			}
+		}
+	}
+
+	static final class Diferente implements Specification<int[]> {
+
+		final int campo;
+
+		Diferente(int campo) {
+			this.campo = campo;
+		}
+
+		@Override
+		public void verify(int[] valores) throws UnattendedException {
+			if (valores[campo] == 13) {
+				throw new UnattendedException("Campo " + campo + " igual a 13", false);
+			}
+		}
+	}
+
+	@Param
+	public Avaliador avaliador;
+
+	@Param
+	public Entrada entrada;
+
+	@Param
+	public Formato formato;
+
+	@Param({ "8", "64" })
+	public int tamanho;
+
+	private Rule<int[]> regra;
+
+	private int[][] valores;
+
+	@Setup
+	public void preparar() {
+		List<Rule<int[]>> folhas = new ArrayList<Rule<int[]>>();
+		for (int i = 0; i < tamanho; i++) {
+			switch (i % 4) {
+				case 0:
+					folhas.add(Rule.create(new Positivo(i)));
+					break;
+				case 1:
+					folhas.add(Rule.create(new Limite(i)));
+					break;
+				case 2:
+					folhas.add(Rule.create(new Par(i)));
+					break;
+				default:
+					folhas.add(Rule.create(new Diferente(i)));
+					break;
+			}
+		}
+		regra = avaliador.preparar(formato == Formato.PROFUNDA ? profunda(folhas) : larga(folhas, 0, folhas.size()));
+		Random aleatorio = new Random(42);
+		valores = new int[1024][tamanho];
+		for (int i = 0; i < valores.length; i++) {
+			boolean valido = entrada.valido(aleatorio);
+			for (int campo = 0; campo < tamanho; campo++) {
+				// um objeto inválido falha em um quarto das especificações
+				valores[i][campo] = valido || aleatorio.nextInt(4) != 0 ? 2 : -1;
+			}
+			if (!valido) {
+				valores[i][aleatorio.nextInt(tamanho / 4) * 4] = -1;
+			}
+		}
+	}
+
+	private static Rule<int[]> profunda(List<Rule<int[]>> folhas) {
+		Rule<int[]> regra = folhas.get(0);
+		for (int i = 1; i < folhas.size(); i++) {
+			regra = regra.and(folhas.get(i));
+		}
+		return regra;
+	}
+
+	private static Rule<int[]> larga(List<Rule<int[]>> folhas, int inicio, int fim) {
+		if (fim - inicio == 1) {
+			return folhas.get(inicio);
+		}
+		int meio = (inicio + fim) >>> 1;
+		return larga(folhas, inicio, meio).and(larga(folhas, meio, fim));
+	}
+
+	@Benchmark
+	public Evaluation diagnostico(Cursor cursor) {
+		return regra.evaluate(cursor.proximo(valores));
+	}
+
+	@Benchmark
+	public Evaluation rapido(Cursor cursor) {
+		return regra.evaluate(cursor.proximo(valores), EvaluationMode.FAST);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Evaluation rapidoConcorrente(Cursor cursor) {
+		return regra.evaluate(cursor.proximo(valores), EvaluationMode.FAST);
+	}
+}
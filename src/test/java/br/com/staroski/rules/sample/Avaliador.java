@@ -0,0 +1,33 @@
+package br.com.staroski.rules.sample;
+
+import br.com.staroski.rules.*;
+
+// Formas de avaliar uma regra comparadas pelos benchmarks
+public enum Avaliador {
+
+	INTERPRETADO {
+
+		@Override
+		<T> Rule<T> preparar(Rule<T> regra) {
+			return regra;
+		}
+	},
+
+	COMPILADO {
+
+		@Override
+		<T> Rule<T> preparar(Rule<T> regra) {
+			return regra.compile();
+		}
+	},
+
+	GERADO {
+
+		@Override
+		<T> Rule<T> preparar(Rule<T> regra) {
+			return regra.generate();
+		}
+	};
+
+	abstract <T> Rule<T> preparar(Rule<T> regra);
+}
@@ -0,0 +1,25 @@
+package br.com.staroski.rules.sample;
+
+// Tipos de objetos avaliados pelos benchmarks
+public enum Entrada {
+
+	// todos os objetos atendem as regras
+	VALIDA,
+
+	// nenhum objeto atende as regras
+	INVALIDA,
+
+	// metade dos objetos atende as regras, em ordem aleatória
+	MISTA;
+
+	boolean valido(java.util.Random aleatorio) {
+		switch (this) {
+			case VALIDA:
+				return true;
+			case INVALIDA:
+				return false;
+			default:
+				return aleatorio.nextBoolean();
+		}
+	}
+}
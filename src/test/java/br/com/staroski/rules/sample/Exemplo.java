@@ -36,5 +36,17 @@ public class Exemplo {
 				System.out.println(detalhe);
 			}
 		}
+
+		// a mesma regra pode ser compartilhada entre threads através do evaluate,
+		// pois o resultado e os detalhes ficam na avaliação e não na regra
+		Evaluation avaliacao = regra.evaluate(new Pessoa("fulano", 30, 'X'));
+		if (!avaliacao.isSatisfied()) {
+			System.out.println();
+			System.out.println("Teste 3");
+			System.out.println("A pessoa nao atendeu as seguintes regras:");
+			for (String detalhe : avaliacao.getDetails()) {
+				System.out.println(detalhe);
+			}
+		}
 	}
 }
@@ -0,0 +1,83 @@
+package br.com.staroski.rules.sample;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import br.com.staroski.rules.*;
+
+// Benchmarks das regras do exemplo: nome, idade e sexo de uma Pessoa
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PessoaBenchmark {
+
+	// índice da próxima pessoa avaliada, um por thread
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		int proxima;
+
+		Pessoa proxima(Pessoa[] pessoas) {
+			return pessoas[proxima++ & (pessoas.length - 1)];
+		}
+	}
+
+	@Param
+	public Avaliador avaliador;
+
+	@Param
+	public Entrada entrada;
+
+	private Rule<Pessoa> regra;
+
+	private Pessoa[] pessoas;
+
+	@Setup
+	public void preparar() {
+		Rule<Pessoa> nome = Rule.create(new Nome());
+		Rule<Pessoa> idade = Rule.create(new Idade());
+		Rule<Pessoa> sexo = Rule.create(new Sexo());
+		regra = avaliador.preparar(nome.and(idade).and(sexo));
+		Random aleatorio = new Random(42);
+		pessoas = new Pessoa[1024];
+		for (int i = 0; i < pessoas.length; i++) {
+			pessoas[i] = entrada.valido(aleatorio) //
+					? new Pessoa("Fulano", 30, 'M') //
+					: new Pessoa("FuLaNo", -1, 'S');
+		}
+	}
+
+	@Benchmark
+	public Evaluation diagnostico(Cursor cursor) {
+		return regra.evaluate(cursor.proxima(pessoas));
+	}
+
+	@Benchmark
+	public Evaluation rapido(Cursor cursor) {
+		return regra.evaluate(cursor.proxima(pessoas), EvaluationMode.FAST);
+	}
+
+	// todas as threads compartilham a mesma regra
+	@Benchmark
+	@Threads(4)
+	public Evaluation diagnosticoConcorrente(Cursor cursor) {
+		return regra.evaluate(cursor.proxima(pessoas));
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Evaluation rapidoConcorrente(Cursor cursor) {
+		return regra.evaluate(cursor.proxima(pessoas), EvaluationMode.FAST);
+	}
+
+	// contrato antigo, os detalhes ficam armazenados na regra
+	@Benchmark
+	public boolean satisfeita(Cursor cursor) {
+		return regra.isSatisfiedBy(cursor.proxima(pessoas));
+	}
+}